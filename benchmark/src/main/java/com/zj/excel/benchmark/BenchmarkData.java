@@ -0,0 +1,160 @@
+package com.zj.excel.benchmark;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 性能测试使用的数据，全部在内存中按固定的随机种子生成，相同的参数每次生成的数据都相同
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public final class BenchmarkData {
+
+    private static final long SEED = 20251012L;
+
+    private static final String CJK = "销售收入成本利润合计日期客户名称地区数量单价备注";
+
+    private static final Color[] FILLS = {null, null, null, new Color(0xC6EFCE), new Color(0xFFEB9C)};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 一个 sheet 的 xlsx，第一行为表头，之后交替为文本和数字，部分单元格带背景色和字体颜色
+     *
+     * @param rows 行数
+     * @param columns 列数
+     * @param mergeDensity 每行出现一个横向合并区域的概率
+     * @param textLength 文本单元格的长度
+     * @return 内存中的 workbook
+     */
+    public static Workbook workbook(int rows, int columns, double mergeDensity, int textLength) {
+        Random random = new Random(SEED);
+        XSSFWorkbook wb = new XSSFWorkbook();
+        Sheet sheet = wb.createSheet("benchmark");
+        CellStyle[] styles = styles(wb);
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            for (int c = 0; c < columns; c++) {
+                Cell cell = row.createCell(c);
+                cell.setCellStyle(styles[random.nextInt(styles.length)]);
+                if (r == 0) {
+                    cell.setCellValue("列" + c);
+                } else if (c % 2 == 0) {
+                    cell.setCellValue(text(random, textLength));
+                } else {
+                    cell.setCellValue(random.nextInt(1_000_000) / 100.0);
+                }
+            }
+        }
+        for (CellRangeAddress region : mergedRegions(random, rows, columns, mergeDensity)) {
+            sheet.addMergedRegion(region);
+        }
+        return wb;
+    }
+
+    /**
+     * 和 {@link #workbook} 形状相同的绘制数据
+     */
+    public static List<List<JExtendedCell>> tableRows(int rows, int columns, int textLength) {
+        Random random = new Random(SEED);
+        List<List<JExtendedCell>> tableRows = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            List<JExtendedCell> row = new ArrayList<>();
+            for (int c = 0; c < columns; c++) {
+                String content = r == 0 ? "列" + c
+                        : c % 2 == 0 ? text(random, textLength) : String.valueOf(random.nextInt(1_000_000) / 100.0);
+                row.add(new JExtendedCell(content)
+                        .setBackgroundColor(FILLS[random.nextInt(FILLS.length)])
+                        .setTextColor(Color.BLACK));
+            }
+            tableRows.add(row);
+        }
+        return tableRows;
+    }
+
+    /**
+     * 和 {@link #workbook} 中合并区域相同的合并配置，行号和列号从 1 开始
+     */
+    public static List<JTableMergeConfig> mergeConfigs(int rows, int columns, double mergeDensity) {
+        List<JTableMergeConfig> configs = new ArrayList<>();
+        Random random = new Random(SEED + 1);
+        for (CellRangeAddress region : mergedRegions(random, rows, columns, mergeDensity)) {
+            configs.add(new JTableMergeConfig(region.getFirstRow() + 1, region.getLastRow() + 1,
+                    region.getFirstColumn() + 1, region.getLastColumn() + 1, true));
+        }
+        return configs;
+    }
+
+    /**
+     * 转换时使用的表格样式
+     */
+    public static JTable table(List<JTableMergeConfig> mergeConfigs) {
+        return new JTable()
+                .setCellFont(new java.awt.Font("宋体", java.awt.Font.PLAIN, 24))
+                .setHeaderFont(new java.awt.Font("宋体", java.awt.Font.BOLD, 24))
+                .setHeaderBackGroundColor(Color.gray)
+                .setMergeConfigs(mergeConfigs)
+                .setRowHeight(50);
+    }
+
+    /**
+     * 每行最多一个横向合并区域，跨 2~3 列，不会互相重叠
+     */
+    private static List<CellRangeAddress> mergedRegions(Random random, int rows, int columns, double mergeDensity) {
+        List<CellRangeAddress> regions = new ArrayList<>();
+        if (columns < 3) {
+            return regions;
+        }
+        for (int r = 1; r < rows; r++) {
+            if (random.nextDouble() < mergeDensity) {
+                int span = 2 + random.nextInt(2);
+                int first = random.nextInt(columns - span + 1);
+                regions.add(new CellRangeAddress(r, r, first, first + span - 1));
+            }
+        }
+        return regions;
+    }
+
+    private static CellStyle[] styles(Workbook wb) {
+        CellStyle plain = wb.createCellStyle();
+        CellStyle green = wb.createCellStyle();
+        green.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
+        green.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        CellStyle red = wb.createCellStyle();
+        Font redFont = wb.createFont();
+        redFont.setColor(IndexedColors.RED.getIndex());
+        red.setFont(redFont);
+        return new CellStyle[]{plain, plain, green, red};
+    }
+
+    /**
+     * 中英文混合的文本
+     */
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(random.nextInt(3) == 0
+                    ? CJK.charAt(random.nextInt(CJK.length()))
+                    : (char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
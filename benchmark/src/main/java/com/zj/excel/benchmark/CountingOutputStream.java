@@ -0,0 +1,24 @@
+package com.zj.excel.benchmark;
+
+import java.io.OutputStream;
+
+/**
+ * 只记录写出的字节数，编码测试中代替真实的输出
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class CountingOutputStream extends OutputStream {
+
+    long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+}
@@ -0,0 +1,55 @@
+package com.zj.excel.benchmark;
+
+import com.zj.excel.graph.JDrawTableUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用 ImageIO 编码一页表格图片，作为 {@link PngEncodeBenchmark} 的对照，ImageIO 没有压缩级别和过滤方式的参数
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageIoEncodeBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"10", "40"})
+    public int columns;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        image = JDrawTableUtil.drawTableWithColor(BenchmarkData.table(BenchmarkData.mergeConfigs(rows, columns, 0.2)),
+                BenchmarkData.tableRows(rows, columns, 8));
+    }
+
+    @Benchmark
+    public long imageIo() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.count;
+    }
+}
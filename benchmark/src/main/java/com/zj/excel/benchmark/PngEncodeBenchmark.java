@@ -0,0 +1,63 @@
+package com.zj.excel.benchmark;
+
+import com.zj.excel.graph.JDrawTableUtil;
+import com.zj.excel.to.image.png.PngEncoder;
+import com.zj.excel.to.image.png.PngFilterStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一页表格图片的 png 编码，ImageIO 的对照见 {@link ImageIoEncodeBenchmark}
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PngEncodeBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"10", "40"})
+    public int columns;
+
+    @Param({"1", "6"})
+    public int compressionLevel;
+
+    @Param({"NONE", "ADAPTIVE"})
+    public PngFilterStrategy filterStrategy;
+
+    private BufferedImage image;
+
+    private PngEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        image = JDrawTableUtil.drawTableWithColor(BenchmarkData.table(BenchmarkData.mergeConfigs(rows, columns, 0.2)),
+                BenchmarkData.tableRows(rows, columns, 8));
+        encoder = new PngEncoder().setCompressionLevel(compressionLevel).setFilterStrategy(filterStrategy);
+    }
+
+    @Benchmark
+    public long pngEncoder() throws IOException {
+        return encoder.encode(image, new CountingOutputStream());
+    }
+}
@@ -0,0 +1,104 @@
+package com.zj.excel.benchmark;
+
+import com.zj.excel.utils.CellStyleColorCache;
+import com.zj.excel.utils.ExcelColorUtils;
+import com.zj.excel.utils.ExcelEvaluationContext;
+import com.zj.excel.utils.ExcelUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取 sheet 的性能：单元格取值和样式颜色的查找
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SheetReadBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"10", "40"})
+    public int columns;
+
+    @Param({"0", "0.2"})
+    public double mergeDensity;
+
+    @Param({"8", "40"})
+    public int textLength;
+
+    private Workbook workbook;
+
+    private Sheet sheet;
+
+    @Setup
+    public void setUp() {
+        workbook = BenchmarkData.workbook(rows, columns, mergeDensity, textLength);
+        sheet = workbook.getSheetAt(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    /**
+     * 整个 sheet 读取为二维表数据
+     */
+    @Benchmark
+    public List<List<Object>> getSheetData() {
+        return ExcelUtils.getSheetData(sheet, new ExcelEvaluationContext(workbook));
+    }
+
+    /**
+     * 转换图片时使用的样式颜色查找，按样式下标缓存
+     */
+    @Benchmark
+    public void styleLookupCached(Blackhole blackhole) {
+        CellStyleColorCache colorCache = new CellStyleColorCache(workbook);
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                blackhole.consume(colorCache.getCellBackgroundColor(cell));
+                blackhole.consume(colorCache.getCellTextColor(cell));
+            }
+        }
+    }
+
+    /**
+     * 不使用缓存，每个单元格都重新解析样式颜色
+     */
+    @Benchmark
+    public void styleLookupUncached(Blackhole blackhole) {
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                blackhole.consume(ExcelColorUtils.getCellBackgroundColor(cell));
+                blackhole.consume(ExcelColorUtils.getCellTextColor(cell, workbook));
+            }
+        }
+    }
+}
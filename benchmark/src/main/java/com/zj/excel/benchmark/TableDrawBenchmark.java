@@ -0,0 +1,122 @@
+package com.zj.excel.benchmark;
+
+import com.zj.excel.graph.JDrawTableUtil;
+import com.zj.excel.graph.TableLayout;
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 绘制一页表格的各个阶段：布局生成单元格、合并单元格、绘制、dpi 缩放
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableDrawBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    @Param({"10", "40"})
+    public int columns;
+
+    @Param({"0", "0.2"})
+    public double mergeDensity;
+
+    @Param({"8", "40"})
+    public int textLength;
+
+    private List<List<JExtendedCell>> tableRows;
+
+    private List<JTableMergeConfig> mergeConfigs;
+
+    private JTable table;
+
+    private int tableHeight;
+
+    private List<JCell> mergedCells;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() throws IOException {
+        tableRows = BenchmarkData.tableRows(rows, columns, textLength);
+        mergeConfigs = BenchmarkData.mergeConfigs(rows, columns, mergeDensity);
+        table = BenchmarkData.table(mergeConfigs);
+        tableHeight = TableLayout.ofExtendedRows(tableRows, table).getTableHeight();
+        mergedCells = JDrawTableUtil.mergeCells(JDrawTableUtil.getTableContentWithColors(tableRows, table),
+                mergeConfigs, new ArrayList<>());
+        image = JDrawTableUtil.starDrawTableWithColors(0, mergedCells, table, tableHeight);
+    }
+
+    /**
+     * 计算布局并生成单元格对象
+     */
+    @Benchmark
+    public List<JCell> getTableContentWithColors() {
+        return JDrawTableUtil.getTableContentWithColors(tableRows, table);
+    }
+
+    /**
+     * 合并单元格，合并会修改单元格对象，每次调用前重新生成
+     */
+    @Benchmark
+    public List<JCell> mergeCells(CellsState cellsState) {
+        return JDrawTableUtil.mergeCells(cellsState.cells, mergeConfigs, new ArrayList<>());
+    }
+
+    /**
+     * 绘制合并后的单元格
+     */
+    @Benchmark
+    public BufferedImage starDrawTableWithColors() throws IOException {
+        return JDrawTableUtil.starDrawTableWithColors(0, mergedCells, table, tableHeight);
+    }
+
+    /**
+     * 把 72 dpi 的图片缩放到 144 dpi
+     */
+    @Benchmark
+    public BufferedImage convertImageByDpi() {
+        return JDrawTableUtil.convertImageByDpi(image, 144);
+    }
+
+    /**
+     * 每次调用 {@link #mergeCells} 之前重新生成的单元格
+     */
+    @State(Scope.Thread)
+    public static class CellsState {
+
+        private List<JCell> cells;
+
+        @Setup(Level.Invocation)
+        public void setUp(TableDrawBenchmark benchmark) {
+            cells = JDrawTableUtil.getTableContentWithColors(benchmark.tableRows, benchmark.table);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.zj.excel.benchmark.corpus;
+
+import com.zj.excel.FileTypeEnum;
+
+/**
+ * 生成的一个 excel 文件
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CorpusFile {
+
+    private final CorpusScenario scenario;
+
+    private final FileTypeEnum fileType;
+
+    private final byte[] data;
+
+    private final long cellCount;
+
+    CorpusFile(CorpusScenario scenario, FileTypeEnum fileType, byte[] data, long cellCount) {
+        this.scenario = scenario;
+        this.fileType = fileType;
+        this.data = data;
+        this.cellCount = cellCount;
+    }
+
+    public CorpusScenario getScenario() {
+        return scenario;
+    }
+
+    public FileTypeEnum getFileType() {
+        return fileType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * @return 所有 sheet 中实际存在的单元格数量
+     */
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return 例如 WIDE_FINANCIAL.xlsx
+     */
+    public String getName() {
+        return scenario.name() + "." + fileType.name().toLowerCase();
+    }
+}
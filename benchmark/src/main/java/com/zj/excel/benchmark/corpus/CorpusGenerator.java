@@ -0,0 +1,81 @@
+package com.zj.excel.benchmark.corpus;
+
+import com.zj.excel.FileTypeEnum;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * 按场景生成端到端性能测试使用的 excel 文件
+ * <p> 相同的场景、文件类型、种子和 scale 每次生成的内容都相同。
+ * 公式在写出前计算一次，文件中带有公式的缓存结果，和 excel 保存的文件一致。xls 最多 65536 行，超出的行不会生成 </p>
+ * <p> 也可以直接运行，把所有场景的文件写到目录中：{@code CorpusGenerator <目录> [scale] [seed]} </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public final class CorpusGenerator {
+
+    public static final long DEFAULT_SEED = 20251012L;
+
+    private CorpusGenerator() {
+    }
+
+    /**
+     * 生成一个文件
+     *
+     * @param scenario 场景
+     * @param fileType 文件类型
+     * @param seed 随机种子
+     * @param scale 行数的缩放比例
+     * @return 生成的文件
+     * @throws IOException 写出 workbook 时的异常
+     */
+    public static CorpusFile generate(CorpusScenario scenario, FileTypeEnum fileType, long seed, double scale)
+            throws IOException {
+        try (Workbook wb = fileType == FileTypeEnum.XLS ? new HSSFWorkbook() : new XSSFWorkbook()) {
+            SpreadsheetVersion version = wb.getSpreadsheetVersion();
+            int rows = Math.min(scenario.rows(scale), version.getMaxRows());
+            scenario.fill(wb, new Random(seed ^ scenario.ordinal()), rows);
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            long cellCount = 0;
+            for (Sheet sheet : wb) {
+                for (Row row : sheet) {
+                    cellCount += row.getPhysicalNumberOfCells();
+                }
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            return new CorpusFile(scenario, fileType, outputStream.toByteArray(), cellCount);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法: CorpusGenerator <目录> [scale] [seed]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        double scale = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Files.createDirectories(directory);
+        for (CorpusScenario scenario : CorpusScenario.values()) {
+            for (FileTypeEnum fileType : new FileTypeEnum[]{FileTypeEnum.XLSX, FileTypeEnum.XLS}) {
+                CorpusFile file = generate(scenario, fileType, seed, scale);
+                Files.write(directory.resolve(file.getName()), file.getData());
+                System.out.printf("%s: %d 个单元格, %d 字节%n", file.getName(), file.getCellCount(),
+                        file.getData().length);
+            }
+        }
+    }
+}
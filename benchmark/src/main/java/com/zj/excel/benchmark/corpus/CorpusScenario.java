@@ -0,0 +1,255 @@
+package com.zj.excel.benchmark.corpus;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import java.util.Random;
+
+/**
+ * 端到端性能测试的 excel 形状，每种形状按 scale 缩放行数，scale 为 1 时接近真实文件的规模
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public enum CorpusScenario {
+
+    /**
+     * 宽表财务报表：60 列，科目 + 12 个月 x 4 个指标 + 合计，小计行加粗并带背景色，冻结表头
+     */
+    WIDE_FINANCIAL(2_000) {
+        @Override
+        void fill(Workbook wb, Random random, int rows) {
+            Sheet sheet = wb.createSheet("财务报表");
+            CellStyle header = boldStyle(wb, IndexedColors.GREY_25_PERCENT);
+            CellStyle subtotal = boldStyle(wb, IndexedColors.LIGHT_YELLOW);
+            CellStyle money = wb.createCellStyle();
+            money.setDataFormat(wb.createDataFormat().getFormat("#,##0.00"));
+            int columns = 60;
+            Row head = sheet.createRow(0);
+            head.createCell(0).setCellValue("科目编码");
+            head.createCell(1).setCellValue("科目名称");
+            for (int c = 2; c < columns; c++) {
+                head.createCell(c).setCellValue(String.format("%d月-%s", (c - 2) / 4 % 12 + 1,
+                        new String[]{"预算", "实际", "差异", "占比"}[(c - 2) % 4]));
+            }
+            for (Cell cell : head) {
+                cell.setCellStyle(header);
+            }
+            sheet.createFreezePane(0, 1);
+            for (int r = 1; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                boolean isSubtotal = r % 20 == 0;
+                row.createCell(0).setCellValue(String.format("%04d.%02d", 6000 + r / 20, r % 20));
+                row.createCell(1).setCellValue(isSubtotal ? "小计" : ACCOUNTS[random.nextInt(ACCOUNTS.length)]);
+                for (int c = 2; c < columns; c++) {
+                    Cell cell = row.createCell(c);
+                    cell.setCellValue(random.nextInt(100_000_000) / 100.0);
+                    cell.setCellStyle(isSubtotal ? subtotal : money);
+                }
+            }
+        }
+    },
+
+    /**
+     * 日志：8 列，100000 行，时间、级别、线程、类名和较长的消息
+     */
+    LARGE_LOG(100_000) {
+        @Override
+        void fill(Workbook wb, Random random, int rows) {
+            Sheet sheet = wb.createSheet("log");
+            String[] headers = {"time", "level", "thread", "logger", "traceId", "cost", "status", "message"};
+            Row head = sheet.createRow(0);
+            for (int c = 0; c < headers.length; c++) {
+                head.createCell(c).setCellValue(headers[c]);
+            }
+            String[] levels = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+            long time = 1_760_000_000_000L;
+            for (int r = 1; r < rows; r++) {
+                time += random.nextInt(500);
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(String.format("2025-10-12 %02d:%02d:%02d.%03d",
+                        time / 3_600_000 % 24, time / 60_000 % 60, time / 1000 % 60, time % 1000));
+                row.createCell(1).setCellValue(levels[random.nextInt(levels.length)]);
+                row.createCell(2).setCellValue("pool-1-thread-" + random.nextInt(32));
+                row.createCell(3).setCellValue("com.zj.excel.service.Handler" + random.nextInt(20));
+                row.createCell(4).setCellValue(Long.toHexString(random.nextLong()));
+                row.createCell(5).setCellValue(random.nextInt(2000));
+                row.createCell(6).setCellValue(random.nextInt(10) == 0 ? 500 : 200);
+                row.createCell(7).setCellValue(randomAscii(random, 40 + random.nextInt(80)));
+            }
+        }
+    },
+
+    /**
+     * 日历：每个月一个标题行（合并 7 列）和星期行，每天占 3 行并纵向合并，合并区域很多
+     */
+    MERGED_CALENDAR(12 * 20) {
+        @Override
+        void fill(Workbook wb, Random random, int rows) {
+            Sheet sheet = wb.createSheet("日历");
+            CellStyle title = boldStyle(wb, IndexedColors.LIGHT_CORNFLOWER_BLUE);
+            CellStyle weekend = fillStyle(wb, IndexedColors.ROSE);
+            String[] weekdays = {"一", "二", "三", "四", "五", "六", "日"};
+            int r = 0;
+            for (int month = 0; r < rows; month++) {
+                Row titleRow = sheet.createRow(r);
+                Cell titleCell = titleRow.createCell(0);
+                titleCell.setCellValue(String.format("%d 年 %d 月", 2025 + month / 12, month % 12 + 1));
+                titleCell.setCellStyle(title);
+                sheet.addMergedRegion(new CellRangeAddress(r, r, 0, 6));
+                Row weekRow = sheet.createRow(r + 1);
+                for (int c = 0; c < 7; c++) {
+                    weekRow.createCell(c).setCellValue("星期" + weekdays[c]);
+                }
+                r += 2;
+                int day = 1;
+                for (int week = 0; week < 5 && day <= 30; week++) {
+                    for (int i = 0; i < 3; i++) {
+                        sheet.createRow(r + i);
+                    }
+                    for (int c = 0; c < 7 && day <= 30; c++, day++) {
+                        Cell cell = sheet.getRow(r).createCell(c);
+                        cell.setCellValue(day + "日\n" + EVENTS[random.nextInt(EVENTS.length)]);
+                        if (c >= 5) {
+                            cell.setCellStyle(weekend);
+                        }
+                        sheet.addMergedRegion(new CellRangeAddress(r, r + 2, c, c));
+                    }
+                    r += 3;
+                }
+            }
+        }
+    },
+
+    /**
+     * 财务模型：20 列，除了第一列都是公式（引用上一行、同一行的求和和比例），写出前计算好结果
+     */
+    FORMULA_MODEL(3_000) {
+        @Override
+        void fill(Workbook wb, Random random, int rows) {
+            Sheet sheet = wb.createSheet("model");
+            int columns = 20;
+            Row head = sheet.createRow(0);
+            for (int c = 0; c < columns; c++) {
+                head.createCell(c).setCellValue(c == 0 ? "输入" : "指标" + c);
+            }
+            for (int r = 1; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(random.nextInt(10_000) / 10.0);
+                for (int c = 1; c < columns; c++) {
+                    String left = new CellReference(r, c - 1).formatAsString();
+                    String formula;
+                    if (r == 1) {
+                        formula = left + "*1.05";
+                    } else if (c % 3 == 0) {
+                        formula = String.format("SUM(%s:%s)", new CellReference(r, 0).formatAsString(), left);
+                    } else if (c % 3 == 1) {
+                        formula = String.format("%s+%s*0.1", left, new CellReference(r - 1, c).formatAsString());
+                    } else {
+                        formula = String.format("IF(%s=0,0,ROUND(%s/%s,4))", left, left,
+                                new CellReference(r - 1, c - 1).formatAsString());
+                    }
+                    row.createCell(c).setCellFormula(formula);
+                }
+            }
+        }
+    },
+
+    /**
+     * 中文长文本：10 列，单元格中是较长的中文段落，部分带换行
+     */
+    CJK_TEXT(5_000) {
+        @Override
+        void fill(Workbook wb, Random random, int rows) {
+            Sheet sheet = wb.createSheet("中文");
+            int columns = 10;
+            Row head = sheet.createRow(0);
+            for (int c = 0; c < columns; c++) {
+                head.createCell(c).setCellValue("字段" + (c + 1));
+            }
+            for (int r = 1; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < columns; c++) {
+                    String text = randomCjk(random, 6 + random.nextInt(30));
+                    if (random.nextInt(5) == 0) {
+                        text += "\n" + randomCjk(random, 4 + random.nextInt(10));
+                    }
+                    row.createCell(c).setCellValue(text);
+                }
+            }
+        }
+    };
+
+    private static final String[] ACCOUNTS = {"营业收入", "营业成本", "销售费用", "管理费用", "研发费用", "财务费用",
+            "应收账款", "预付账款", "其他应收款", "存货", "固定资产", "无形资产"};
+
+    private static final String[] EVENTS = {"", "", "例会", "出差", "项目评审", "客户拜访", "培训", "发版"};
+
+    private static final String CJK = "的一是在不了有和人这中大为上个国我以要他时来用们生到作地于出就分对成会可主发年动同工也能下过子说产种面而方后多定行学法所民得经十三之进着等部度家电力里如水化高自二理起小物现实加量都两体制机当使点从业本去把性好应开它合还因由其些然前外天政四日那社义事平形相全表间样与关各重新线内数正心反你明看原又么利比或但质气第向道命此变条只没结解问意建月公无系军很情者最立代想已通并提直题党程展五果料象员革位入常文总次品式活设及管特件长求老头基资边流路级少图山统接知较将组见计别她手角期根论运农指几九区强放决西被干做必战先回则任取据处队南给色光门即保治北造百规热领七海口东导器压志世金增争济阶油思术极交受联什认六共权收证改清己美再采转更单风切打白教速花带安场身车例真务具万每目至达走积示议声报斗完类八离华名确才科张信马节话米整空元况今集温传土许步群广石记需段研界拉林律叫且究观越织装影算低持音众书布复容儿须际商非验连断深难近矿千周委素技备半办青省列习响约支般史感劳便团往酸历市克何除消构府称太准精值号率族维划选标写存候毛亲快效斯院查江型眼王按格养易置派层片始却专状育厂京识适属圆包火住调满县局照参红细引听该铁价严";
+
+    /**
+     * scale 为 1 时的行数
+     */
+    private final int rows;
+
+    CorpusScenario(int rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @param scale 行数的缩放比例
+     * @return 缩放后的行数，至少 10 行
+     */
+    public int rows(double scale) {
+        return Math.max(10, (int) Math.round(rows * scale));
+    }
+
+    /**
+     * 生成 sheet 的数据
+     *
+     * @param wb workbook
+     * @param random 固定种子的随机数
+     * @param rows 行数
+     */
+    abstract void fill(Workbook wb, Random random, int rows);
+
+    private static CellStyle boldStyle(Workbook wb, IndexedColors fill) {
+        CellStyle style = fillStyle(wb, fill);
+        Font font = wb.createFont();
+        font.setBold(true);
+        style.setFont(font);
+        return style;
+    }
+
+    private static CellStyle fillStyle(Workbook wb, IndexedColors fill) {
+        CellStyle style = wb.createCellStyle();
+        style.setFillForegroundColor(fill.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
+    private static String randomAscii(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            int n = random.nextInt(30);
+            text.append(n < 26 ? (char) ('a' + n) : ' ');
+        }
+        return text.toString();
+    }
+
+    private static String randomCjk(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(CJK.charAt(random.nextInt(CJK.length())));
+        }
+        return text.toString();
+    }
+}
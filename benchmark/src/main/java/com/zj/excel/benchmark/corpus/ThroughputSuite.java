@@ -0,0 +1,292 @@
+package com.zj.excel.benchmark.corpus;
+
+import com.zj.excel.FileTypeEnum;
+import com.zj.excel.to.image.ExcelDrawUtil;
+import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import com.zj.excel.to.image.png.PngEncoder;
+import com.zj.excel.to.image.sink.PageImageSink;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 端到端的吞吐量回归测试
+ * <p> 对每个场景和文件类型运行完整的 {@link ExcelDrawUtil#excelToPngWithColor(ExcelDrawImageRequest, PageImageSink)}，
+ * 每一页编码为 png 后只统计字节数。先预热一次，再取多次运行中最快的一次，输出每秒页数、每秒单元格数、堆内存峰值和输出的字节数。
+ * 堆内存峰值为转换期间各个堆内存区峰值之和，是实际峰值的上限，用来比较同一台机器上的变化 </p>
+ * <p> 指定基线文件时和基线比较：每秒单元格数低于基线的 (1 - threshold) 倍，或者堆内存峰值超过基线的 (1 + threshold) 倍时视为退化，
+ * 进程以 1 退出。使用 --update-baseline 把本次结果写入基线文件。基线和机器相关，需要在同一台机器上生成和比较 </p>
+ *
+ * <pre>
+ * 参数:
+ *   --scale 0.1                 行数的缩放比例，默认 1
+ *   --runs 3                    每个场景运行的次数，默认 3
+ *   --scenarios A,B             只运行指定的场景，默认全部
+ *   --formats xlsx,xls          文件类型，默认 xlsx,xls
+ *   --streaming                 使用流式读取
+ *   --threads 4                 绘制线程数，默认 1
+ *   --baseline 文件             基线文件（properties 格式）
+ *   --threshold 0.15            允许的退化比例，默认 0.15
+ *   --update-baseline           把本次结果写入基线文件
+ * </pre>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ThroughputSuite {
+
+    private double scale = 1.0;
+
+    private int runs = 3;
+
+    private final List<CorpusScenario> scenarios = new ArrayList<>();
+
+    private final List<FileTypeEnum> fileTypes = new ArrayList<>();
+
+    private boolean streaming;
+
+    private int threads = 1;
+
+    private Path baseline;
+
+    private double threshold = 0.15;
+
+    private boolean updateBaseline;
+
+    public static void main(String[] args) throws IOException {
+        ThroughputSuite suite = parse(args);
+        Map<String, Result> results = suite.run();
+        int regressions = suite.compareWithBaseline(results);
+        if (regressions > 0) {
+            System.err.printf("有 %d 项指标超过了允许的退化比例 %.0f%%%n", regressions, suite.threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    static ThroughputSuite parse(String[] args) {
+        ThroughputSuite suite = new ThroughputSuite();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--scale":
+                    suite.scale = Double.parseDouble(args[++i]);
+                    break;
+                case "--runs":
+                    suite.runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--scenarios":
+                    for (String name : args[++i].split(",")) {
+                        suite.scenarios.add(CorpusScenario.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--formats":
+                    for (String name : args[++i].split(",")) {
+                        suite.fileTypes.add(FileTypeEnum.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--streaming":
+                    suite.streaming = true;
+                    break;
+                case "--threads":
+                    suite.threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--baseline":
+                    suite.baseline = Paths.get(args[++i]);
+                    break;
+                case "--threshold":
+                    suite.threshold = Double.parseDouble(args[++i]);
+                    break;
+                case "--update-baseline":
+                    suite.updateBaseline = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的参数: " + args[i]);
+            }
+        }
+        if (suite.scenarios.isEmpty()) {
+            suite.scenarios.addAll(java.util.Arrays.asList(CorpusScenario.values()));
+        }
+        if (suite.fileTypes.isEmpty()) {
+            suite.fileTypes.add(FileTypeEnum.XLSX);
+            suite.fileTypes.add(FileTypeEnum.XLS);
+        }
+        return suite;
+    }
+
+    Map<String, Result> run() throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        System.out.printf("%-24s %10s %12s %14s %12s %14s%n",
+                "scenario", "pages", "pages/s", "cells/s", "peakHeapMB", "outputBytes");
+        for (CorpusScenario scenario : scenarios) {
+            for (FileTypeEnum fileType : fileTypes) {
+                CorpusFile file = CorpusGenerator.generate(scenario, fileType, CorpusGenerator.DEFAULT_SEED, scale);
+                // 预热
+                convert(file);
+                Result best = null;
+                for (int i = 0; i < runs; i++) {
+                    Result result = convert(file);
+                    if (best == null || result.nanos < best.nanos) {
+                        best = result;
+                    }
+                }
+                results.put(file.getName(), best);
+                System.out.printf("%-24s %10d %12.2f %14.0f %12.1f %14d%n", file.getName(), best.pages,
+                        best.pagesPerSecond(), best.cellsPerSecond(), best.peakHeapBytes / 1024.0 / 1024.0,
+                        best.outputBytes);
+            }
+        }
+        return results;
+    }
+
+    private Result convert(CorpusFile file) throws IOException {
+        CountingSink sink = new CountingSink();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long start = System.nanoTime();
+        try (InputStream inputStream = new ByteArrayInputStream(file.getData())) {
+            ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                    .setExcelStream(inputStream)
+                    .setFileTypeEnum(file.getFileType())
+                    .setStreaming(streaming)
+                    .setRenderThreadCount(threads), sink);
+        }
+        Result result = new Result();
+        result.nanos = System.nanoTime() - start;
+        for (MemoryPoolMXBean pool : heapPools) {
+            result.peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        result.pages = sink.pages;
+        result.cells = file.getCellCount();
+        result.outputBytes = sink.bytes;
+        return result;
+    }
+
+    /**
+     * @return 退化的指标数量
+     */
+    int compareWithBaseline(Map<String, Result> results) throws IOException {
+        if (baseline == null) {
+            return 0;
+        }
+        if (updateBaseline) {
+            Properties properties = new Properties();
+            results.forEach((name, result) -> {
+                properties.setProperty(name + ".cellsPerSecond", String.format(Locale.ROOT, "%.0f",
+                        result.cellsPerSecond()));
+                properties.setProperty(name + ".peakHeapBytes", String.valueOf(result.peakHeapBytes));
+            });
+            if (baseline.getParent() != null) {
+                Files.createDirectories(baseline.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(baseline, StandardCharsets.UTF_8)) {
+                properties.store(writer, String.format(Locale.ROOT, "scale=%s streaming=%s threads=%d",
+                        scale, streaming, threads));
+            }
+            System.out.println("已更新基线: " + baseline);
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(baseline)) {
+            properties.load(inputStream);
+        }
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            String name = entry.getKey();
+            Result result = entry.getValue();
+            String cells = properties.getProperty(name + ".cellsPerSecond");
+            if (cells != null && result.cellsPerSecond() < Double.parseDouble(cells) * (1 - threshold)) {
+                System.err.printf("%s 每秒单元格数退化: %.0f -> %.0f%n", name, Double.parseDouble(cells),
+                        result.cellsPerSecond());
+                regressions++;
+            }
+            String heap = properties.getProperty(name + ".peakHeapBytes");
+            if (heap != null && result.peakHeapBytes > Long.parseLong(heap) * (1 + threshold)) {
+                System.err.printf("%s 堆内存峰值退化: %d -> %d%n", name, Long.parseLong(heap), result.peakHeapBytes);
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * 一次转换的结果
+     */
+    static class Result {
+
+        private long nanos;
+
+        private long pages;
+
+        private long cells;
+
+        private long peakHeapBytes;
+
+        private long outputBytes;
+
+        double pagesPerSecond() {
+            return pages * 1e9 / nanos;
+        }
+
+        double cellsPerSecond() {
+            return cells * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * 把每一页编码为 png，只统计页数和字节数
+     */
+    private static class CountingSink implements PageImageSink {
+
+        private final PngEncoder encoder = new PngEncoder();
+
+        private final OutputStream counter = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+            }
+        };
+
+        private long pages;
+
+        private long bytes;
+
+        @Override
+        public void accept(int sheetIndex, String sheetName, int pageIndex, BufferedImage image) throws IOException {
+            pages++;
+            encoder.encode(image, counter);
+        }
+
+        @Override
+        public void acceptPng(int sheetIndex, String sheetName, int pageIndex, byte[] png) {
+            pages++;
+            bytes += png.length;
+        }
+    }
+}
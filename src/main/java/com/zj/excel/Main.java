@@ -3,13 +3,15 @@ package com.zj.excel;
 import cn.hutool.core.io.FileUtil;
 import com.zj.excel.to.image.ExcelDrawUtil;
 import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import com.zj.excel.to.image.png.PngEncoder;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 /**
@@ -31,11 +33,13 @@ public class Main {
                 .setDefaultRowLength(2)
                 .setFileTypeEnum(FileTypeEnum.XLSX);
         Map<String, BufferedImage> imageMap = ExcelDrawUtil.excelToPngWithColor(request);
+        PngEncoder pngEncoder = new PngEncoder();
         imageMap.forEach((imageName, image) -> {
             System.out.println("imageName: " + imageName);
             System.out.println("image: " + image);
-            try {
-                ImageIO.write(image, "png", new File("/Users/zj/Desktop/test_excel/image/" + imageName));
+            try (OutputStream outputStream = new BufferedOutputStream(
+                    new FileOutputStream("/Users/zj/Desktop/test_excel/image/" + imageName))) {
+                pngEncoder.encode(image, outputStream);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
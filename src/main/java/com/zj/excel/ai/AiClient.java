@@ -0,0 +1,192 @@
+package com.zj.excel.ai;
+
+import cn.hutool.ai.core.AIConfig;
+import cn.hutool.ai.model.openai.OpenaiService;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.zj.excel.ai.domain.ChatCompletion;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 调用 ai 的客户端，可以在多个线程之间共用
+ * <ul>
+ *     <li>同时进行的请求数不超过 maxConcurrency，超出的调用最多等待 timeoutMillis，等不到时直接返回 null</li>
+ *     <li>每次 http 请求的连接和读取超时时间为 timeoutMillis</li>
+ *     <li>提示词完全相同的调用同时进行时只发出一个请求，其他调用等待并共用这个请求的结果，
+ *     例如同一个模板的多个文件同时转换时只会调用一次 ai</li>
+ * </ul>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class AiClient {
+
+    /**
+     * 返回结果不是 json 时的最多调用次数
+     */
+    private static final int JSON_ATTEMPTS = 3;
+
+    private final OpenaiService openaiService;
+
+    private final Semaphore permits;
+
+    private final long timeoutMillis;
+
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * 最多同时 4 个请求，超时时间 60 秒
+     *
+     * @param aiConfig ai 配置
+     */
+    public AiClient(AIConfig aiConfig) {
+        this(aiConfig, 4, 60_000);
+    }
+
+    /**
+     * @param aiConfig ai 配置
+     * @param maxConcurrency 同时进行的请求数上限
+     * @param timeoutMillis 等待请求名额和每次 http 请求的超时时间
+     */
+    public AiClient(AIConfig aiConfig, int maxConcurrency, long timeoutMillis) {
+        this.openaiService = new TimeoutOpenaiService(aiConfig, (int) Math.min(Integer.MAX_VALUE, timeoutMillis));
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 调用 ai，返回去掉 &lt;think&gt; 标签后的回答
+     *
+     * @param prompt 提示词
+     * @return ai 的回答，超时或者出错时返回 null
+     */
+    public String invoke(String prompt) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(prompt, flight);
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            return existing.join();
+        }
+        String content = null;
+        try {
+            content = doInvoke(prompt);
+            return content;
+        } finally {
+            inFlight.remove(prompt, flight);
+            flight.complete(content);
+        }
+    }
+
+    /**
+     * 调用 ai 并把回答解析为 json，回答不是 json 时要求 ai 重新整理，最多调用 3 次
+     *
+     * @param prompt 提示词
+     * @param clazz 返回结果的类型
+     * @return 解析后的结果，超时、出错或者一直不是 json 时返回 null
+     */
+    public <T> T invokeWithJson(String prompt, Class<T> clazz) {
+        return invokeWithJson(prompt, clazz, JSON_ATTEMPTS);
+    }
+
+    /**
+     * @param attempts 最多调用的次数
+     */
+    public <T> T invokeWithJson(String prompt, Class<T> clazz, int attempts) {
+        return invokeWithJson(prompt, chatResult -> JSONUtil.toBean(chatResult, clazz), attempts);
+    }
+
+    /**
+     * 调用 ai 并把回答解析为带泛型的类型，例如 {@code new TypeReference<Map<String, RowIndexInfoDTO>>() {}}
+     *
+     * @param prompt 提示词
+     * @param type 返回结果的类型
+     * @return 解析后的结果，超时、出错或者一直不是 json 时返回 null
+     */
+    public <T> T invokeWithJson(String prompt, Type type) {
+        return invokeWithJson(prompt, chatResult -> JSONUtil.toBean(chatResult, type, true), JSON_ATTEMPTS);
+    }
+
+    private <T> T invokeWithJson(String prompt, Function<String, T> parser, int attempts) {
+        String currentPrompt = prompt;
+        for (int i = 0; i < attempts; i++) {
+            String chatResult = invoke(currentPrompt);
+            if (chatResult == null) {
+                return null;
+            }
+            if (JSONUtil.isTypeJSON(chatResult)) {
+                try {
+                    return parser.apply(chatResult);
+                } catch (Exception exception) {
+                    log.error("invokeWithJson 解析 ai 返回结果错误，错误信息: {}", exception.getMessage());
+                    log.warn("invokeWithJson 出错的返回结果为: {}", chatResult);
+                    return null;
+                }
+            }
+            currentPrompt = String.format("你返回的结果不是一个 json 字符串，请你去掉非json字符串的内容，只返回 json的结果即可。原始结果为: %s", chatResult);
+        }
+        log.warn("调用了 {} 次仍然没有获取到 json 结果，直接返回 null 了", attempts);
+        return null;
+    }
+
+    /**
+     * @return 实际发出的请求数
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return 和同时进行的相同提示词合并，没有单独发出请求的调用次数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private String doInvoke(String prompt) {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("AiClient::等待 {} ms 仍然没有空闲的请求名额，放弃本次调用", timeoutMillis);
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        String chatResult = "";
+        try {
+            requestCount.incrementAndGet();
+            chatResult = openaiService.chat(prompt);
+            JSONObject jsonObject = JSONUtil.parseObj(chatResult);
+            ChatCompletion chatCompletion = jsonObject.toBean(ChatCompletion.class);
+            String content = chatCompletion.getChoices().get(0).getMessage().getContent();
+            if (StringUtils.isNotBlank(content)) {
+                // 找出 <think> </think> 标签之间的内容（包含标签）替换为空格
+                content = content.replaceAll("(?s)<think>.*?</think>", "").trim();
+            }
+            return content;
+        } catch (Exception exception) {
+            log.error("调用 ai 错误，错误信息: {}", exception.getMessage());
+            log.warn("出错的返回结果为: {}", chatResult);
+            return null;
+        } finally {
+            permits.release();
+            log.info("invoke 调用 ai 结束，整体耗时: cost:{}", System.currentTimeMillis() - startTime);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.zj.excel.ai;
+
+import cn.hutool.ai.core.AIConfig;
+import cn.hutool.ai.model.openai.OpenaiServiceImpl;
+import cn.hutool.http.Header;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+
+/**
+ * 可以设置超时时间的 openai 接口调用，hutool 默认的超时时间固定为 180 秒
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class TimeoutOpenaiService extends OpenaiServiceImpl {
+
+    private final int timeoutMillis;
+
+    TimeoutOpenaiService(AIConfig config, int timeoutMillis) {
+        super(config);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    protected HttpResponse sendPost(String endpoint, String paramJson) {
+        return HttpRequest.post(config.getApiUrl() + endpoint)
+                .header(Header.CONTENT_TYPE, "application/json")
+                .header(Header.ACCEPT, "application/json")
+                .header(Header.AUTHORIZATION, "Bearer " + config.getApiKey())
+                .body(paramJson)
+                .timeout(timeoutMillis)
+                .execute();
+    }
+}
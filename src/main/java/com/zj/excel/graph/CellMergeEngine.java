@@ -0,0 +1,161 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按 (行, 列) 索引单元格后执行合并，结果和逐个配置过滤整个列表、removeAll、复制列表的方式完全一致
+ * <p> 单元格只建一次索引：按行分组、组内按列排序，以及按列分组、组内按行排序。
+ * 每个合并配置通过索引的范围查询找到要合并的单元格，被合并的单元格只打删除标记，
+ * 合并后的单元格追加到末尾，最后按追加顺序输出一次 </p>
+ * <p> 配置仍然按顺序依次执行，后面的配置可以继续合并前面生成的单元格（矩形区域由竖向 + 横向两个配置组成） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class CellMergeEngine {
+
+    /**
+     * 所有单元格，下标即追加顺序
+     */
+    private final List<JCell> cells = new ArrayList<>();
+
+    /**
+     * 已经被合并掉的单元格下标
+     */
+    private final BitSet removed = new BitSet();
+
+    /**
+     * 行 -> 列 -> 该位置的单元格下标（按追加顺序）
+     */
+    private final Map<Integer, TreeMap<Integer, List<Integer>>> rowIndex = new HashMap<>();
+
+    /**
+     * 列 -> 行 -> 该位置的单元格下标（按追加顺序）
+     */
+    private final Map<Integer, TreeMap<Integer, List<Integer>>> columnIndex = new HashMap<>();
+
+    CellMergeEngine(List<JCell> allCells) {
+        for (JCell cell : allCells) {
+            add(cell);
+        }
+    }
+
+    /**
+     * 依次执行所有合并配置
+     */
+    List<JCell> merge(List<JTableMergeConfig> mergeConfigs) {
+        for (JTableMergeConfig config : mergeConfigs) {
+            if (config.isHorizontal()) {
+                // 横向合并：起始行中列在范围内的单元格
+                apply(config, find(rowIndex, config.getStartRow(), config.getStartCol(), config.getEndCol()), true);
+            } else {
+                // 竖向合并：起始列中行在范围内的单元格
+                apply(config, find(columnIndex, config.getStartCol(), config.getStartRow(), config.getEndRow()), false);
+            }
+        }
+        List<JCell> result = new ArrayList<>(cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            if (!removed.get(i)) {
+                result.add(cells.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void apply(JTableMergeConfig config, List<Integer> cellsToMerge, boolean horizontal) {
+        if (cellsToMerge.size() < 2) {
+            return;
+        }
+        JCell first = cells.get(cellsToMerge.get(0));
+        List<String> contentList = new ArrayList<>();
+        int size = 0;
+        for (int id : cellsToMerge) {
+            JCell cell = cells.get(id);
+            if (StringUtils.isNotBlank(cell.getContent())) {
+                contentList.add(cell.getContent());
+            }
+            size += horizontal ? cell.getWidth() : cell.getHeight();
+        }
+        // 创建合并后的单元格
+        JCell mergedCell = new JCell();
+        mergedCell.setRow(config.getStartRow());
+        mergedCell.setColumn(config.getStartCol());
+        mergedCell.setX(first.getX());
+        mergedCell.setY(first.getY());
+        mergedCell.setWidth(horizontal ? size : first.getWidth());
+        mergedCell.setHeight(horizontal ? first.getHeight() : size);
+        mergedCell.setContent(String.join("\n", contentList));
+        mergedCell.setTextAlign(first.isTextAlign());
+        mergedCell.setBackgroundColor(first.getBackgroundColor());
+        mergedCell.setTextColor(first.getTextColor());
+
+        // 移除被合并的单元格，和 removeAll 一样，同一位置上与之相等的单元格也一起移除
+        for (int id : cellsToMerge) {
+            JCell target = cells.get(id);
+            for (int sameCell : new ArrayList<>(bucket(target.getRow(), target.getColumn()))) {
+                if (sameCell == id || cells.get(sameCell).equals(target)) {
+                    remove(sameCell);
+                }
+            }
+        }
+        add(mergedCell);
+    }
+
+    /**
+     * 范围查询，按次序键升序，次序键相同时按追加顺序，和对列表做稳定排序的结果一致
+     */
+    private List<Integer> find(Map<Integer, TreeMap<Integer, List<Integer>>> index, int key, int from, int to) {
+        List<Integer> found = new ArrayList<>();
+        TreeMap<Integer, List<Integer>> line = index.get(key);
+        if (line == null || from > to) {
+            return found;
+        }
+        for (List<Integer> ids : line.subMap(from, true, to, true).values()) {
+            found.addAll(ids);
+        }
+        return found;
+    }
+
+    private void add(JCell cell) {
+        int id = cells.size();
+        cells.add(cell);
+        rowIndex.computeIfAbsent(cell.getRow(), k -> new TreeMap<>())
+                .computeIfAbsent(cell.getColumn(), k -> new ArrayList<>(1)).add(id);
+        columnIndex.computeIfAbsent(cell.getColumn(), k -> new TreeMap<>())
+                .computeIfAbsent(cell.getRow(), k -> new ArrayList<>(1)).add(id);
+    }
+
+    private void remove(int id) {
+        if (removed.get(id)) {
+            return;
+        }
+        removed.set(id);
+        JCell cell = cells.get(id);
+        removeFromIndex(rowIndex, cell.getRow(), cell.getColumn(), id);
+        removeFromIndex(columnIndex, cell.getColumn(), cell.getRow(), id);
+    }
+
+    private static void removeFromIndex(Map<Integer, TreeMap<Integer, List<Integer>>> index, int key, int order,
+                                        int id) {
+        TreeMap<Integer, List<Integer>> line = index.get(key);
+        List<Integer> ids = line.get(order);
+        ids.remove(Integer.valueOf(id));
+        if (ids.isEmpty()) {
+            line.remove(order);
+        }
+    }
+
+    private List<Integer> bucket(int row, int column) {
+        List<Integer> ids = rowIndex.get(row).get(column);
+        return ids == null ? new ArrayList<>() : ids;
+    }
+}
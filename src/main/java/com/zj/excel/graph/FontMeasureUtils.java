@@ -0,0 +1,221 @@
+package com.zj.excel.graph;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文字宽度测量，供列宽计算和单元格内文字居中使用
+ * <p> 原来每个单元格都会创建一张 1x1 的图片和一个 Graphics2D 来获取 {@link FontMetrics}，这里每种字体只获取一次。
+ * 测量使用的 FontRenderContext 和绘制表格时画布的默认值一致（无变换、不抗锯齿、不使用小数字宽），结果和直接在画布上测量相同 </p>
+ * <p> 不使用小数字宽时每个字符的宽度都是整数，字符串宽度就是各字符宽度之和：拉丁字符和常用汉字的宽度按字符缓存，
+ * 只包含这些字符的内容直接累加；其他内容（例如需要排版的复杂文字）交给 {@link FontMetrics#stringWidth}，结果放入有上限的 LRU 缓存 </p>
+ * <p> 所有方法都是线程安全的，可以在并行绘制的多个线程中共用 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class FontMeasureUtils {
+
+    /**
+     * 直接按下标缓存字符宽度的范围：0x00 - 0xFF
+     */
+    private static final int LATIN_LIMIT = 0x100;
+
+    /**
+     * 常用汉字的范围（CJK 统一表意文字基本区）
+     */
+    private static final char CJK_FIRST = '一';
+
+    private static final char CJK_LAST = '鿿';
+
+    private static final int UNKNOWN_ADVANCE = -1;
+
+    /**
+     * LRU 缓存的字符串数量上限
+     */
+    private static final int MAX_CACHED_STRINGS = 8192;
+
+    private static final Map<Font, FontMeasure> FONT_MEASURES = new ConcurrentHashMap<>();
+
+    private static final Map<StringWidthKey, Integer> STRING_WIDTHS =
+            Collections.synchronizedMap(new LinkedHashMap<StringWidthKey, Integer>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StringWidthKey, Integer> eldest) {
+                    return size() > MAX_CACHED_STRINGS;
+                }
+            });
+
+    /**
+     * 只用来获取 FontMetrics，和表格画布使用相同的默认渲染参数
+     */
+    private static final Graphics2D SCRATCH_GRAPHICS =
+            new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+    private FontMeasureUtils() {
+    }
+
+    /**
+     * 获取字体对应的 FontMetrics，和在表格画布上调用 getFontMetrics 得到的结果一致
+     */
+    public static FontMetrics getFontMetrics(Font font) {
+        return getFontMeasure(font).fontMetrics;
+    }
+
+    /**
+     * 计算单行文字的宽度，和 {@link FontMetrics#stringWidth} 的结果一致
+     *
+     * @param font 字体
+     * @param text 文字，不能包含换行
+     * @return 宽度，像素
+     */
+    public static int stringWidth(Font font, String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        FontMeasure measure = getFontMeasure(font);
+        int width = measure.fastWidth(text);
+        if (width >= 0) {
+            return width;
+        }
+        StringWidthKey key = new StringWidthKey(font, text);
+        Integer cached = STRING_WIDTHS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        width = measure.fontMetrics.stringWidth(text);
+        STRING_WIDTHS.put(key, width);
+        return width;
+    }
+
+    /**
+     * 计算多行文字中最宽一行的宽度，按换行符拆分
+     *
+     * @param font 字体
+     * @param content 文字
+     * @return 最宽一行的宽度，像素
+     */
+    public static int maxLineWidth(Font font, String content) {
+        int maxWidth = 0;
+        int start = 0;
+        int length = content.length();
+        while (start <= length) {
+            int end = content.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            maxWidth = Math.max(maxWidth, stringWidth(font, content.substring(start, end)));
+            start = end + 1;
+        }
+        return maxWidth;
+    }
+
+    private static FontMeasure getFontMeasure(Font font) {
+        FontMeasure measure = FONT_MEASURES.get(font);
+        if (measure == null) {
+            measure = FONT_MEASURES.computeIfAbsent(font, FontMeasureUtils::createFontMeasure);
+        }
+        return measure;
+    }
+
+    private static FontMeasure createFontMeasure(Font font) {
+        FontMetrics fontMetrics;
+        synchronized (SCRATCH_GRAPHICS) {
+            fontMetrics = SCRATCH_GRAPHICS.getFontMetrics(font);
+        }
+        return new FontMeasure(fontMetrics);
+    }
+
+    /**
+     * 一种字体的测量信息
+     */
+    private static class FontMeasure {
+
+        private final FontMetrics fontMetrics;
+
+        /**
+         * 字符宽度都是整数时才能直接累加
+         */
+        private final boolean integerAdvances;
+
+        private final int[] latinAdvances = new int[LATIN_LIMIT];
+
+        /**
+         * 第一次用到时才计算，多个线程同时写入的值相同，不需要加锁
+         */
+        private final int[] cjkAdvances = new int[CJK_LAST - CJK_FIRST + 1];
+
+        FontMeasure(FontMetrics fontMetrics) {
+            this.fontMetrics = fontMetrics;
+            Font font = fontMetrics.getFont();
+            this.integerAdvances = !fontMetrics.getFontRenderContext().usesFractionalMetrics()
+                    && !font.hasLayoutAttributes() && !font.isTransformed();
+            for (int ch = 0; ch < LATIN_LIMIT; ch++) {
+                latinAdvances[ch] = fontMetrics.charWidth((char) ch);
+            }
+            Arrays.fill(cjkAdvances, UNKNOWN_ADVANCE);
+        }
+
+        /**
+         * @return 只包含已缓存范围内的字符时返回宽度，否则返回 -1
+         */
+        int fastWidth(String text) {
+            if (!integerAdvances) {
+                return -1;
+            }
+            int width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                if (ch < LATIN_LIMIT) {
+                    width += latinAdvances[ch];
+                } else if (ch >= CJK_FIRST && ch <= CJK_LAST) {
+                    int advance = cjkAdvances[ch - CJK_FIRST];
+                    if (advance == UNKNOWN_ADVANCE) {
+                        advance = fontMetrics.charWidth(ch);
+                        cjkAdvances[ch - CJK_FIRST] = advance;
+                    }
+                    width += advance;
+                } else {
+                    return -1;
+                }
+            }
+            return width;
+        }
+    }
+
+    private static class StringWidthKey {
+
+        private final Font font;
+
+        private final String text;
+
+        StringWidthKey(Font font, String text) {
+            this.font = font;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StringWidthKey)) {
+                return false;
+            }
+            StringWidthKey that = (StringWidthKey) o;
+            return font.equals(that.font) && text.equals(that.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(font, text);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.zj.excel.graph;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
@@ -16,6 +15,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -46,112 +46,74 @@ public class JDrawTableUtil {
 
         List<JTableMergeConfig> mergeConfigs = table.getMergeConfigs();
 
+        // 计算列宽、行高和每个单元格的坐标
+        TableLayout layout = TableLayout.ofExtendedRows(tableRowContents, table);
+
+        // 没有合并单元格时直接按布局绘制，不需要生成单元格对象
+        if (CollectionUtils.isEmpty(mergeConfigs)) {
+            return drawLayoutWithColors(layout, tableRowContents, table);
+        }
+
         // 生成表格各单元格内容对象
-        List<JCell> contents = getTableContentWithColors(tableRowContents, table);
+        List<JCell> contents = layout.toCells(tableRowContents, JDrawTableUtil::toCell);
 
         // 合并单元格
         List<JCell> cells = mergeCells(contents, mergeConfigs, new ArrayList<>());
 
-        // 计算表格高度
-        Map<Integer, Integer> contentRowHeight = getContentRowHeightFromExtended(tableRowContents, table);
-        int tableHeight = contentRowHeight.values().stream().reduce(Integer::sum).orElse(0);
-
         // 绘制表格
-        return starDrawTableWithColors(0, cells, table, tableHeight);
+        return starDrawTableWithColors(0, cells, table, layout.getTableHeight());
     }
+
     /**
-     * 计算带扩展内容的列宽
+     * 生成带颜色的表格内容
      */
-    private static List<Integer> calculateColumnWidthsWithExtended(List<List<JExtendedCell>> tableRowContents, JTable table) {
-        List<Integer> widths = new ArrayList<>();
+    public static List<JCell> getTableContentWithColors(List<List<JExtendedCell>> tableRowContents, JTable table) {
         if (tableRowContents.isEmpty()) {
-            return widths;
-        }
-
-        // 计算最大列数
-        int maxCols = 0;
-        for (List<JExtendedCell> row : tableRowContents) {
-            maxCols = Math.max(maxCols, row.size());
+            return new ArrayList<>();
         }
+        return TableLayout.ofExtendedRows(tableRowContents, table).toCells(tableRowContents, JDrawTableUtil::toCell);
+    }
 
-        // 为每一列计算宽度
-        for (int col = 0; col < maxCols; col++) {
-            int maxWidth = 100; // 默认最小宽度
-            for (List<JExtendedCell> row : tableRowContents) {
-                if (col < row.size()) {
-                    String content = row.get(col).getContent();
-                    // 计算内容宽度
-                    int contentWidth = calculateContentWidth(content, table.getCellFont());
-                    maxWidth = Math.max(maxWidth, contentWidth);
-                }
-            }
-            widths.add(Math.max(100, maxWidth + 20)); // 添加一些边距
-        }
-        return widths;
+    static JCell toCell(JExtendedCell extendedCell) {
+        return new JCell()
+                .setContent(extendedCell.getContent())
+                .setBackgroundColor(extendedCell.getBackgroundColor())
+                .setTextColor(extendedCell.getTextColor());
     }
+
     /**
-     * 生成带颜色的表格内容
+     * 按布局直接绘制没有合并单元格的表格，结果和生成单元格对象后再绘制一致
      */
-    public static List<JCell> getTableContentWithColors(List<List<JExtendedCell>> tableRowContents, JTable table) {
-        List<JCell> contents = new ArrayList<>();
-        int marginX = table.getMarginX();
-        int marginY = table.getMarginY();
-
-        if (tableRowContents.isEmpty()) {
-            return contents;
+    private static BufferedImage drawLayoutWithColors(TableLayout layout, List<List<JExtendedCell>> tableRowContents,
+                                                      JTable table) {
+        if (layout.isEmpty()) {
+            return new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
         }
+        int imageHeight = layout.getTableHeight() + table.getMarginY() * 2;
+        int imageWidth = layout.getRight() + table.getMarginX() * 2;
 
-        // 计算每列的宽度（根据内容长度）
-        List<Integer> columnWidths = calculateColumnWidthsWithExtended(tableRowContents, table);
-
-        HashMap<Integer, Integer> contentRowHeight = getContentRowHeightFromExtended(tableRowContents, table);
+        BufferedImage image = createImage(imageWidth, imageHeight, table.getImageDpi());
+        Graphics2D graphics = createGraphics(image, table.getImageDpi());
+        graphics.setColor(Color.white);
+        // 默认白色背景
+        graphics.fillRect(0, 0, imageWidth, imageHeight);
 
-        for (int i = 0; i < tableRowContents.size(); i++) {
+        Font font = table.getCellFont();
+        for (int i = 0; i < layout.getRowCount(); i++) {
             List<JExtendedCell> rowContent = tableRowContents.get(i);
-            int currentX = marginX;
-            int currentY = marginY + IntStream.rangeClosed(1, i).map(contentRowHeight::get).sum();
-
-            for (int j = 0; j < rowContent.size(); j++) {
-                JExtendedCell extendedCell = rowContent.get(j);
-                JCell cell = new JCell();
-                cell.setRow(i + 1);
-                cell.setColumn(j + 1);
-                cell.setX(currentX);
-                cell.setY(currentY);
-                cell.setWidth(columnWidths.get(j));
-                cell.setTextAlign(true);
-                cell.setHeight(contentRowHeight.get(i + 1));
-                cell.setContent(extendedCell.getContent());
-                cell.setBackgroundColor(extendedCell.getBackgroundColor());
-                cell.setTextColor(extendedCell.getTextColor());
-                contents.add(cell);
-
-                currentX += columnWidths.get(j);
+            int y = layout.getY(i);
+            int height = layout.getRowHeight(i);
+            for (int j = 0; j < layout.getRowLength(i); j++) {
+                JExtendedCell cell = rowContent.get(j);
+                int x = layout.getX(j);
+                int width = layout.getColumnWidth(j);
+                drawCellBackground(graphics, cell.getBackgroundColor(), x, y, width, height);
+                drawCellWithColors(graphics, font, x, y, width, height, true, cell.getContent(), cell.getTextColor());
             }
         }
-        return contents;
-    }
-
-    /**
-     * 从扩展内容计算行高
-     */
-    private static HashMap<Integer, Integer> getContentRowHeightFromExtended(List<List<JExtendedCell>> tableRowContents, JTable table) {
-        return IntStream.rangeClosed(1, tableRowContents.size())
-                .mapToObj(row -> dealRowHeightFromExtended(tableRowContents, table, row))
-                .reduce(new HashMap<>(16), (a, b) -> {
-                    a.put(b.getLeft(), b.getRight());
-                    return a;
-                }, (c, d) -> c);
-    }
 
-    /**
-     * 计算扩展内容的行高
-     */
-    private static Pair<Integer, Integer> dealRowHeightFromExtended(List<List<JExtendedCell>> tableRowContents, JTable table, int row) {
-        Integer cellRows = tableRowContents.get(row - 1).stream()
-                .map(cell -> StringUtils.countMatches(cell.getContent(), "\n")).max(Integer::compare).orElse(1);
-        int appendHeight = table.getCellFont().getSize() * cellRows;
-        return Pair.of(row, table.getRowHeight() + appendHeight);
+        graphics.dispose();
+        return image;
     }
 
     /**
@@ -182,17 +144,14 @@ public class JDrawTableUtil {
                 .orElse(400);
         int imageWidth = tableWidth + marginX * 2;
 
-        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = image.createGraphics();
+        BufferedImage image = createImage(imageWidth, imageHeight, table.getImageDpi());
+        Graphics2D graphics = createGraphics(image, table.getImageDpi());
         graphics.setColor(Color.white);
         // 默认白色背景
         graphics.fillRect(0, 0, imageWidth, imageHeight);
 
-        // 绘制所有单元格
-        for (int i = 1; i <= allRows; i++) {
-            List<JCell> perRowCells = allTableRows.get(i);
-            if (perRowCells == null) continue;
-
+        // 绘制所有单元格，按行号顺序，空行没有单元格
+        for (List<JCell> perRowCells : new TreeMap<>(allTableRows).values()) {
             for (int j = 0; j < perRowCells.size(); j++) {
                 JCell cell = perRowCells.get(j);
                 // 绘制单元格背景色
@@ -219,26 +178,38 @@ public class JDrawTableUtil {
     /**
      * 绘制单元格背景色
      */
-    private static void drawCellBackground(Graphics2D graphics, JCell cell) {
-        Color bgColor = cell.getBackgroundColor();
+    static void drawCellBackground(Graphics2D graphics, JCell cell) {
+        drawCellBackground(graphics, cell.getBackgroundColor(), cell.getX(), cell.getY(), cell.getWidth(),
+                cell.getHeight());
+    }
+
+    private static void drawCellBackground(Graphics2D graphics, Color bgColor, int x, int y, int width, int height) {
         if (bgColor != null) {
             graphics.setColor(bgColor);
         } else {
             graphics.setColor(Color.WHITE); // 默认白色背景
         }
-        graphics.fillRect(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight());
+        graphics.fillRect(x, y, width, height);
     }
 
     /**
      * 绘制核心方法
      */
     private static void coreMethodV2(Graphics2D graphics, Font font, boolean lastCellInRow, JCell cell) {
+        drawCellWithColors(graphics, font, cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight(),
+                cell.isTextAlign(), cell.getContent(), cell.getTextColor());
+    }
+
+    /**
+     * 绘制单元格边框和内容
+     */
+    static void drawCellWithColors(Graphics2D graphics, Font font, int x, int y, int width, int height,
+                                   boolean textAlign, String cellContent, Color textColor) {
         // 绘制单元格边框
         graphics.setColor(Color.black);
-        graphics.drawRect(cell.getX(), cell.getY(), cell.getWidth(), cell.getHeight());
+        graphics.drawRect(x, y, width, height);
 
         // 设置字体颜色
-        Color textColor = cell.getTextColor();
         if (textColor != null) {
             graphics.setColor(textColor);
         } else {
@@ -246,22 +217,20 @@ public class JDrawTableUtil {
         }
 
         graphics.setFont(font);
-        String content = StringUtils.defaultIfBlank(cell.getContent(), "-");
+        String content = StringUtils.defaultIfBlank(cellContent, "-");
         String[] split = StringUtils.splitPreserveAllTokens(content, "\n");
         for (int i = 0; i < split.length; i++) {
             //1.计算单元格内容的横坐标，加1是为了防止文字紧贴在单元格上
-            int contentX = cell.getX() + 1;
+            int contentX = x + 1;
             String cellRowContent = split[i];
-            if (cell.isTextAlign()) {
-                // 初始执行比较耗时
-                FontMetrics fontMetrics = graphics.getFontMetrics();
-                int contentLen = fontMetrics.stringWidth(cellRowContent);
-                contentX += (cell.getWidth() - contentLen) / 2;
+            if (textAlign) {
+                int contentLen = FontMeasureUtils.stringWidth(font, cellRowContent);
+                contentX += (width - contentLen) / 2;
             }
             // 2. 计算单元格纵坐标,默认居中(!!!注意：内容是从下向上从左向右渲染,所在在单元格的基础上又加了字体font.getSize())
-            int startY = cell.getY() + font.getSize();
+            int startY = y + font.getSize();
             // 单元格内第一行文字的纵坐标
-            int cellFirstRowPosition = (cell.getHeight() - font.getSize() * (split.length)) / 2;
+            int cellFirstRowPosition = (height - font.getSize() * (split.length)) / 2;
             // 偏移量（在行一行文字纵坐标的基础上进行累加），加1是为了防止每行文字粘在一起。
             int offset = (font.getSize() + 1) * i;
             int contentY = startY + cellFirstRowPosition + offset;
@@ -286,14 +255,12 @@ public class JDrawTableUtil {
         // 如果没有表头，则直接处理数据
         if (CollectionUtils.isEmpty(headCells)) {
             // 生成表格各单元格内容对象（作为表头）
-            List<JCell> contents = getTableContentWithoutHeader(tableRowContents, table);
+            TableLayout layout = TableLayout.ofRows(tableRowContents, table);
+            List<JCell> contents = layout.toCells(tableRowContents, content -> new JCell().setContent(content));
             // 合并单元格
             List<JCell> cells = mergeCells(contents, mergeConfigs, new ArrayList<>());
-            // 计算表格高度
-            HashMap<Integer, Integer> contentRowHeight = getContentRowHeight(tableRowContents, table);
-            int tableHeight = contentRowHeight.values().stream().reduce(Integer::sum).orElse(0);
             // 绘制表格
-            return starDrawTable(0, cells, table, tableHeight);
+            return starDrawTable(0, cells, table, layout.getTableHeight());
         }
 
         // 有表头的情况
@@ -322,91 +289,11 @@ public class JDrawTableUtil {
      * 没有表头时生成表格内容
      */
     public static List<JCell> getTableContentWithoutHeader(List<List<String>> tableRowContents, JTable table) {
-        List<JCell> contents = new ArrayList<>();
-        int marginX = table.getMarginX();
-        int marginY = table.getMarginY();
-
-        if (tableRowContents.isEmpty()) {
-            return contents;
-        }
-
-        // 计算每列的宽度（根据内容长度）
-        List<Integer> columnWidths = calculateColumnWidths(tableRowContents, table);
-
-        HashMap<Integer, Integer> contentRowHeight = getContentRowHeight(tableRowContents, table);
-
-        for (int i = 0; i < tableRowContents.size(); i++) {
-            List<String> rowContent = tableRowContents.get(i);
-            int currentX = marginX;
-            int currentY = marginY + IntStream.rangeClosed(1, i).map(contentRowHeight::get).sum();
-
-            for (int j = 0; j < rowContent.size(); j++) {
-                String cellContent = rowContent.get(j);
-                JCell cell = new JCell();
-                cell.setRow(i + 1);
-                cell.setColumn(j + 1);
-                cell.setX(currentX);
-                cell.setY(currentY);
-                cell.setWidth(columnWidths.get(j));
-                cell.setTextAlign(true);
-                cell.setHeight(contentRowHeight.get(i + 1));
-                cell.setContent(cellContent);
-                contents.add(cell);
-
-                currentX += columnWidths.get(j);
-            }
-        }
-        return contents;
-    }
-
-    /**
-     * 计算列宽
-     */
-    private static List<Integer> calculateColumnWidths(List<List<String>> tableRowContents, JTable table) {
-        List<Integer> widths = new ArrayList<>();
         if (tableRowContents.isEmpty()) {
-            return widths;
-        }
-
-        // 计算最大列数
-        int maxCols = 0;
-        for (List<String> row : tableRowContents) {
-            maxCols = Math.max(maxCols, row.size());
+            return new ArrayList<>();
         }
-
-        // 为每一列计算宽度
-        for (int col = 0; col < maxCols; col++) {
-            int maxWidth = 100; // 默认最小宽度
-            for (List<String> row : tableRowContents) {
-                if (col < row.size()) {
-                    String content = row.get(col);
-                    // 计算内容宽度
-                    int contentWidth = calculateContentWidth(content, table.getCellFont());
-                    maxWidth = Math.max(maxWidth, contentWidth);
-                }
-            }
-            widths.add(Math.max(100, maxWidth + 20)); // 添加一些边距
-        }
-        return widths;
-    }
-
-    /**
-     * 计算内容宽度
-     */
-    private static int calculateContentWidth(String content, Font font) {
-        BufferedImage tempImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = tempImage.createGraphics();
-        g2d.setFont(font);
-        FontMetrics fm = g2d.getFontMetrics();
-        String[] lines = content.split("\n");
-        int maxWidth = 0;
-        for (String line : lines) {
-            int width = fm.stringWidth(line);
-            maxWidth = Math.max(maxWidth, width);
-        }
-        g2d.dispose();
-        tempImage.flush();
-        return maxWidth;
+        return TableLayout.ofRows(tableRowContents, table)
+                .toCells(tableRowContents, content -> new JCell().setContent(content));
     }
 
     /**
@@ -586,8 +473,13 @@ public class JDrawTableUtil {
                                              List<JCell> actualLastHeadRowColumnCell,
                                              int headRowSize, HashMap<Integer, Integer> contentRowHeight) {
         List<JCell> contents = new ArrayList<>();
+        // 当前行之前所有内容行的高度之和
+        int sum = 0;
         for (int i = 0; i < tableRowContents.size(); i++) {
             List<String> rowContent = tableRowContents.get(i);
+            if (i > 0) {
+                sum += contentRowHeight.get(i);
+            }
             for (int j = 0; j < rowContent.size(); j++) {
                 String cellContent = rowContent.get(j);
                 JCell cell = new JCell();
@@ -596,7 +488,6 @@ public class JDrawTableUtil {
                 cell.setColumn(lastHeadColumnCell.getColumn());
                 cell.setX(lastHeadColumnCell.getX());
                 // 单元格纵坐标
-                int sum = IntStream.rangeClosed(1, i).map(contentRowHeight::get).sum();
                 int y = (lastHeadColumnCell.getY() + lastHeadColumnCell.getHeight()) + sum;
                 cell.setY(y);
                 cell.setWidth(lastHeadColumnCell.getWidth());
@@ -671,18 +562,16 @@ public class JDrawTableUtil {
                 .orElse(400);
         int imageWidth = tableWidth + marginX * 2;
 
-        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = image.createGraphics();
+        BufferedImage image = createImage(imageWidth, imageHeight, table.getImageDpi());
+        Graphics2D graphics = createGraphics(image, table.getImageDpi());
         graphics.setColor(Color.white);
         // 默认白色背景
         graphics.fillRect(0, 0, imageWidth, imageHeight);
 
-        // 绘制所有单元格
-        for (int i = 1; i <= allRows; i++) {
-            List<JCell> perRowCells = allTableRows.get(i);
-            if (perRowCells == null) {
-                continue;
-            }
+        // 绘制所有单元格，按行号顺序，空行没有单元格
+        for (Map.Entry<Integer, List<JCell>> entry : new TreeMap<>(allTableRows).entrySet()) {
+            int i = entry.getKey();
+            List<JCell> perRowCells = entry.getValue();
 
             if (i <= headRow) {
                 for (int h = 0; h < perRowCells.size(); h++) {
@@ -714,9 +603,44 @@ public class JDrawTableUtil {
         graphics.setStroke(basicStroke);
 
         graphics.dispose();
-        return convertImageByDpi(image, table.getImageDpi());
+        return image;
+    }
+
+    /**
+     * 按 dpi 创建画布，dpi 不是 72 时画布的宽高按 dpi / 72 放大
+     *
+     * @param width 72 dpi 下的宽度
+     * @param height 72 dpi 下的高度
+     * @param dpi 目标 dpi
+     */
+    private static BufferedImage createImage(int width, int height, int dpi) {
+        if (isDefaultDpi(dpi)) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return new BufferedImage(width * dpi / 72, height * dpi / 72, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * 创建画笔，dpi 不是 72 时设置同样比例的缩放，之后仍然按 72 dpi 的坐标绘制，
+     * 文字和线条直接按目标分辨率绘制，不需要再缩放一次图片
+     */
+    private static Graphics2D createGraphics(BufferedImage image, int dpi) {
+        Graphics2D graphics = image.createGraphics();
+        if (!isDefaultDpi(dpi)) {
+            double scale = dpi / 72.0;
+            graphics.scale(scale, scale);
+        }
+        return graphics;
+    }
+
+    static boolean isDefaultDpi(int dpi) {
+        return dpi <= 0 || dpi == 72;
     }
 
+    /**
+     * 把 72 dpi 的图片缩放到目标 dpi
+     * <p> 绘制表格时已经直接按 {@link JTable#getImageDpi()} 绘制，不再需要调用；缩放后的文字会变模糊，只用于已有的图片 </p>
+     */
     public static BufferedImage convertImageByDpi(BufferedImage inputImage, int dpi) {
         if (dpi <= 0 || dpi == 72) {
             log.info("dpi <= 0 or dpi = 72, use default dpi 72 ");
@@ -762,9 +686,7 @@ public class JDrawTableUtil {
             int contentX = cell.getX() + 1;
             String cellRowContent = split[i];
             if (cell.isTextAlign()) {
-                // 初始执行比较耗时
-                FontMetrics fontMetrics = graphics.getFontMetrics();
-                int contentLen = fontMetrics.stringWidth(cellRowContent);
+                int contentLen = FontMeasureUtils.stringWidth(font, cellRowContent);
                 contentX += (cell.getWidth() - contentLen) / 2;
             }
             // 2. 计算单元格纵坐标,默认居中(!!!注意：内容是从下向上从左向右渲染,所在在单元格的基础上又加了字体font.getSize())
@@ -802,119 +724,7 @@ public class JDrawTableUtil {
         }
 
         // 按配置进行合并
-        for (JTableMergeConfig config : mergeConfigs) {
-            allCells = performMerge(allCells, config);
-        }
-
-        return allCells;
-    }
-
-    /**
-     * 执行具体的合并操作
-     */
-    private static List<JCell> performMerge(List<JCell> allCells, JTableMergeConfig config) {
-        List<JCell> result = new ArrayList<>(allCells);
-
-        if (config.isHorizontal()) {
-            // 横向合并
-            result = mergeHorizontally(allCells, config);
-        } else {
-            // 竖向合并
-            result = mergeVertically(allCells, config);
-        }
-
-        return result;
-    }
-
-    /**
-     * 横向合并单元格
-     */
-    private static List<JCell> mergeHorizontally(List<JCell> allCells, JTableMergeConfig config) {
-        List<JCell> result = new ArrayList<>(allCells);
-
-        // 找到要合并的单元格
-        List<JCell> cellsToMerge = allCells.stream()
-                .filter(cell -> cell.getRow() == config.getStartRow())
-                .filter(cell -> cell.getColumn() >= config.getStartCol() && cell.getColumn() <= config.getEndCol())
-                .sorted(Comparator.comparingInt(JCell::getColumn))
-                .collect(Collectors.toList());
-
-        if (cellsToMerge.size() < 2) {
-            return result;
-        }
-
-        List<String> contentList = cellsToMerge.stream()
-                .map(JCell::getContent)
-                .filter(StringUtils::isNotBlank)
-                .collect(Collectors.toList());
-        String content = String.join("\n", contentList);
-        // 创建合并后的单元格
-        JCell mergedCell = new JCell();
-        mergedCell.setRow(config.getStartRow());
-        mergedCell.setColumn(config.getStartCol());
-        mergedCell.setX(cellsToMerge.get(0).getX());
-        mergedCell.setY(cellsToMerge.get(0).getY());
-        mergedCell.setHeight(cellsToMerge.get(0).getHeight());
-        mergedCell.setWidth(cellsToMerge.stream().mapToInt(JCell::getWidth).sum());
-        mergedCell.setContent(content); // 使用第一个单元格的内容
-        mergedCell.setTextAlign(cellsToMerge.get(0).isTextAlign());
-        mergedCell.setBackgroundColor(cellsToMerge.get(0).getBackgroundColor());
-        mergedCell.setTextColor(cellsToMerge.get(0).getTextColor());
-
-        // 移除被合并的单元格
-        List<JCell> cellsToRemove = cellsToMerge.stream()
-                .filter(cell -> cell.getColumn() >= config.getStartCol() && cell.getColumn() <= config.getEndCol())
-                .collect(Collectors.toList());
-
-        result.removeAll(cellsToRemove);
-        result.add(mergedCell);
-
-        return result;
-    }
-
-    /**
-     * 竖向合并单元格
-     */
-    private static List<JCell> mergeVertically(List<JCell> allCells, JTableMergeConfig config) {
-        List<JCell> result = new ArrayList<>(allCells);
-
-        // 找到要合并的单元格
-        List<JCell> cellsToMerge = allCells.stream()
-                .filter(cell -> cell.getColumn() == config.getStartCol())
-                .filter(cell -> cell.getRow() >= config.getStartRow() && cell.getRow() <= config.getEndRow())
-                .sorted(Comparator.comparingInt(JCell::getRow))
-                .collect(Collectors.toList());
-
-        if (cellsToMerge.size() < 2) {
-            return result;
-        }
-        List<String> contentList = cellsToMerge.stream()
-                .map(JCell::getContent)
-                .filter(StringUtils::isNotBlank)
-                .collect(Collectors.toList());
-        String content = String.join("\n", contentList);
-        // 创建合并后的单元格
-        JCell mergedCell = new JCell();
-        mergedCell.setRow(config.getStartRow());
-        mergedCell.setColumn(config.getStartCol());
-        mergedCell.setX(cellsToMerge.get(0).getX());
-        mergedCell.setY(cellsToMerge.get(0).getY());
-        mergedCell.setWidth(cellsToMerge.get(0).getWidth());
-        mergedCell.setHeight(cellsToMerge.stream().mapToInt(JCell::getHeight).sum());
-        mergedCell.setContent(content); // 使用第一个单元格的内容
-        mergedCell.setTextAlign(cellsToMerge.get(0).isTextAlign());
-        mergedCell.setBackgroundColor(cellsToMerge.get(0).getBackgroundColor());
-        mergedCell.setTextColor(cellsToMerge.get(0).getTextColor());
-
-        // 移除被合并的单元格
-        List<JCell> cellsToRemove = cellsToMerge.stream()
-                .filter(cell -> cell.getRow() >= config.getStartRow() && cell.getRow() <= config.getEndRow())
-                .collect(Collectors.toList());
-
-        result.removeAll(cellsToRemove);
-        result.add(mergedCell);
-
-        return result;
+        return new CellMergeEngine(allCells).merge(mergeConfigs);
     }
 
     /**
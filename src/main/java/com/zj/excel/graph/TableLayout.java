@@ -0,0 +1,202 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import org.apache.commons.lang3.StringUtils;
+
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 表格内容的布局（不含表头），列宽、行高以及每行每列的坐标都保存在 int 数组中
+ * <p> 行和列的坐标是前缀和，一次遍历就能算出所有单元格的位置，不需要为每个单元格计算前面所有行高之和，
+ * 也不需要为每个单元格创建 {@link JCell}，只有调用方确实需要单元格对象时才通过 {@link #toCells} 生成 </p>
+ * <p> 计算规则和原来一致：列宽为该列最宽内容加 20 且不小于 100，行高为 rowHeight 加上单元格内最多换行数乘以字号（空行按 1 行计算） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class TableLayout {
+
+    private static final int MIN_COLUMN_WIDTH = 100;
+
+    private static final int COLUMN_PADDING = 20;
+
+    /**
+     * 每一列的宽度
+     */
+    private final int[] columnWidths;
+
+    /**
+     * 每一列的横坐标，长度为列数 + 1，第 0 个为 marginX，最后一个为表格右边界
+     */
+    private final int[] columnOffsets;
+
+    /**
+     * 每一行的高度
+     */
+    private final int[] rowHeights;
+
+    /**
+     * 每一行的纵坐标，长度为行数 + 1，第 0 个为 marginY，最后一个为表格下边界
+     */
+    private final int[] rowOffsets;
+
+    /**
+     * 每一行的单元格数量
+     */
+    private final int[] rowLengths;
+
+    private TableLayout(int[] columnWidths, int[] rowHeights, int[] rowLengths, int marginX, int marginY) {
+        this.columnWidths = columnWidths;
+        this.rowHeights = rowHeights;
+        this.rowLengths = rowLengths;
+        this.columnOffsets = prefixSum(columnWidths, marginX);
+        this.rowOffsets = prefixSum(rowHeights, marginY);
+    }
+
+    /**
+     * 带颜色的表格内容的布局
+     */
+    public static TableLayout ofExtendedRows(List<List<JExtendedCell>> tableRowContents, JTable table) {
+        return of(tableRowContents, table, JExtendedCell::getContent);
+    }
+
+    /**
+     * 纯文本表格内容的布局
+     */
+    public static TableLayout ofRows(List<List<String>> tableRowContents, JTable table) {
+        return of(tableRowContents, table, Function.identity());
+    }
+
+    private static <T> TableLayout of(List<List<T>> tableRowContents, JTable table, Function<T, String> contentGetter) {
+        int rowCount = tableRowContents.size();
+        int[] rowLengths = new int[rowCount];
+        int maxCols = 0;
+        for (int i = 0; i < rowCount; i++) {
+            rowLengths[i] = tableRowContents.get(i).size();
+            maxCols = Math.max(maxCols, rowLengths[i]);
+        }
+
+        Font cellFont = table.getCellFont();
+        int[] columnWidths = new int[maxCols];
+        Arrays.fill(columnWidths, MIN_COLUMN_WIDTH);
+        int[] rowHeights = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            List<T> row = tableRowContents.get(i);
+            // 空行按 1 行计算
+            int cellRows = row.isEmpty() ? 1 : 0;
+            for (int j = 0; j < row.size(); j++) {
+                String content = contentGetter.apply(row.get(j));
+                columnWidths[j] = Math.max(columnWidths[j], FontMeasureUtils.maxLineWidth(cellFont, content));
+                cellRows = Math.max(cellRows, StringUtils.countMatches(content, "\n"));
+            }
+            rowHeights[i] = table.getRowHeight() + cellFont.getSize() * cellRows;
+        }
+        for (int j = 0; j < maxCols; j++) {
+            // 添加一些边距
+            columnWidths[j] = Math.max(MIN_COLUMN_WIDTH, columnWidths[j] + COLUMN_PADDING);
+        }
+        return new TableLayout(columnWidths, rowHeights, rowLengths, table.getMarginX(), table.getMarginY());
+    }
+
+    private static int[] prefixSum(int[] values, int start) {
+        int[] offsets = new int[values.length + 1];
+        offsets[0] = start;
+        for (int i = 0; i < values.length; i++) {
+            offsets[i + 1] = offsets[i] + values[i];
+        }
+        return offsets;
+    }
+
+    public int getRowCount() {
+        return rowHeights.length;
+    }
+
+    public int getColumnCount() {
+        return columnWidths.length;
+    }
+
+    /**
+     * @param row 行下标，从 0 开始
+     */
+    public int getRowLength(int row) {
+        return rowLengths[row];
+    }
+
+    /**
+     * @param column 列下标，从 0 开始
+     */
+    public int getX(int column) {
+        return columnOffsets[column];
+    }
+
+    /**
+     * @param row 行下标，从 0 开始
+     */
+    public int getY(int row) {
+        return rowOffsets[row];
+    }
+
+    public int getColumnWidth(int column) {
+        return columnWidths[column];
+    }
+
+    public int getRowHeight(int row) {
+        return rowHeights[row];
+    }
+
+    /**
+     * 所有行高之和
+     */
+    public int getTableHeight() {
+        return rowOffsets[rowOffsets.length - 1] - rowOffsets[0];
+    }
+
+    /**
+     * 最右侧单元格的右边界，包含 marginX
+     */
+    public int getRight() {
+        return columnOffsets[columnOffsets.length - 1];
+    }
+
+    /**
+     * 是否一个单元格都没有
+     */
+    public boolean isEmpty() {
+        return columnWidths.length == 0;
+    }
+
+    /**
+     * 生成单元格对象，行号和列号从 1 开始，顺序为先行后列
+     *
+     * @param tableRowContents 计算布局时使用的表格内容
+     * @param cellFactory 根据内容创建单元格，坐标和大小由布局填充
+     */
+    public <T> List<JCell> toCells(List<List<T>> tableRowContents, Function<T, JCell> cellFactory) {
+        int cellCount = 0;
+        for (int rowLength : rowLengths) {
+            cellCount += rowLength;
+        }
+        List<JCell> contents = new ArrayList<>(cellCount);
+        for (int i = 0; i < rowLengths.length; i++) {
+            List<T> rowContent = tableRowContents.get(i);
+            for (int j = 0; j < rowLengths[i]; j++) {
+                JCell cell = cellFactory.apply(rowContent.get(j));
+                cell.setRow(i + 1);
+                cell.setColumn(j + 1);
+                cell.setX(columnOffsets[j]);
+                cell.setY(rowOffsets[i]);
+                cell.setWidth(columnWidths[j]);
+                cell.setHeight(rowHeights[i]);
+                cell.setTextAlign(true);
+                contents.add(cell);
+            }
+        }
+        return contents;
+    }
+}
@@ -0,0 +1,176 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 分块绘制表格：布局和合并单元格只计算一次，之后每次只把纵坐标落在某个横向条带内的单元格画到一张条带大小的图片上
+ * <p> 条带按从上到下的顺序依次绘制，拼起来和 {@link JDrawTableUtil#drawTableWithColor} 画出的整张图片逐像素一致。
+ * 图片内存只与条带的大小（图片宽度 x 条带高度）有关，不再随页面高度增长，适合行数很多或者 dpi 很高的超大页面 </p>
+ * <p> 单元格的文字可能超出单元格（例如横向合并后多行内容放在一行高度内），判断单元格是否落在条带内时会把文字的范围一起算上，
+ * 超出条带的部分由画布自动裁剪 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class TableStripPainter {
+
+    private static final int EMPTY_IMAGE_WIDTH = 400;
+
+    private static final int EMPTY_IMAGE_HEIGHT = 200;
+
+    /**
+     * 按绘制顺序排列的单元格
+     */
+    private final List<JCell> cells;
+
+    /**
+     * 每个单元格（含边框和文字）在 72 dpi 下的上边界和下边界
+     */
+    private final int[] cellTops;
+
+    private final int[] cellBottoms;
+
+    private final Font font;
+
+    private final int dpi;
+
+    /**
+     * 72 dpi 下的画布宽高
+     */
+    private final int imageWidth;
+
+    private final int imageHeight;
+
+    /**
+     * 按目标 dpi 绘制后的图片宽高
+     */
+    private final int width;
+
+    private final int height;
+
+    private TableStripPainter(List<JCell> cells, JTable table, int imageWidth, int imageHeight) {
+        this.cells = cells;
+        this.font = table.getCellFont();
+        this.dpi = table.getImageDpi();
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        // 没有单元格时整张绘制返回固定大小的图片，不按 dpi 缩放
+        boolean defaultDpi = cells.isEmpty() || JDrawTableUtil.isDefaultDpi(dpi);
+        this.width = defaultDpi ? imageWidth : imageWidth * dpi / 72;
+        this.height = defaultDpi ? imageHeight : imageHeight * dpi / 72;
+        this.cellTops = new int[cells.size()];
+        this.cellBottoms = new int[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            JCell cell = cells.get(i);
+            int lines = StringUtils.isBlank(cell.getContent()) ? 1 : StringUtils.countMatches(cell.getContent(), "\n") + 1;
+            int fontSize = font.getSize();
+            // 和 drawCellWithColors 中文字基线的计算方式一致，上下各多留一个字号的余量
+            int firstBaseline = cell.getY() + fontSize + (cell.getHeight() - fontSize * lines) / 2;
+            int lastBaseline = firstBaseline + (fontSize + 1) * (lines - 1);
+            cellTops[i] = Math.min(cell.getY(), firstBaseline - fontSize * 2);
+            // 边框线宽为 1
+            cellBottoms[i] = Math.max(cell.getY() + cell.getHeight(), lastBaseline + fontSize) + 2;
+        }
+    }
+
+    /**
+     * 带颜色的表格
+     *
+     * @param table 表格样式，不支持表头
+     * @param tableRowContents 表格内容
+     */
+    public static TableStripPainter ofExtendedRows(JTable table, List<List<JExtendedCell>> tableRowContents) {
+        JDrawTableUtil.checkHead(table);
+        TableLayout layout = TableLayout.ofExtendedRows(tableRowContents, table);
+        if (layout.isEmpty()) {
+            return new TableStripPainter(new ArrayList<>(), table, EMPTY_IMAGE_WIDTH, EMPTY_IMAGE_HEIGHT);
+        }
+        List<JCell> cells = layout.toCells(tableRowContents, JDrawTableUtil::toCell);
+        if (CollectionUtils.isNotEmpty(table.getMergeConfigs())) {
+            cells = JDrawTableUtil.mergeCells(cells, table.getMergeConfigs(), new ArrayList<>());
+        }
+        // 和整张绘制时一样按行号顺序绘制，同一行内保持原来的顺序
+        Map<Integer, List<JCell>> rows = cells.stream().collect(Collectors.groupingBy(JCell::getRow));
+        List<JCell> drawOrder = new ArrayList<>(cells.size());
+        int tableWidth = 0;
+        for (List<JCell> rowCells : new TreeMap<>(rows).values()) {
+            for (JCell cell : rowCells) {
+                drawOrder.add(cell);
+                tableWidth = Math.max(tableWidth, cell.getX() + cell.getWidth());
+            }
+        }
+        return new TableStripPainter(drawOrder, table, tableWidth + table.getMarginX() * 2,
+                layout.getTableHeight() + table.getMarginY() * 2);
+    }
+
+    /**
+     * @return 图片宽度，已按 dpi 缩放
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return 图片高度，已按 dpi 缩放
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 绘制一个横向条带
+     *
+     * @param top 条带在整张图片中的起始行（按 dpi 缩放后的像素）
+     * @param stripHeight 条带高度，超出图片底部的部分不会绘制
+     * @param reuse 上一次返回的条带，宽高一致时直接复用，可以为 null
+     * @return 条带图片，宽度为整张图片的宽度
+     */
+    public BufferedImage paintStrip(int top, int stripHeight, BufferedImage reuse) {
+        int bottom = Math.min(height, top + stripHeight);
+        BufferedImage strip = reuse != null && reuse.getWidth() == width && reuse.getHeight() == bottom - top
+                ? reuse
+                : new BufferedImage(width, bottom - top, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = strip.createGraphics();
+        try {
+            // 先平移再缩放，和整张绘制时的像素坐标只差整数行
+            graphics.translate(0, -top);
+            if (!JDrawTableUtil.isDefaultDpi(dpi)) {
+                double scale = dpi / 72.0;
+                graphics.scale(scale, scale);
+            }
+            // 没有单元格时整张绘制返回的是未填充的黑色图片
+            graphics.setColor(cells.isEmpty() ? Color.black : Color.white);
+            graphics.fillRect(0, 0, imageWidth, imageHeight);
+            for (int i = 0; i < cells.size(); i++) {
+                if (scaled(cellBottoms[i]) + 1 <= top || scaled(cellTops[i]) - 1 >= bottom) {
+                    continue;
+                }
+                JCell cell = cells.get(i);
+                JDrawTableUtil.drawCellBackground(graphics, cell);
+                JDrawTableUtil.drawCellWithColors(graphics, font, cell.getX(), cell.getY(), cell.getWidth(),
+                        cell.getHeight(), cell.isTextAlign(), cell.getContent(), cell.getTextColor());
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return strip;
+    }
+
+    private int scaled(int y) {
+        return JDrawTableUtil.isDefaultDpi(dpi) ? y : (int) Math.ceil(y * (dpi / 72.0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.zj.excel.header;
+
+import cn.hutool.core.lang.TypeReference;
+import com.zj.excel.ai.AiClient;
+import com.zj.excel.ai.AiInvokeUtils;
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SampleRow;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.utils.GsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 把多个 sheet 放在同一个提示词中调用一次 ai 识别表头
+ * <p> 先用本地规则识别，本地无法确定的 sheet 一起交给 ai，提示词见 {@link HeaderPromptBuilder#buildBatch}。
+ * ai 返回的某个 sheet 的结果没有表头或者行号不在这个 sheet 的数据中时，这个 sheet 再单独调用 fallback 识别 </p>
+ * <p> 指定了缓存时，交给 ai 之前先查询缓存，命中的 sheet 不再放进提示词；校验通过的批量结果也写入缓存，
+ * 之后单独识别同一模板的 sheet 时可以直接使用 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class AiBatchHeaderDetector implements BatchHeaderDetector {
+
+    private static final TypeReference<Map<String, RowIndexInfoDTO>> RESULT_TYPE =
+            new TypeReference<Map<String, RowIndexInfoDTO>>() {
+            };
+
+    private final AiClient aiClient;
+
+    private final HeaderPromptBuilder promptBuilder;
+
+    private final HeaderDetector localDetector;
+
+    private final HeaderDetector fallback;
+
+    private final CachingHeaderDetector cache;
+
+    /**
+     * 使用默认的 ai 客户端，本地规则为 {@link HeuristicHeaderDetector}，单独识别和缓存都使用共用缓存的 ai 识别
+     */
+    public AiBatchHeaderDetector() {
+        this(null, new HeaderPromptBuilder(), new HeuristicHeaderDetector(), CachingHeaderDetector.SHARED_AI_DETECTOR,
+                CachingHeaderDetector.SHARED_AI_DETECTOR);
+    }
+
+    /**
+     * 不使用缓存
+     *
+     * @param aiClient ai 客户端，为 null 时使用 {@link AiInvokeUtils#getDefaultClient()}
+     * @param promptBuilder 提示词
+     * @param localDetector 调用 ai 之前使用的本地识别，为 null 时所有 sheet 都交给 ai
+     * @param fallback 批量结果校验不通过时单独识别的方式，为 null 时不再识别
+     */
+    public AiBatchHeaderDetector(AiClient aiClient, HeaderPromptBuilder promptBuilder,
+                                 HeaderDetector localDetector, HeaderDetector fallback) {
+        this(aiClient, promptBuilder, localDetector, fallback, null);
+    }
+
+    /**
+     * @param aiClient ai 客户端，为 null 时使用 {@link AiInvokeUtils#getDefaultClient()}
+     * @param promptBuilder 提示词
+     * @param localDetector 调用 ai 之前使用的本地识别，为 null 时所有 sheet 都交给 ai
+     * @param fallback 批量结果校验不通过时单独识别的方式，为 null 时不再识别
+     * @param cache 识别结果缓存，为 null 时不使用缓存
+     */
+    public AiBatchHeaderDetector(AiClient aiClient, HeaderPromptBuilder promptBuilder,
+                                 HeaderDetector localDetector, HeaderDetector fallback,
+                                 CachingHeaderDetector cache) {
+        this.aiClient = aiClient;
+        this.promptBuilder = promptBuilder;
+        this.localDetector = localDetector;
+        this.fallback = fallback;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<RowIndexInfoDTO> detectAll(List<SheetSample> samples) {
+        List<RowIndexInfoDTO> results = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < samples.size(); i++) {
+            RowIndexInfoDTO local = localDetector == null ? null : localDetector.detect(samples.get(i));
+            if (!isValid(local, samples.get(i)) && cache != null) {
+                local = cache.getCached(samples.get(i));
+            }
+            results.add(isValid(local, samples.get(i)) ? local : null);
+            if (results.get(i) == null && !samples.get(i).getRows().isEmpty()) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
+
+        List<SheetSample> batch = new ArrayList<>();
+        for (Integer index : pending) {
+            batch.add(samples.get(index));
+        }
+        Map<String, RowIndexInfoDTO> answer = null;
+        if (batch.size() > 1) {
+            String prompt = promptBuilder.buildBatch(batch);
+            log.info("AiBatchHeaderDetector::批量识别 {} 个 sheet 的表头，提示词估算 token 数: {}", batch.size(),
+                    HeaderPromptBuilder.estimateTokens(prompt));
+            AiClient client = aiClient == null ? AiInvokeUtils.getDefaultClient() : aiClient;
+            answer = client.invokeWithJson(prompt, RESULT_TYPE);
+            log.info("ai 批量识别表头信息结果为: result:{}", GsonUtils.toJSONString(answer));
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pending.get(i);
+            RowIndexInfoDTO result = answer == null ? null : answer.get(String.valueOf(i));
+            if (!isValid(result, samples.get(index))) {
+                // 只有一个 sheet 或者批量结果不可用时单独识别
+                result = fallback == null ? null : fallback.detect(samples.get(index));
+            } else if (cache != null) {
+                cache.put(samples.get(index), result);
+            }
+            results.set(index, result);
+        }
+        return results;
+    }
+
+    /**
+     * 有表头，并且表头行号都在 sheet 的数据中
+     */
+    private static boolean isValid(RowIndexInfoDTO result, SheetSample sample) {
+        if (result == null || CollectionUtils.isEmpty(result.getHeaderRowIndexList())) {
+            return false;
+        }
+        Set<Integer> rowIndexes = new HashSet<>();
+        for (SampleRow row : sample.getRows()) {
+            rowIndexes.add(row.getRowIndex());
+        }
+        return rowIndexes.containsAll(result.getHeaderRowIndexList());
+    }
+}
@@ -0,0 +1,51 @@
+package com.zj.excel.header;
+
+import com.zj.excel.ai.AiClient;
+import com.zj.excel.ai.AiInvokeUtils;
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.utils.GsonUtils;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 调用 ai 识别表头
+ * <p> 提示词只包含 sheet 开头的几行和每一列的类型统计，见 {@link HeaderPromptBuilder}，
+ * 返回的行号就是 sheet 中的行号。没有指定 {@link AiClient} 时使用 {@link AiInvokeUtils#getDefaultClient()} </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class AiHeaderDetector implements HeaderDetector {
+
+    private final AiClient aiClient;
+
+    private final HeaderPromptBuilder promptBuilder;
+
+    public AiHeaderDetector() {
+        this(null, new HeaderPromptBuilder());
+    }
+
+    public AiHeaderDetector(HeaderPromptBuilder promptBuilder) {
+        this(null, promptBuilder);
+    }
+
+    public AiHeaderDetector(AiClient aiClient, HeaderPromptBuilder promptBuilder) {
+        this.aiClient = aiClient;
+        this.promptBuilder = promptBuilder;
+    }
+
+    @Override
+    public RowIndexInfoDTO detect(SheetSample sample) {
+        if (sample.getRows().isEmpty()) {
+            return null;
+        }
+        String prompt = promptBuilder.build(sample);
+        log.info("AiHeaderDetector::识别表头 sheet={} 提示词估算 token 数: {}", sample.getSheetName(),
+                HeaderPromptBuilder.estimateTokens(prompt));
+        AiClient client = aiClient == null ? AiInvokeUtils.getDefaultClient() : aiClient;
+        RowIndexInfoDTO result = client.invokeWithJson(prompt, RowIndexInfoDTO.class);
+        log.info("ai 识别表头信息结果为: result:{}", GsonUtils.toJSONString(result));
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 在后台线程中识别表头，调用方不需要等待识别结果就可以继续读取和绘制
+ * <p> 表头只会重复出现在第二页及之后的页面中，转换时读取完第一页就开始识别，第一页照常绘制，
+ * 画第二页时再通过 {@link PendingHeader#await()} 取结果。从开始识别算起超过 timeoutMillis 还没有结果时，
+ * 使用 fallback 识别（为 null 时不重复表头）；超时的识别任务不会被打断，结果仍然会写入识别器自己的缓存 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class AsyncHeaderDetector {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * 所有转换共用的识别线程，识别大多在等待 ai 的返回，线程数不设上限，空闲 60 秒后回收
+     */
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "header-detector-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HeaderDetector detector;
+
+    private final HeaderDetector fallback;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param detector 表头识别
+     * @param fallback 超时或者识别出错时使用的识别，为 null 时不重复表头
+     * @param timeoutMillis 等待识别结果的最长时间，不大于 0 时在调用线程中同步识别
+     */
+    public AsyncHeaderDetector(HeaderDetector detector, HeaderDetector fallback, long timeoutMillis) {
+        this.detector = detector;
+        this.fallback = fallback;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 开始识别
+     *
+     * @param sample sheet 开头的数据
+     * @return 识别中的结果
+     */
+    public PendingHeader start(SheetSample sample) {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        CompletableFuture<RowIndexInfoDTO> future = submit(() -> detector.detect(sample));
+        return new PendingHeader(future, sample, fallback, deadline);
+    }
+
+    /**
+     * 一次识别多个 sheet，所有 sheet 共用同一个截止时间
+     *
+     * @param batchDetector 批量识别
+     * @param samples 每个 sheet 开头的数据
+     * @return 和 samples 一一对应的识别中的结果
+     */
+    public List<PendingHeader> start(BatchHeaderDetector batchDetector, List<SheetSample> samples) {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        CompletableFuture<List<RowIndexInfoDTO>> future = submit(() -> batchDetector.detectAll(samples));
+        List<PendingHeader> pendings = new ArrayList<>();
+        for (int i = 0; i < samples.size(); i++) {
+            int index = i;
+            pendings.add(new PendingHeader(future.thenApply(results -> results.get(index)),
+                    samples.get(i), fallback, deadline));
+        }
+        return pendings;
+    }
+
+    /**
+     * timeoutMillis 不大于 0 时在调用线程中识别，识别出错时和后台识别一样返回失败的结果，由 {@link PendingHeader#await()} 使用 fallback
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (timeoutMillis > 0) {
+            return CompletableFuture.supplyAsync(task, SHARED_EXECUTOR);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(task.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
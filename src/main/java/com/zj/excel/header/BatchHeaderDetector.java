@@ -0,0 +1,24 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+
+import java.util.List;
+
+/**
+ * 一次识别多个 sheet 的表头
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@FunctionalInterface
+public interface BatchHeaderDetector {
+
+    /**
+     * 识别表头
+     *
+     * @param samples 每个 sheet 开头的数据
+     * @return 和 samples 一一对应的识别结果，无法识别的 sheet 为 null 或者表头行号为空的结果
+     */
+    List<RowIndexInfoDTO> detectAll(List<SheetSample> samples);
+}
@@ -0,0 +1,233 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.CachedHeader;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.utils.GsonUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 缓存表头识别结果，同一个模板的 sheet 只识别一次
+ * <p> 以 sheet 开头的结构指纹（见 {@link SheetSampleUtils#fingerprint}）为 key，缓存被包装的识别方式返回的结果。
+ * 缓存数量有上限，超出时淘汰最久没有使用的结果；每个结果有有效期，过期后重新识别。识别失败（返回 null 或没有表头行）的结果不缓存 </p>
+ * <p> 可以指定一个本地文件保存缓存，创建时读取，每次写入新结果后整体写回，进程重启后仍然有效。
+ * 所有方法都是线程安全的，可以在多次转换之间共用 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class CachingHeaderDetector implements HeaderDetector {
+
+    /**
+     * 默认的 ai 识别缓存，进程内所有转换共用
+     */
+    static final CachingHeaderDetector SHARED_AI_DETECTOR = new CachingHeaderDetector(new AiHeaderDetector());
+
+    /**
+     * 结构参与指纹计算的行数
+     */
+    private static final int FINGERPRINT_ROWS = 20;
+
+    /**
+     * 文本参与指纹计算的行数
+     */
+    private static final int FINGERPRINT_TEXT_ROWS = 5;
+
+    private final HeaderDetector delegate;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Path persistFile;
+
+    /**
+     * 指纹 -> 结果，按访问顺序排列，最前面的是最久没有使用的
+     */
+    private final LinkedHashMap<String, CachedHeader> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 最多缓存 1024 个结果，有效期 1 天，不保存到文件
+     *
+     * @param delegate 实际的识别方式
+     */
+    public CachingHeaderDetector(HeaderDetector delegate) {
+        this(delegate, 1024, Duration.ofDays(1), null);
+    }
+
+    /**
+     * @param delegate 实际的识别方式
+     * @param maxEntries 缓存数量上限
+     * @param ttl 有效期
+     * @param persistFile 保存缓存的文件，为 null 时只缓存在内存中
+     */
+    public CachingHeaderDetector(HeaderDetector delegate, int maxEntries, Duration ttl, Path persistFile) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.persistFile = persistFile;
+        load();
+    }
+
+    @Override
+    public RowIndexInfoDTO detect(SheetSample sample) {
+        String fingerprint = fingerprint(sample);
+        RowIndexInfoDTO cached = getCached(fingerprint, sample);
+        if (cached != null) {
+            return cached;
+        }
+        RowIndexInfoDTO result = delegate.detect(sample);
+        put(fingerprint, result);
+        return result;
+    }
+
+    /**
+     * 只查询缓存，不调用被包装的识别方式，例如批量识别前先跳过已经识别过的 sheet
+     *
+     * @param sample sheet 开头的数据
+     * @return 缓存的结果，没有缓存或者已经过期时为 null
+     */
+    public RowIndexInfoDTO getCached(SheetSample sample) {
+        return getCached(fingerprint(sample), sample);
+    }
+
+    /**
+     * 写入其他方式识别出的结果，例如批量识别的结果，没有表头行的结果不会写入
+     *
+     * @param sample sheet 开头的数据
+     * @param result 识别结果
+     */
+    public void put(SheetSample sample, RowIndexInfoDTO result) {
+        put(fingerprint(sample), result);
+    }
+
+    private static String fingerprint(SheetSample sample) {
+        return SheetSampleUtils.fingerprint(sample, FINGERPRINT_ROWS, FINGERPRINT_TEXT_ROWS);
+    }
+
+    private RowIndexInfoDTO getCached(String fingerprint, SheetSample sample) {
+        synchronized (entries) {
+            CachedHeader cached = entries.get(fingerprint);
+            if (cached != null && cached.getExpiresAt() > clock.getAsLong()) {
+                log.info("CachingHeaderDetector::命中表头识别缓存 sheet={}", sample.getSheetName());
+                return copy(cached.getResult());
+            }
+            return null;
+        }
+    }
+
+    private void put(String fingerprint, RowIndexInfoDTO result) {
+        if (!isCacheable(result)) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(fingerprint, new CachedHeader()
+                    .setFingerprint(fingerprint)
+                    .setExpiresAt(clock.getAsLong() + ttlMillis)
+                    .setResult(copy(result)));
+            evict();
+            if (persistFile != null) {
+                save(new ArrayList<>(entries.values()));
+            }
+        }
+    }
+
+    /**
+     * @return 当前缓存的结果数量，包括已经过期但还没有淘汰的结果
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 测试时替换时钟
+     */
+    CachingHeaderDetector setClock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<String, CachedHeader>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            CachedHeader entry = iterator.next().getValue();
+            if (entries.size() > maxEntries || entry.getExpiresAt() <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void load() {
+        if (persistFile == null || !Files.exists(persistFile)) {
+            return;
+        }
+        try {
+            String json = new String(Files.readAllBytes(persistFile), StandardCharsets.UTF_8);
+            long now = clock.getAsLong();
+            for (CachedHeader entry : GsonUtils.parseArray(json, CachedHeader.class)) {
+                if (entry.getExpiresAt() > now && isCacheable(entry.getResult())) {
+                    entries.put(entry.getFingerprint(), entry);
+                }
+            }
+            evict();
+            log.info("CachingHeaderDetector::读取表头识别缓存 {} 条 file={}", entries.size(), persistFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("CachingHeaderDetector::读取表头识别缓存失败 file={}", persistFile, e);
+        }
+    }
+
+    /**
+     * 先写临时文件再替换，写到一半失败时不会破坏原来的文件
+     */
+    private void save(List<CachedHeader> snapshot) {
+        try {
+            Path temp = persistFile.resolveSibling(persistFile.getFileName() + ".tmp");
+            Files.write(temp, GsonUtils.toJSONString(snapshot).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, persistFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("CachingHeaderDetector::保存表头识别缓存失败 file={}", persistFile, e);
+        }
+    }
+
+    /**
+     * 没有表头行的结果通常是识别失败后的默认值，缓存后同一模板在有效期内都无法再识别出表头
+     */
+    private static boolean isCacheable(RowIndexInfoDTO result) {
+        return result != null && CollectionUtils.isNotEmpty(result.getHeaderRowIndexList());
+    }
+
+    /**
+     * 调用方可能修改返回的列表，缓存中保存副本
+     */
+    private static RowIndexInfoDTO copy(RowIndexInfoDTO result) {
+        RowIndexInfoDTO copy = new RowIndexInfoDTO();
+        if (result.getHeaderRowIndexList() != null) {
+            copy.setHeaderRowIndexList(new ArrayList<>(result.getHeaderRowIndexList()));
+        }
+        copy.setDataRowStartIndex(result.getDataRowStartIndex());
+        if (result.getOtherRowIndexList() != null) {
+            copy.setOtherRowIndexList(new ArrayList<>(result.getOtherRowIndexList()));
+        }
+        return copy;
+    }
+}
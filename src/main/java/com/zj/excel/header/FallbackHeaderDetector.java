@@ -0,0 +1,34 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 依次使用多个表头识别，返回第一个识别出表头的结果
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class FallbackHeaderDetector implements HeaderDetector {
+
+    private final List<HeaderDetector> detectors;
+
+    public FallbackHeaderDetector(HeaderDetector... detectors) {
+        this.detectors = Arrays.asList(detectors);
+    }
+
+    @Override
+    public RowIndexInfoDTO detect(SheetSample sample) {
+        for (HeaderDetector detector : detectors) {
+            RowIndexInfoDTO result = detector.detect(sample);
+            if (result != null && CollectionUtils.isNotEmpty(result.getHeaderRowIndexList())) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+
+/**
+ * 表头识别
+ * <p> 根据 sheet 开头若干行的数据识别哪些行是表头，需要表头时分页后的每一页都会带上这些行 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@FunctionalInterface
+public interface HeaderDetector {
+
+    /**
+     * 识别表头
+     *
+     * @param sample sheet 开头的数据
+     * @return 识别结果，无法识别时返回 null 或者表头行号为空的结果
+     */
+    RowIndexInfoDTO detect(SheetSample sample);
+
+    /**
+     * 默认的表头识别：先用本地规则识别，无法确定时再调用 ai 识别。
+     * ai 的识别结果在进程内共用一个缓存，相同模板的 sheet 不会重复调用 ai
+     *
+     * @return 表头识别
+     */
+    static HeaderDetector defaultDetector() {
+        return new FallbackHeaderDetector(new HeuristicHeaderDetector(), CachingHeaderDetector.SHARED_AI_DETECTOR);
+    }
+}
@@ -0,0 +1,236 @@
+package com.zj.excel.header;
+
+import com.zj.excel.header.domain.CellKind;
+import com.zj.excel.header.domain.SampleCell;
+import com.zj.excel.header.domain.SampleRow;
+import com.zj.excel.header.domain.SheetSample;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成识别表头的 ai 提示词
+ * <p> 表头只会出现在开头，提示词中只放前几行数据和每一列的类型统计，不再把整个 sheet 序列化成 json：
+ * 每行写成 {@code 行号|第1列|第2列|...}，过长的单元格内容截断，列数过多时只保留前面的列。
+ * 按估算的 token 数控制长度，类型统计和说明文字放入之后，剩余的预算依次放入数据行 </p>
+ * <p> token 数按字符估算：ascii 字符 4 个算 1 个，其他字符（中文等）1 个算 1 个，偏保守 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class HeaderPromptBuilder {
+
+    private static final String ROW_FORMAT = "下面是一个表格开头的若干行数据，每行的格式为 行号|第1列|第2列|...，"
+            + "行号从 0 开始，空单元格为空，过长的内容已截断。";
+
+    private static final String BATCH_INSTRUCTION = "请你分别识别每个 sheet 中哪些行属于表头，按照如下的格式返回，key 为 sheet 的编号，"
+            + "每个 sheet 都需要返回: \n"
+            + "{\"0\":{\"headerRowIndexList\":[],\"dataRowStartIndex\":0, \"otherRowIndexList\":[]}, \"1\":{...}}\n"
+            + "其中: \n"
+            + "\theaderRowIndexList: 为表头的行号列表。\n"
+            + "\tdataRowStartIndex:  为除开表头，实际的数据开始的行号。\n"
+            + "\totherRowIndexList:  为除开表头和数据行的其他行（例如标题）的行号，如果不存在则返回空列表 \n"
+            + "要求，行号使用上面每个 sheet 数据中的行号，只返回识别出来的 json 结果。";
+
+    private static final String INSTRUCTION = "请你识别哪些行属于表头，按照如下的格式返回，"
+            + "{\"headerRowIndexList\":[],\"dataRowStartIndex\":0, \"otherRowIndexList\":[]}\n"
+            + "其中: \n"
+            + "\theaderRowIndexList: 为表头的行号列表。\n"
+            + "\tdataRowStartIndex:  为除开表头，实际的数据开始的行号。\n"
+            + "\totherRowIndexList:  为除开表头和数据行的其他行（例如标题）的行号，如果不存在则返回空列表 \n"
+            + "要求，行号使用上面数据中的行号，只返回识别出来的 json 结果。";
+
+    /**
+     * 最多放入的数据行数
+     */
+    private int maxRows = 30;
+
+    /**
+     * 最多放入的列数
+     */
+    private int maxColumns = 30;
+
+    /**
+     * 单元格内容的最大长度，超出部分截断
+     */
+    private int maxCellLength = 24;
+
+    /**
+     * 提示词估算的 token 数上限
+     */
+    private int tokenBudget = 1500;
+
+    /**
+     * 多个 sheet 放在同一个提示词中时，估算的 token 数上限
+     */
+    private int batchTokenBudget = 6000;
+
+    public HeaderPromptBuilder setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    public HeaderPromptBuilder setMaxColumns(int maxColumns) {
+        this.maxColumns = maxColumns;
+        return this;
+    }
+
+    public HeaderPromptBuilder setMaxCellLength(int maxCellLength) {
+        this.maxCellLength = maxCellLength;
+        return this;
+    }
+
+    public HeaderPromptBuilder setTokenBudget(int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+        return this;
+    }
+
+    public HeaderPromptBuilder setBatchTokenBudget(int batchTokenBudget) {
+        this.batchTokenBudget = batchTokenBudget;
+        return this;
+    }
+
+    /**
+     * 生成提示词，至少包含一行数据
+     *
+     * @param sample sheet 开头的数据
+     * @return 提示词
+     */
+    public String build(SheetSample sample) {
+        String head = ROW_FORMAT + "\n\n数据如下: \n";
+        String instruction = "\n" + INSTRUCTION;
+        int budget = tokenBudget - estimateTokens(head) - estimateTokens(instruction);
+        return head + buildSheet(sample, budget) + instruction;
+    }
+
+    /**
+     * 把多个 sheet 放在同一个提示词中，ai 按 sheet 的编号（在 samples 中的下标）返回每个 sheet 的识别结果
+     * <p> 每个 sheet 平分 batchTokenBudget，但不会超过单个 sheet 的 tokenBudget，每个 sheet 至少包含一行数据 </p>
+     *
+     * @param samples 每个 sheet 开头的数据
+     * @return 提示词
+     */
+    public String buildBatch(List<SheetSample> samples) {
+        String head = String.format("下面是同一个 excel 文件中 %d 个 sheet 开头的若干行数据，", samples.size())
+                + ROW_FORMAT.replace("一个表格开头的若干行数据，", "") + "\n";
+        String instruction = "\n" + BATCH_INSTRUCTION;
+        int perSheet = Math.min(tokenBudget, (batchTokenBudget - estimateTokens(head) - estimateTokens(instruction))
+                / Math.max(1, samples.size()));
+        StringBuilder prompt = new StringBuilder(head);
+        for (int i = 0; i < samples.size(); i++) {
+            String title = String.format("%n### sheet %d: %s%n", i, samples.get(i).getSheetName());
+            prompt.append(title).append(buildSheet(samples.get(i), perSheet - estimateTokens(title)));
+        }
+        return prompt.append(instruction).toString();
+    }
+
+    /**
+     * 一个 sheet 的数据行、合并区域和类型统计
+     *
+     * @param budget 可以使用的 token 数
+     */
+    private String buildSheet(SheetSample sample, int budget) {
+        List<SampleRow> rows = new ArrayList<>();
+        int columnCount = 0;
+        for (SampleRow row : sample.getRows()) {
+            if (!row.isBlank()) {
+                rows.add(row);
+                columnCount = Math.max(columnCount, row.getCells().size());
+            }
+        }
+        columnCount = Math.min(columnCount, maxColumns);
+
+        StringBuilder tail = new StringBuilder("\n");
+        appendMergedRegions(tail, sample, rows);
+        appendColumnSummary(tail, rows, columnCount);
+
+        budget -= estimateTokens(tail);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows.size() && i < maxRows; i++) {
+            String line = formatRow(rows.get(i), columnCount);
+            int tokens = estimateTokens(line);
+            if (i > 0 && tokens > budget) {
+                break;
+            }
+            body.append(line);
+            budget -= tokens;
+        }
+        return body.append(tail).toString();
+    }
+
+    /**
+     * 估算 token 数
+     *
+     * @param text 文本
+     * @return 估算的 token 数
+     */
+    public static int estimateTokens(CharSequence text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return other + (ascii + 3) / 4;
+    }
+
+    private String formatRow(SampleRow row, int columnCount) {
+        StringBuilder line = new StringBuilder().append(row.getRowIndex());
+        List<SampleCell> cells = row.getCells();
+        for (int c = 0; c < columnCount; c++) {
+            line.append('|');
+            if (c < cells.size()) {
+                // 换行和分隔符会破坏每行一条数据的格式
+                String text = cells.get(c).getText().replace('\n', ' ').replace('|', '/').trim();
+                line.append(text.length() > maxCellLength ? text.substring(0, maxCellLength) + "…" : text);
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    private static void appendMergedRegions(StringBuilder out, SheetSample sample, List<SampleRow> rows) {
+        if (rows.isEmpty() || sample.getMergedRegions().isEmpty()) {
+            return;
+        }
+        int lastRow = rows.get(rows.size() - 1).getRowIndex();
+        List<String> regions = new ArrayList<>();
+        for (CellRangeAddress region : sample.getMergedRegions()) {
+            if (region.getFirstRow() <= lastRow) {
+                regions.add(String.format("行%d-%d 列%d-%d", region.getFirstRow(), region.getLastRow(),
+                        region.getFirstColumn() + 1, region.getLastColumn() + 1));
+            }
+        }
+        if (!regions.isEmpty()) {
+            out.append("合并单元格: ").append(String.join(", ", regions)).append('\n');
+        }
+    }
+
+    /**
+     * 每一列各类型的单元格数量，统计范围是样本中的所有行
+     */
+    private static void appendColumnSummary(StringBuilder out, List<SampleRow> rows, int columnCount) {
+        if (columnCount == 0) {
+            return;
+        }
+        out.append("各列的类型统计（共 ").append(rows.size()).append(" 行）: \n");
+        for (int c = 0; c < columnCount; c++) {
+            int[] counts = new int[CellKind.values().length];
+            for (SampleRow row : rows) {
+                CellKind kind = c < row.getCells().size() ? row.getCells().get(c).getKind() : CellKind.BLANK;
+                counts[kind.ordinal()]++;
+            }
+            out.append("第").append(c + 1).append("列: ");
+            List<String> parts = new ArrayList<>();
+            for (CellKind kind : CellKind.values()) {
+                if (counts[kind.ordinal()] > 0) {
+                    parts.add(kind.name().toLowerCase() + " " + counts[kind.ordinal()]);
+                }
+            }
+            out.append(String.join(", ", parts)).append('\n');
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.CellKind;
+import com.zj.excel.header.domain.SampleCell;
+import com.zj.excel.header.domain.SampleRow;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.utils.MergedRegionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地规则识别表头，不需要调用 ai
+ * <p> 冻结窗格冻结的行直接作为表头。没有冻结时从第一行开始依次给开头的几行打分，得分足够的连续行作为表头：
+ * <ul>
+ *     <li> 所有非空单元格都是文本：1 分 </li>
+ *     <li> 下方数据中以数字、日期为主的列，这一行对应的位置是文本（至少一半）：2 分 </li>
+ *     <li> 粗体，而下方数据不是：2 分 </li>
+ *     <li> 有背景色，而下方数据没有：1 分 </li>
+ *     <li> 在合并区域中：1 分 </li>
+ * </ul>
+ * 达到 {@value #HEADER_SCORE} 分才算表头，只有文本这一个特征时无法和普通的文本数据区分，返回 null，交给下一个识别方式。
+ * 表头之前只有一个单元格（或者一个横向合并区域）的行视为标题行，放入 otherRowIndexList </p>
+ * <p> 横向合并区域中除左上角以外的单元格按左上角单元格计算，多行表头中合并的分组行也能识别出来 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class HeuristicHeaderDetector implements HeaderDetector {
+
+    private static final int HEADER_SCORE = 3;
+
+    /**
+     * 数据列中某种类型的占比达到这个值时，认为这一列是该类型
+     */
+    private static final double DOMINANT_RATIO = 0.6;
+
+    /**
+     * 最多识别的表头行数（不含标题行）
+     */
+    private int maxHeaderRows = 5;
+
+    public HeuristicHeaderDetector setMaxHeaderRows(int maxHeaderRows) {
+        this.maxHeaderRows = maxHeaderRows;
+        return this;
+    }
+
+    @Override
+    public RowIndexInfoDTO detect(SheetSample sample) {
+        List<SampleRow> rows = new ArrayList<>();
+        for (SampleRow row : sample.getRows()) {
+            if (!row.isBlank()) {
+                rows.add(row);
+            }
+        }
+        if (rows.size() < 2) {
+            return null;
+        }
+        RowIndexInfoDTO frozen = detectByFrozenRows(sample, rows);
+        if (frozen != null) {
+            log.debug("HeuristicHeaderDetector::根据冻结窗格识别表头 sheet={} result={}", sample.getSheetName(),
+                    frozen.getHeaderRowIndexList());
+            return frozen;
+        }
+
+        Map<Integer, SampleRow> rowsByIndex = new HashMap<>();
+        int columnCount = 0;
+        for (SampleRow row : rows) {
+            rowsByIndex.put(row.getRowIndex(), row);
+            columnCount = Math.max(columnCount, row.getCells().size());
+        }
+        MergedRegionIndex mergedRegionIndex = new MergedRegionIndex(sample.getMergedRegions());
+        int candidates = Math.min(maxHeaderRows, rows.size() - 1);
+        BodyProfile body = new BodyProfile(rows.subList(candidates, rows.size()), columnCount);
+
+        List<Integer> headerRows = new ArrayList<>();
+        List<Integer> otherRows = new ArrayList<>();
+        int i = 0;
+        for (; i < rows.size() - 1 && headerRows.size() < candidates; i++) {
+            SampleRow row = rows.get(i);
+            if (headerRows.isEmpty() && otherRows.size() < candidates && isTitle(row, columnCount, mergedRegionIndex)) {
+                otherRows.add(row.getRowIndex());
+                continue;
+            }
+            List<CellKind> kinds = effectiveKinds(row, columnCount, mergedRegionIndex, rowsByIndex);
+            if (score(row, kinds, body, mergedRegionIndex) < HEADER_SCORE) {
+                break;
+            }
+            headerRows.add(row.getRowIndex());
+        }
+        if (headerRows.isEmpty()) {
+            return null;
+        }
+        RowIndexInfoDTO result = new RowIndexInfoDTO();
+        result.setHeaderRowIndexList(headerRows);
+        result.setDataRowStartIndex(rows.get(i).getRowIndex());
+        result.setOtherRowIndexList(otherRows);
+        log.debug("HeuristicHeaderDetector::识别表头 sheet={} header={} other={}", sample.getSheetName(),
+                headerRows, otherRows);
+        return result;
+    }
+
+    /**
+     * 冻结的行作为表头，冻结的行太多（例如冻结了大半页）时不使用
+     */
+    private RowIndexInfoDTO detectByFrozenRows(SheetSample sample, List<SampleRow> rows) {
+        int frozenRowCount = sample.getFrozenRowCount();
+        if (frozenRowCount <= 0 || frozenRowCount > maxHeaderRows * 2) {
+            return null;
+        }
+        List<Integer> headerRows = new ArrayList<>();
+        for (SampleRow row : rows) {
+            if (row.getRowIndex() >= frozenRowCount) {
+                RowIndexInfoDTO result = new RowIndexInfoDTO();
+                result.setHeaderRowIndexList(headerRows);
+                result.setDataRowStartIndex(row.getRowIndex());
+                return headerRows.isEmpty() ? null : result;
+            }
+            headerRows.add(row.getRowIndex());
+        }
+        return null;
+    }
+
+    /**
+     * 整行只有一个非空单元格，并且横向合并了至少一半的列或者表格有 3 列以上
+     */
+    private static boolean isTitle(SampleRow row, int columnCount, MergedRegionIndex mergedRegionIndex) {
+        int nonBlankColumn = -1;
+        List<SampleCell> cells = row.getCells();
+        for (int c = 0; c < cells.size(); c++) {
+            if (cells.get(c).getKind() != CellKind.BLANK) {
+                if (nonBlankColumn >= 0) {
+                    return false;
+                }
+                nonBlankColumn = c;
+            }
+        }
+        if (nonBlankColumn < 0 || columnCount < 2) {
+            return false;
+        }
+        CellRangeAddress region = mergedRegionIndex.getMergedRegion(row.getRowIndex(), nonBlankColumn);
+        int span = region == null ? 1 : region.getLastColumn() - region.getFirstColumn() + 1;
+        return span * 2 >= columnCount || columnCount >= 3;
+    }
+
+    /**
+     * 每一列的类型，合并区域中的空单元格使用左上角单元格的类型
+     */
+    private static List<CellKind> effectiveKinds(SampleRow row, int columnCount, MergedRegionIndex mergedRegionIndex,
+                                                 Map<Integer, SampleRow> rowsByIndex) {
+        List<CellKind> kinds = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            CellKind kind = kindAt(row, c);
+            if (kind == CellKind.BLANK) {
+                CellRangeAddress region = mergedRegionIndex.getMergedRegion(row.getRowIndex(), c);
+                SampleRow firstRow = region == null ? null : rowsByIndex.get(region.getFirstRow());
+                if (firstRow != null) {
+                    kind = kindAt(firstRow, region.getFirstColumn());
+                }
+            }
+            kinds.add(kind);
+        }
+        return kinds;
+    }
+
+    private static int score(SampleRow row, List<CellKind> kinds, BodyProfile body,
+                             MergedRegionIndex mergedRegionIndex) {
+        int nonBlank = 0;
+        int text = 0;
+        int bold = 0;
+        int filled = 0;
+        boolean merged = false;
+        List<SampleCell> cells = row.getCells();
+        for (int c = 0; c < cells.size(); c++) {
+            SampleCell cell = cells.get(c);
+            if (mergedRegionIndex.getMergedRegion(row.getRowIndex(), c) != null) {
+                merged = true;
+            }
+            if (cell.getKind() == CellKind.BLANK) {
+                continue;
+            }
+            nonBlank++;
+            text += cell.getKind() == CellKind.TEXT ? 1 : 0;
+            bold += cell.isBold() ? 1 : 0;
+            filled += cell.isFilled() ? 1 : 0;
+        }
+        if (nonBlank == 0) {
+            return 0;
+        }
+        int score = 0;
+        if (text == nonBlank) {
+            score += 1;
+        }
+        int typedColumns = 0;
+        int contrast = 0;
+        for (int c = 0; c < kinds.size(); c++) {
+            if (body.isTypedColumn(c)) {
+                typedColumns++;
+                contrast += kinds.get(c) == CellKind.TEXT ? 1 : 0;
+            }
+        }
+        if (typedColumns > 0 && contrast * 2 >= typedColumns) {
+            score += 2;
+        }
+        if (bold * 2 >= nonBlank && !body.isMostlyBold()) {
+            score += 2;
+        }
+        if (filled * 2 >= nonBlank && !body.isMostlyFilled()) {
+            score += 1;
+        }
+        if (merged) {
+            score += 1;
+        }
+        return score;
+    }
+
+    private static CellKind kindAt(SampleRow row, int column) {
+        return column < row.getCells().size() ? row.getCells().get(column).getKind() : CellKind.BLANK;
+    }
+
+    /**
+     * 表头候选行下方数据的特征
+     */
+    private static class BodyProfile {
+
+        private final boolean[] typedColumns;
+
+        private final boolean mostlyBold;
+
+        private final boolean mostlyFilled;
+
+        BodyProfile(List<SampleRow> rows, int columnCount) {
+            int[] nonBlank = new int[columnCount];
+            int[] typed = new int[columnCount];
+            int cells = 0;
+            int bold = 0;
+            int filled = 0;
+            for (SampleRow row : rows) {
+                for (int c = 0; c < row.getCells().size(); c++) {
+                    SampleCell cell = row.getCells().get(c);
+                    if (cell.getKind() == CellKind.BLANK) {
+                        continue;
+                    }
+                    nonBlank[c]++;
+                    if (cell.getKind() != CellKind.TEXT) {
+                        typed[c]++;
+                    }
+                    cells++;
+                    bold += cell.isBold() ? 1 : 0;
+                    filled += cell.isFilled() ? 1 : 0;
+                }
+            }
+            this.typedColumns = new boolean[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                typedColumns[c] = nonBlank[c] > 0 && typed[c] >= nonBlank[c] * DOMINANT_RATIO;
+            }
+            this.mostlyBold = bold * 2 >= Math.max(1, cells);
+            this.mostlyFilled = filled * 2 >= Math.max(1, cells);
+        }
+
+        boolean isTypedColumn(int column) {
+            return typedColumns[column];
+        }
+
+        boolean isMostlyBold() {
+            return mostlyBold;
+        }
+
+        boolean isMostlyFilled() {
+            return mostlyFilled;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 后台识别中的表头，由 {@link AsyncHeaderDetector#start} 创建
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class PendingHeader {
+
+    private final CompletableFuture<RowIndexInfoDTO> future;
+
+    private final SheetSample sample;
+
+    private final HeaderDetector fallback;
+
+    private final long deadlineNanos;
+
+    PendingHeader(CompletableFuture<RowIndexInfoDTO> future, SheetSample sample, HeaderDetector fallback,
+                  long deadlineNanos) {
+        this.future = future;
+        this.sample = sample;
+        this.fallback = fallback;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 等待识别结果，最多等到截止时间，超时或者识别出错时返回 fallback 的识别结果
+     *
+     * @return 识别结果，可能为 null
+     */
+    public RowIndexInfoDTO await() {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("PendingHeader::识别表头超时 sheet={}，使用默认的识别方式", sample.getSheetName());
+        } catch (ExecutionException e) {
+            log.error("PendingHeader::识别表头出错 sheet={}", sample.getSheetName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("PendingHeader::等待表头识别结果时被中断 sheet={}", sample.getSheetName());
+        }
+        return fallback == null ? null : fallback.detect(sample);
+    }
+}
@@ -0,0 +1,179 @@
+package com.zj.excel.header;
+
+import com.zj.excel.header.domain.CellKind;
+import com.zj.excel.header.domain.SampleCell;
+import com.zj.excel.header.domain.SampleRow;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.stream.ExcelStreamCell;
+import com.zj.excel.utils.ExcelEvaluationContext;
+import com.zj.excel.utils.HashUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.PaneInformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 sheet 或者流式读取的行中取出识别表头需要的数据
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class SheetSampleUtils {
+
+    private SheetSampleUtils() {
+    }
+
+    /**
+     * 读取 sheet 开头的若干行
+     *
+     * @param sheet sheet 页
+     * @param context 当前 workbook 的取值上下文
+     * @param maxRows 最多读取的行数（按行号计算），即每页的行数
+     * @return 识别表头使用的数据
+     */
+    public static SheetSample ofSheet(Sheet sheet, ExcelEvaluationContext context, int maxRows) {
+        SheetSample sample = new SheetSample()
+                .setSheetName(sheet.getSheetName())
+                .setSinglePage(sheet.getLastRowNum() < maxRows);
+        int lastRow = Math.min(sheet.getLastRowNum(), maxRows - 1);
+        for (int r = 0; r <= lastRow; r++) {
+            Row row = sheet.getRow(r);
+            if (row == null) {
+                continue;
+            }
+            SampleRow sampleRow = new SampleRow().setRowIndex(r);
+            for (int c = 0; c < row.getLastCellNum(); c++) {
+                sampleRow.getCells().add(toSampleCell(sheet, context, row.getCell(c)));
+            }
+            sample.getRows().add(sampleRow);
+        }
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            if (region.getFirstRow() <= lastRow) {
+                sample.getMergedRegions().add(region);
+            }
+        }
+        PaneInformation pane = sheet.getPaneInformation();
+        if (pane != null && pane.isFreezePane()) {
+            sample.setFrozenRowCount(pane.getHorizontalSplitPosition());
+        }
+        return sample;
+    }
+
+    /**
+     * 使用流式读取得到的行，流式读取没有字体和冻结窗格的信息
+     *
+     * @param sheetName sheet 名称
+     * @param rowIndexes 每一行的行号
+     * @param rows 流式读取得到的行
+     * @param mergedRegions sheet 的所有合并区域
+     * @param singlePage 整个 sheet 是否只有这些行（不超过一页）
+     * @return 识别表头使用的数据
+     */
+    public static SheetSample ofStreamRows(String sheetName, List<Integer> rowIndexes,
+                                           List<List<ExcelStreamCell>> rows, List<CellRangeAddress> mergedRegions,
+                                           boolean singlePage) {
+        SheetSample sample = new SheetSample()
+                .setSheetName(sheetName)
+                .setSinglePage(singlePage);
+        int lastRow = -1;
+        for (int i = 0; i < rows.size(); i++) {
+            SampleRow sampleRow = new SampleRow().setRowIndex(rowIndexes.get(i));
+            for (ExcelStreamCell cell : rows.get(i)) {
+                sampleRow.getCells().add(cell == null
+                        ? new SampleCell()
+                        : new SampleCell()
+                        .setText(cell.getText())
+                        .setKind(CellKind.of(cell.getValue()))
+                        .setFilled(cell.getBackgroundColor() != null));
+            }
+            sample.getRows().add(sampleRow);
+            lastRow = rowIndexes.get(i);
+        }
+        for (CellRangeAddress region : mergedRegions) {
+            if (region.getFirstRow() <= lastRow) {
+                sample.getMergedRegions().add(region);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * sheet 开头的结构指纹，同一个模板生成的不同文件得到相同的指纹
+     * <p> 前 maxRows 行中每个单元格的类型、是否粗体、是否有背景色，合并区域，冻结行数，以及表头可能出现的位置的文本：
+     * 第一行，以及前 textRows 行中类型排列和大多数行不同的行（数据行的类型排列通常都相同）。数据行只看结构不看内容 </p>
+     *
+     * @param sample 识别表头使用的数据
+     * @param maxRows 参与计算的行数（不含不存在的行）
+     * @param textRows 文本可能参与计算的行数
+     * @return 64 位十六进制字符串
+     */
+    public static String fingerprint(SheetSample sample, int maxRows, int textRows) {
+        List<SampleRow> rows = sample.getRows().subList(0, Math.min(maxRows, sample.getRows().size()));
+        List<String> kindPatterns = new ArrayList<>(rows.size());
+        Map<String, Integer> patternCounts = new HashMap<>();
+        for (SampleRow row : rows) {
+            StringBuilder pattern = new StringBuilder();
+            for (SampleCell cell : row.getCells()) {
+                pattern.append(cell.getKind().ordinal());
+            }
+            kindPatterns.add(pattern.toString());
+            patternCounts.merge(pattern.toString(), 1, Integer::sum);
+        }
+        String bodyPattern = patternCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse("");
+
+        StringBuilder structure = new StringBuilder();
+        structure.append("frozen:").append(sample.getFrozenRowCount()).append('\n');
+        int lastRow = -1;
+        for (int i = 0; i < rows.size(); i++) {
+            SampleRow row = rows.get(i);
+            lastRow = row.getRowIndex();
+            boolean withText = i == 0 || (i < textRows && !kindPatterns.get(i).equals(bodyPattern));
+            structure.append("row:").append(row.getRowIndex()).append('\n');
+            for (SampleCell cell : row.getCells()) {
+                structure.append(cell.getKind().ordinal())
+                        .append(cell.isBold() ? 'b' : '-')
+                        .append(cell.isFilled() ? 'f' : '-');
+                if (withText) {
+                    // 长度前缀，避免不同的拆分拼出相同的字符串
+                    structure.append(cell.getText().length()).append(':').append(cell.getText());
+                }
+                structure.append('|');
+            }
+            structure.append('\n');
+        }
+        // 合并区域的顺序和写入文件的顺序有关，排序后再计算
+        List<String> merges = new ArrayList<>();
+        for (CellRangeAddress region : sample.getMergedRegions()) {
+            if (region.getFirstRow() <= lastRow) {
+                merges.add(region.formatAsString());
+            }
+        }
+        Collections.sort(merges);
+        for (String merge : merges) {
+            structure.append("merge:").append(merge).append('\n');
+        }
+        return HashUtils.sha256Hex(structure.toString());
+    }
+
+    private static SampleCell toSampleCell(Sheet sheet, ExcelEvaluationContext context, Cell cell) {
+        if (cell == null) {
+            return new SampleCell();
+        }
+        CellStyle style = cell.getCellStyle();
+        return new SampleCell()
+                .setText(context.getCellText(cell))
+                .setKind(CellKind.of(context.formatCellValue(cell)))
+                .setBold(style != null && sheet.getWorkbook().getFontAt(style.getFontIndex()).getBold())
+                .setFilled(style != null && style.getFillPattern() != FillPatternType.NO_FILL);
+    }
+}
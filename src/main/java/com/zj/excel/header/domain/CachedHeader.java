@@ -0,0 +1,28 @@
+package com.zj.excel.header.domain;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 缓存的表头识别结果
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Data
+@Accessors(chain = true)
+public class CachedHeader {
+
+    /**
+     * sheet 的结构指纹
+     */
+    private String fingerprint;
+
+    /**
+     * 过期时间，毫秒时间戳
+     */
+    private long expiresAt;
+
+    private RowIndexInfoDTO result;
+}
@@ -0,0 +1,57 @@
+package com.zj.excel.header.domain;
+
+import java.util.regex.Pattern;
+
+/**
+ * 单元格取值的类型，用于比较表头行和数据行的差异
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public enum CellKind {
+
+    BLANK,
+
+    TEXT,
+
+    NUMBER,
+
+    DATE,
+
+    BOOLEAN;
+
+    private static final Pattern NUMBER_TEXT = Pattern.compile("[-+]?[\\d,]*\\.?\\d+%?");
+
+    private static final Pattern DATE_TEXT =
+            Pattern.compile("\\d{1,4}[-/.年]\\d{1,2}([-/.月]\\d{1,2}日?)?([ T]\\d{1,2}:\\d{2}(:\\d{2})?)?");
+
+    /**
+     * 根据单元格的值判断类型，值和 dom 方式下 formatCellValue 的返回值一致（String / Double / Boolean），
+     * 日期格式的单元格是格式化后的文本，按文本的格式区分数字和日期
+     *
+     * @param value 单元格的值
+     * @return 类型
+     */
+    public static CellKind of(Object value) {
+        if (value == null) {
+            return BLANK;
+        }
+        if (value instanceof Number) {
+            return NUMBER;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return BLANK;
+        }
+        if (NUMBER_TEXT.matcher(text).matches()) {
+            return NUMBER;
+        }
+        if (DATE_TEXT.matcher(text).matches()) {
+            return DATE;
+        }
+        return TEXT;
+    }
+}
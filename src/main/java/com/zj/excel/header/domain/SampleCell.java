@@ -0,0 +1,35 @@
+package com.zj.excel.header.domain;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 用于识别表头的单元格信息
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Data
+@Accessors(chain = true)
+public class SampleCell {
+
+    /**
+     * 单元格的文本内容
+     */
+    private String text = "";
+
+    /**
+     * 取值类型
+     */
+    private CellKind kind = CellKind.BLANK;
+
+    /**
+     * 是否为粗体，流式读取时没有字体信息，总是 false
+     */
+    private boolean bold;
+
+    /**
+     * 是否有背景色
+     */
+    private boolean filled;
+}
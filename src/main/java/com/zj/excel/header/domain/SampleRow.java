@@ -0,0 +1,37 @@
+package com.zj.excel.header.domain;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用于识别表头的一行数据
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Data
+@Accessors(chain = true)
+public class SampleRow {
+
+    /**
+     * 在 sheet 中的行号，从 0 开始
+     */
+    private int rowIndex;
+
+    private List<SampleCell> cells = new ArrayList<>();
+
+    /**
+     * 是否所有单元格都为空
+     */
+    public boolean isBlank() {
+        for (SampleCell cell : cells) {
+            if (cell.getKind() != CellKind.BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.zj.excel.header.domain;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 识别表头时使用的 sheet 数据
+ * <p> 表头只会出现在 sheet 的开头，这里只保存前面若干行（通常是第一页）的结构信息：
+ * 每个单元格的文本、类型、是否粗体、是否有背景色，以及落在这些行中的合并区域和冻结的行数 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Data
+@Accessors(chain = true)
+public class SheetSample {
+
+    private String sheetName;
+
+    /**
+     * sheet 开头的若干行，按行号顺序排列，不包含不存在的行
+     */
+    private List<SampleRow> rows = new ArrayList<>();
+
+    /**
+     * 和这些行有交集的合并区域
+     */
+    private List<CellRangeAddress> mergedRegions = new ArrayList<>();
+
+    /**
+     * 冻结窗格冻结的行数，没有冻结或者无法获取时为 0
+     */
+    private int frozenRowCount;
+
+    /**
+     * 整个 sheet 是否只有一页，只有一页时不需要识别表头（表头只会重复放到后面的页中）
+     */
+    private boolean singlePage;
+}
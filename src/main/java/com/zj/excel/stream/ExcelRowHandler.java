@@ -0,0 +1,49 @@
+package com.zj.excel.stream;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.List;
+
+/**
+ * 流式读取 excel 时的行回调
+ * <p> 每个 sheet 依次回调 acceptSheet -> startSheet -> handleRow(按行号递增，空行也会回调) -> endSheet </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public interface ExcelRowHandler {
+
+    /**
+     * 是否需要读取该 sheet，返回 false 时该 sheet 不会有任何回调
+     *
+     * @param sheetIndex sheet 的下标
+     * @param sheetName sheet 名称
+     * @param hidden 是否为隐藏的 sheet
+     * @return 默认读取所有的 sheet
+     */
+    default boolean acceptSheet(int sheetIndex, String sheetName, boolean hidden) {
+        return true;
+    }
+
+    /**
+     * 开始读取一个 sheet
+     *
+     * @param sheetIndex sheet 的下标
+     * @param sheetName sheet 名称
+     * @param mergedRegions 当前 sheet 所有的合并区域
+     */
+    void startSheet(int sheetIndex, String sheetName, List<CellRangeAddress> mergedRegions);
+
+    /**
+     * 读取到一行数据
+     *
+     * @param rowIndex 行号，从 0 开始
+     * @param cells 当前行的单元格，下标即为列号，不存在的单元格为 null
+     */
+    void handleRow(int rowIndex, List<ExcelStreamCell> cells);
+
+    /**
+     * 当前 sheet 读取结束
+     */
+    void endSheet();
+}
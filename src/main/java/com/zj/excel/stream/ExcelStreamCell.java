@@ -0,0 +1,44 @@
+package com.zj.excel.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.awt.Color;
+
+/**
+ * 流式读取得到的单元格
+ * <p> value 与 dom 方式下 formatCellValue 的返回值保持一致（String / Double / Boolean） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Data
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExcelStreamCell {
+
+    /**
+     * 单元格的值
+     */
+    private Object value;
+
+    /**
+     * 背景色，没有背景色为 null
+     */
+    private Color backgroundColor;
+
+    /**
+     * 字体颜色
+     */
+    private Color textColor;
+
+    /**
+     * 单元格的文本内容，与 dom 方式下 getCellText 的结果一致
+     */
+    public String getText() {
+        return value == null ? "" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.zj.excel.stream;
+
+import com.zj.excel.FileTypeEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 流式读取 excel 的入口，根据文件类型选择对应的读取方式
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ExcelStreamingReader {
+
+    /**
+     * 流式读取 excel 文件
+     *
+     * @param inputStream excel 文件流
+     * @param fileTypeEnum 文件类型 {@link FileTypeEnum#XLS} or {@link FileTypeEnum#XLSX}
+     * @param handler 行回调
+     * @throws IOException 可能会存在的 io 异常
+     */
+    public static void read(InputStream inputStream, FileTypeEnum fileTypeEnum, ExcelRowHandler handler)
+            throws IOException {
+        if (fileTypeEnum == FileTypeEnum.XLS) {
+            XlsStreamingReader.read(inputStream, handler);
+        } else {
+            XlsxStreamingReader.read(inputStream, handler);
+        }
+    }
+}
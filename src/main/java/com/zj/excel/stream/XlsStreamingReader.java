@@ -0,0 +1,413 @@
+package com.zj.excel.stream;
+
+import com.zj.excel.utils.CellStyleColorCache;
+import com.zj.excel.utils.ExcelColorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FontRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MergeCellsRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.PaletteRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 HSSF 事件模型（record 流）的 xls 流式读取
+ * <p> 不构建 HSSFWorkbook，按 record 顺序解析单元格，得到和 dom 方式一致的单元格文本、合并区域和颜色。 </p>
+ * <p> 合并区域的 record 位于单元格之后，所以会先扫描一遍只收集合并区域（见 {@link #collectMergedRegions}），
+ * 第二遍才解析单元格；公式单元格直接使用文件中缓存的计算结果 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class XlsStreamingReader {
+
+    /**
+     * 流式读取 xls 文件
+     * <p> 输入流会先落到临时文件中，避免 POIFSFileSystem 将整个文件读入内存 </p>
+     *
+     * @param inputStream xls 文件流
+     * @param handler 行回调
+     * @throws IOException 可能会存在的 io 异常
+     */
+    public static void read(InputStream inputStream, ExcelRowHandler handler) throws IOException {
+        File tempFile = Files.createTempFile("excel_stream_", ".xls").toFile();
+        try {
+            Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            try (POIFSFileSystem fs = new POIFSFileSystem(tempFile, true)) {
+                Map<Integer, List<CellRangeAddress>> sheetMergedRegions = collectMergedRegions(fs);
+
+                SheetRecordListener sheetRecordListener = new SheetRecordListener(handler, sheetMergedRegions);
+                FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(sheetRecordListener);
+                sheetRecordListener.formatListener = formatListener;
+                HSSFRequest request = new HSSFRequest();
+                request.addListenerForAllRecords(formatListener);
+                new HSSFEventFactory().processWorkbookEvents(request, fs);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * 第一遍扫描，只收集每个 sheet 的合并区域
+     * <p> 直接按 record 头遍历 Workbook 流，只解码 BOF/EOF/MergeCells 三种 record，其余 record（包括 SST）只跳过数据不做解析，
+     * 代价约等于顺序读一遍文件。加密的文件需要解密后才能识别 record，这时退回到事件模型并且只注册这三种 record 的监听 </p>
+     */
+    private static Map<Integer, List<CellRangeAddress>> collectMergedRegions(POIFSFileSystem fs) throws IOException {
+        MergedRegionListener listener = new MergedRegionListener();
+        String workbookName = HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot());
+        try (InputStream in = fs.createDocumentInputStream(workbookName)) {
+            RecordInputStream recordStream = new RecordInputStream(in);
+            byte[] skipBuffer = new byte[RecordInputStream.MAX_RECORD_DATA_SIZE];
+            while (recordStream.hasNextRecord()) {
+                recordStream.nextRecord();
+                short sid = recordStream.getSid();
+                if (sid == FilePassRecord.sid) {
+                    return collectMergedRegionsByEvents(fs);
+                }
+                if (sid == BOFRecord.sid) {
+                    listener.processRecord(new BOFRecord(recordStream));
+                } else if (sid == EOFRecord.sid) {
+                    listener.processRecord(EOFRecord.instance);
+                } else if (sid == MergeCellsRecord.sid) {
+                    listener.processRecord(new MergeCellsRecord(recordStream));
+                }
+                int remaining = recordStream.remaining();
+                if (remaining > 0) {
+                    recordStream.readFully(skipBuffer, 0, remaining);
+                }
+            }
+        }
+        return listener.sheetMergedRegions;
+    }
+
+    private static Map<Integer, List<CellRangeAddress>> collectMergedRegionsByEvents(POIFSFileSystem fs)
+            throws IOException {
+        MergedRegionListener listener = new MergedRegionListener();
+        HSSFRequest request = new HSSFRequest();
+        request.addListener(listener, BOFRecord.sid);
+        request.addListener(listener, EOFRecord.sid);
+        request.addListener(listener, MergeCellsRecord.sid);
+        new HSSFEventFactory().processWorkbookEvents(request, fs);
+        return listener.sheetMergedRegions;
+    }
+
+    /**
+     * 只收集每个 sheet 的合并区域，key 为 sheet 在文件中出现的顺序
+     */
+    private static class MergedRegionListener implements HSSFListener {
+        private final Map<Integer, List<CellRangeAddress>> sheetMergedRegions = new HashMap<>();
+        private int depth = 0;
+        private int sheetOrder = -1;
+
+        @Override
+        public void processRecord(Record record) {
+            if (record instanceof BOFRecord) {
+                depth++;
+                if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    sheetOrder++;
+                }
+            } else if (record instanceof EOFRecord) {
+                depth--;
+            } else if (record instanceof MergeCellsRecord && depth == 1 && sheetOrder >= 0) {
+                MergeCellsRecord mergeCellsRecord = (MergeCellsRecord) record;
+                List<CellRangeAddress> mergedRegions =
+                        sheetMergedRegions.computeIfAbsent(sheetOrder, key -> new ArrayList<>());
+                for (int i = 0; i < mergeCellsRecord.getNumAreas(); i++) {
+                    mergedRegions.add(mergeCellsRecord.getAreaAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * 解析单元格 record，按行回调
+     */
+    private static class SheetRecordListener implements HSSFListener {
+        private final ExcelRowHandler handler;
+        private final Map<Integer, List<CellRangeAddress>> sheetMergedRegions;
+        private final DataFormatter formatter = new DataFormatter();
+        private FormatTrackingHSSFListener formatListener;
+
+        private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<>();
+        private final List<ExtendedFormatRecord> extendedFormatRecords = new ArrayList<>();
+        private final List<FontRecord> fontRecords = new ArrayList<>();
+        private PaletteRecord palette = new PaletteRecord();
+        private final CellStyleColorCache colorCache = new CellStyleColorCache();
+        private SSTRecord sstRecord;
+        private boolean use1904Windowing;
+
+        private BoundSheetRecord[] orderedBoundSheetRecords;
+        private int depth = 0;
+        private int sheetOrder = -1;
+        private boolean inSheet;
+
+        private int lastEmittedRow = -1;
+        private int lastRowRecord = -1;
+        private int currentRow = -1;
+        private List<ExcelStreamCell> rowCells = new ArrayList<>();
+
+        /**
+         * 结果为字符串的公式，字符串在紧跟着的 StringRecord 中
+         */
+        private FormulaRecord pendingStringFormula;
+
+        SheetRecordListener(ExcelRowHandler handler, Map<Integer, List<CellRangeAddress>> sheetMergedRegions) {
+            this.handler = handler;
+            this.sheetMergedRegions = sheetMergedRegions;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            if (record instanceof BOFRecord) {
+                depth++;
+                if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    startSheet();
+                }
+                return;
+            }
+            if (record instanceof EOFRecord) {
+                if (depth == 1 && inSheet) {
+                    endSheet();
+                }
+                depth--;
+                return;
+            }
+            if (depth > 1) {
+                // 嵌入在 sheet 中的图表等子流，直接忽略
+                return;
+            }
+            if (record instanceof BoundSheetRecord) {
+                boundSheetRecords.add((BoundSheetRecord) record);
+            } else if (record instanceof ExtendedFormatRecord) {
+                extendedFormatRecords.add((ExtendedFormatRecord) record);
+            } else if (record instanceof FontRecord) {
+                fontRecords.add((FontRecord) record);
+            } else if (record instanceof PaletteRecord) {
+                palette = (PaletteRecord) record;
+            } else if (record instanceof SSTRecord) {
+                sstRecord = (SSTRecord) record;
+            } else if (record instanceof DateWindow1904Record) {
+                use1904Windowing = ((DateWindow1904Record) record).getWindowing() == 1;
+            } else if (inSheet) {
+                processSheetRecord(record);
+            }
+        }
+
+        private void startSheet() {
+            if (orderedBoundSheetRecords == null) {
+                orderedBoundSheetRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+            }
+            sheetOrder++;
+            BoundSheetRecord boundSheetRecord = orderedBoundSheetRecords[sheetOrder];
+            int sheetIndex = boundSheetRecords.indexOf(boundSheetRecord);
+            String sheetName = boundSheetRecord.getSheetname();
+            boolean hidden = boundSheetRecord.isHidden() || boundSheetRecord.isVeryHidden();
+            lastEmittedRow = -1;
+            lastRowRecord = -1;
+            currentRow = -1;
+            rowCells = new ArrayList<>();
+            pendingStringFormula = null;
+            inSheet = handler.acceptSheet(sheetIndex, sheetName, hidden);
+            if (!inSheet) {
+                return;
+            }
+            log.info("XlsStreamingReader::解析表格Sheet-{} {}", sheetIndex + 1, sheetName);
+            List<CellRangeAddress> mergedRegions =
+                    sheetMergedRegions.getOrDefault(sheetOrder, Collections.emptyList());
+            handler.startSheet(sheetIndex, sheetName, mergedRegions);
+        }
+
+        private void endSheet() {
+            flushRow();
+            // 只有 RowRecord 没有单元格的行，dom 方式下同样会被遍历到
+            emitEmptyRowsUntil(lastRowRecord + 1);
+            handler.endSheet();
+            inSheet = false;
+        }
+
+        private void processSheetRecord(Record record) {
+            if (record instanceof StringRecord) {
+                if (pendingStringFormula != null) {
+                    addCell(pendingStringFormula, ((StringRecord) record).getString());
+                    pendingStringFormula = null;
+                }
+                return;
+            }
+            if (record instanceof RowRecord) {
+                lastRowRecord = Math.max(lastRowRecord, ((RowRecord) record).getRowNumber());
+                return;
+            }
+            if (record instanceof NumberRecord) {
+                NumberRecord numberRecord = (NumberRecord) record;
+                addCell(numberRecord, formatNumber(numberRecord, numberRecord.getValue()));
+            } else if (record instanceof LabelSSTRecord) {
+                LabelSSTRecord labelSSTRecord = (LabelSSTRecord) record;
+                addCell(labelSSTRecord, sstRecord.getString(labelSSTRecord.getSSTIndex()).getString());
+            } else if (record instanceof LabelRecord) {
+                LabelRecord labelRecord = (LabelRecord) record;
+                addCell(labelRecord, labelRecord.getValue());
+            } else if (record instanceof BoolErrRecord) {
+                BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                Object value = boolErrRecord.isBoolean()
+                        ? boolErrRecord.getBooleanValue()
+                        : FormulaError.forInt(boolErrRecord.getErrorValue()).getString();
+                addCell(boolErrRecord, value);
+            } else if (record instanceof BlankRecord) {
+                addCell((BlankRecord) record, "");
+            } else if (record instanceof MulBlankRecord) {
+                // 连续的带样式空白单元格会合并成一个 MulBlankRecord，RecordFactory 不会展开它
+                MulBlankRecord mulBlankRecord = (MulBlankRecord) record;
+                for (int i = 0; i < mulBlankRecord.getNumColumns(); i++) {
+                    addCell(mulBlankRecord.getRow(), mulBlankRecord.getFirstColumn() + i,
+                            mulBlankRecord.getXFAt(i), "");
+                }
+            } else if (record instanceof FormulaRecord) {
+                processFormulaRecord((FormulaRecord) record);
+            }
+        }
+
+        private void processFormulaRecord(FormulaRecord formulaRecord) {
+            CellType cachedResultType = formulaRecord.getCachedResultTypeEnum();
+            switch (cachedResultType) {
+                case NUMERIC:
+                    addCell(formulaRecord, formatNumber(formulaRecord, formulaRecord.getValue()));
+                    break;
+                case STRING:
+                    if (formulaRecord.hasCachedResultString()) {
+                        pendingStringFormula = formulaRecord;
+                    } else {
+                        addCell(formulaRecord, "");
+                    }
+                    break;
+                case BOOLEAN:
+                    addCell(formulaRecord, formulaRecord.getCachedBooleanValue());
+                    break;
+                default:
+                    addCell(formulaRecord, "");
+                    break;
+            }
+        }
+
+        private Object formatNumber(CellValueRecordInterface record, double value) {
+            int formatIndex = formatListener.getFormatIndex(record);
+            String formatString = formatListener.getFormatString(record);
+            if (DateUtil.isValidExcelDate(value) && DateUtil.isADateFormat(formatIndex, formatString)) {
+                return formatter.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+            }
+            return value;
+        }
+
+        private void addCell(CellValueRecordInterface record, Object value) {
+            addCell(record.getRow(), record.getColumn(), record.getXFIndex(), value);
+        }
+
+        private void addCell(int row, int column, short xfIndex, Object value) {
+            if (row != currentRow) {
+                flushRow();
+                currentRow = row;
+            }
+            while (rowCells.size() <= column) {
+                rowCells.add(null);
+            }
+            // 颜色依赖调色板，调色板 record 变化时缓存会被清空
+            colorCache.usePalette(palette);
+            int styleIndex = xfIndex & 0xFFFF;
+            if (!colorCache.isResolved(styleIndex)) {
+                ExtendedFormatRecord xf = getExtendedFormat(xfIndex);
+                colorCache.put(styleIndex, getBackgroundColor(xf), getTextColor(xf));
+            }
+            rowCells.set(column, new ExcelStreamCell()
+                    .setValue(value)
+                    .setBackgroundColor(colorCache.getBackgroundColor(styleIndex))
+                    .setTextColor(colorCache.getTextColor(styleIndex)));
+        }
+
+        private void flushRow() {
+            if (currentRow < 0) {
+                return;
+            }
+            emitEmptyRowsUntil(currentRow);
+            handler.handleRow(currentRow, rowCells);
+            lastEmittedRow = currentRow;
+            currentRow = -1;
+            rowCells = new ArrayList<>();
+        }
+
+        private void emitEmptyRowsUntil(int endRowExclusive) {
+            for (int r = lastEmittedRow + 1; r < endRowExclusive; r++) {
+                handler.handleRow(r, Collections.emptyList());
+                lastEmittedRow = r;
+            }
+        }
+
+        private ExtendedFormatRecord getExtendedFormat(short xfIndex) {
+            if (xfIndex < 0 || xfIndex >= extendedFormatRecords.size()) {
+                return null;
+            }
+            return extendedFormatRecords.get(xfIndex);
+        }
+
+        private Color getBackgroundColor(ExtendedFormatRecord xf) {
+            if (xf == null) {
+                return null;
+            }
+            return ExcelColorUtils.getHssfBackgroundColor(palette, xf.getFillForeground());
+        }
+
+        private Color getTextColor(ExtendedFormatRecord xf) {
+            if (xf == null) {
+                return Color.BLACK;
+            }
+            // 和 HSSFWorkbook#getFontAt 一致，字体索引 4 在 xls 中是不存在的
+            int fontIndex = xf.getFontIndex();
+            if (fontIndex > 4) {
+                fontIndex -= 1;
+            }
+            if (fontIndex < 0 || fontIndex >= fontRecords.size()) {
+                return Color.BLACK;
+            }
+            return ExcelColorUtils.getColorFromIndexedColor(fontRecords.get(fontIndex).getColorPaletteIndex());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.zj.excel.stream;
+
+import com.zj.excel.utils.CellStyleColorCache;
+import com.zj.excel.utils.ExcelColorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 SAX 的 xlsx 流式读取
+ * <p> 不构建 XSSFWorkbook，按行解析 sheet 的 xml，配合共享字符串表和样式表得到单元格的值和颜色。 </p>
+ * <p> 注意: 公式单元格直接使用文件中缓存的计算结果，不会重新计算 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class XlsxStreamingReader {
+
+    /**
+     * 流式读取 xlsx 文件
+     * <p> 输入流会先落到临时文件中，避免 OPCPackage 将整个压缩包读入内存 </p>
+     *
+     * @param inputStream xlsx 文件流
+     * @param handler 行回调
+     * @throws IOException 可能会存在的 io 异常
+     */
+    public static void read(InputStream inputStream, ExcelRowHandler handler) throws IOException {
+        File tempFile = Files.createTempFile("excel_stream_", ".xlsx").toFile();
+        OPCPackage pkg = null;
+        try {
+            Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            pkg = OPCPackage.open(tempFile, PackageAccess.READ);
+            read(pkg, handler);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("流式读取 xlsx 文件失败", e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static void read(OPCPackage pkg, ExcelRowHandler handler)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader reader = new XSSFReader(pkg);
+        ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+        StylesTable styles = reader.getStylesTable();
+        CellStyleColorCache colorCache = new CellStyleColorCache();
+        List<Boolean> sheetHiddenList = readSheetHiddenList(reader);
+        XSSFReader.SheetIterator sheetIterator = reader.getSheetIterator();
+        int sheetIndex = 0;
+        while (sheetIterator.hasNext()) {
+            try (InputStream sheetStream = sheetIterator.next()) {
+                String sheetName = sheetIterator.getSheetName();
+                boolean hidden = sheetIndex < sheetHiddenList.size() && sheetHiddenList.get(sheetIndex);
+                if (!handler.acceptSheet(sheetIndex, sheetName, hidden)) {
+                    sheetIndex++;
+                    continue;
+                }
+                log.info("XlsxStreamingReader::解析表格Sheet-{} {}", sheetIndex + 1, sheetName);
+                // 合并区域位于 sheetData 之后，先单独扫描一遍只收集合并区域
+                List<CellRangeAddress> mergedRegions = readMergedRegions(sheetIterator.getSheetPart());
+                handler.startSheet(sheetIndex, sheetName, mergedRegions);
+                parse(sheetStream, new SheetRowSaxHandler(strings, styles, colorCache, handler));
+                handler.endSheet();
+            }
+            sheetIndex++;
+        }
+    }
+
+    /**
+     * 读取 workbook.xml 中各个 sheet 的隐藏状态，顺序与 SheetIterator 一致
+     */
+    private static List<Boolean> readSheetHiddenList(XSSFReader reader)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        List<Boolean> sheetHiddenList = new ArrayList<>();
+        try (InputStream workbookStream = reader.getWorkbookData()) {
+            parse(workbookStream, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("sheet".equals(localName)) {
+                        String state = attributes.getValue("state");
+                        sheetHiddenList.add("hidden".equals(state) || "veryHidden".equals(state));
+                    }
+                }
+            });
+        }
+        return sheetHiddenList;
+    }
+
+    private static List<CellRangeAddress> readMergedRegions(PackagePart sheetPart)
+            throws IOException, SAXException, ParserConfigurationException {
+        MergeCellSaxHandler mergeCellSaxHandler = new MergeCellSaxHandler();
+        try (InputStream partStream = sheetPart.getInputStream()) {
+            parse(partStream, mergeCellSaxHandler);
+        }
+        return mergeCellSaxHandler.mergedRegions;
+    }
+
+    private static void parse(InputStream inputStream, ContentHandler contentHandler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(contentHandler);
+        xmlReader.parse(new InputSource(inputStream));
+    }
+
+    /**
+     * 只收集 mergeCell 节点
+     */
+    private static class MergeCellSaxHandler extends DefaultHandler {
+        private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("mergeCell".equals(localName)) {
+                String ref = attributes.getValue("ref");
+                if (ref != null) {
+                    mergedRegions.add(CellRangeAddress.valueOf(ref));
+                }
+            }
+        }
+    }
+
+    /**
+     * 按行解析 sheetData，每解析完一行回调一次
+     */
+    private static class SheetRowSaxHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final CellStyleColorCache colorCache;
+        private final ExcelRowHandler handler;
+        private final DataFormatter formatter = new DataFormatter();
+        private final StringBuilder valueBuilder = new StringBuilder();
+
+        private int lastEmittedRow = -1;
+        private int currentRow = -1;
+        private List<ExcelStreamCell> rowCells = new ArrayList<>();
+
+        private int currentColumn = -1;
+        private String cellType;
+        private String cellStyle;
+        private boolean hasValue;
+        private boolean inValue;
+        private boolean inInlineString;
+
+        SheetRowSaxHandler(ReadOnlySharedStringsTable strings, StylesTable styles, CellStyleColorCache colorCache,
+                           ExcelRowHandler handler) {
+            this.strings = strings;
+            this.styles = styles;
+            this.colorCache = colorCache;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String rowRef = attributes.getValue("r");
+                    currentRow = rowRef == null ? currentRow + 1 : Integer.parseInt(rowRef) - 1;
+                    rowCells = new ArrayList<>();
+                    currentColumn = -1;
+                    break;
+                case "c":
+                    String cellRef = attributes.getValue("r");
+                    currentColumn = cellRef == null ? currentColumn + 1 : new CellReference(cellRef).getCol();
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    hasValue = false;
+                    valueBuilder.setLength(0);
+                    break;
+                case "v":
+                    inValue = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInlineString) {
+                valueBuilder.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    hasValue = true;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    hasValue = true;
+                    break;
+                case "c":
+                    while (rowCells.size() < currentColumn) {
+                        rowCells.add(null);
+                    }
+                    rowCells.add(buildCell());
+                    break;
+                case "row":
+                    // 补齐中间缺失的空行，保证和 dom 方式遍历 0..lastRowNum 的结果一致
+                    for (int r = lastEmittedRow + 1; r < currentRow; r++) {
+                        handler.handleRow(r, Collections.emptyList());
+                    }
+                    handler.handleRow(currentRow, rowCells);
+                    lastEmittedRow = currentRow;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private ExcelStreamCell buildCell() {
+            int styleIndex = cellStyle == null ? 0 : Integer.parseInt(cellStyle);
+            XSSFCellStyle style = styles == null ? null : styles.getStyleAt(styleIndex);
+            if (!colorCache.isResolved(styleIndex)) {
+                colorCache.put(styleIndex, ExcelColorUtils.getStyleBackgroundColor(style),
+                        ExcelColorUtils.getXssfStyleTextColor(style));
+            }
+            return new ExcelStreamCell()
+                    .setValue(resolveValue(style))
+                    .setBackgroundColor(colorCache.getBackgroundColor(styleIndex))
+                    .setTextColor(colorCache.getTextColor(styleIndex));
+        }
+
+        private Object resolveValue(XSSFCellStyle style) {
+            String rawValue = valueBuilder.toString();
+            if (!hasValue) {
+                return "";
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                if (rawValue.isEmpty()) {
+                    return "";
+                }
+                double numericValue = Double.parseDouble(rawValue);
+                if (style != null && DateUtil.isValidExcelDate(numericValue)) {
+                    short formatIndex = style.getDataFormat();
+                    String formatString = style.getDataFormatString();
+                    if (formatString == null) {
+                        formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+                    }
+                    if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                        return formatter.formatRawCellContents(numericValue, formatIndex, formatString);
+                    }
+                }
+                return numericValue;
+            }
+            switch (cellType) {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(rawValue)).getString();
+                case "b":
+                    return "1".equals(rawValue);
+                default:
+                    // inlineStr / str(公式字符串结果) / e(错误值) / d(ISO 日期) 直接使用原始文本
+                    return rawValue;
+            }
+        }
+    }
+}
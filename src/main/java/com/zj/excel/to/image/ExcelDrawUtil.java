@@ -1,38 +1,35 @@
 package com.zj.excel.to.image;
 
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import com.zj.excel.FileTypeEnum;
-import com.zj.excel.domian.dto.RowIndexInfoDTO;
-import com.zj.excel.graph.JDrawTableUtil;
+import com.zj.excel.header.AsyncHeaderDetector;
+import com.zj.excel.header.PendingHeader;
+import com.zj.excel.header.SheetSampleUtils;
+import com.zj.excel.header.domain.SheetSample;
 import com.zj.excel.graph.domain.JExtendedCell;
-import com.zj.excel.graph.domain.JTable;
-import com.zj.excel.graph.domain.JTableMergeConfig;
+import com.zj.excel.stream.ExcelStreamingReader;
 import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
-import com.zj.excel.utils.ExcelUtils;
+import com.zj.excel.to.image.sink.CollectingPageImageSink;
+import com.zj.excel.to.image.sink.DirectoryPageImageSink;
+import com.zj.excel.to.image.sink.PageImageSink;
+import com.zj.excel.to.image.sink.ZipPageImageSink;
+import com.zj.excel.utils.CellStyleColorCache;
+import com.zj.excel.utils.ExcelColorUtils;
+import com.zj.excel.utils.ExcelEvaluationContext;
+import com.zj.excel.utils.MergedRegionIndex;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.awt.Color;
-import java.awt.Font;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.function.Supplier;
 
 /**
  * @author zhoujun134
@@ -41,384 +38,227 @@ import java.util.stream.IntStream;
 @Slf4j
 public class ExcelDrawUtil {
 
-    private final static String COLOR_JSON =
-            "{\"0\":\"#000000\",\"1\":\"#FFFFFF\",\"2\":\"#FF0000\",\"3\":\"#00FF00\",\"4\":\"#0000FF\","
-                    + "\"5\":\"#FFFF00\",\"6\":\"#FF00FF\",\"7\":\"#00FFFF\",\"8\":\"#000000\",\"9\":\"#FFFFFF\","
-                    + "\"10\":\"#FF0000\",\"11\":\"#00FF00\",\"12\":\"#0000FF\",\"13\":\"#FFFF00\","
-                    + "\"14\":\"#FF00FF\",\"15\":\"#00FFFF\",\"16\":\"#800000\",\"17\":\"#008000\","
-                    + "\"18\":\"#000080\",\"19\":\"#808000\",\"20\":\"#800080\",\"21\":\"#008080\","
-                    + "\"22\":\"#C0C0C0\",\"23\":\"#808080\",\"24\":\"#9999FF\",\"25\":\"#993366\","
-                    + "\"26\":\"#FFFFCC\",\"27\":\"#CCFFFF\",\"28\":\"#660066\",\"29\":\"#FF8080\","
-                    + "\"30\":\"#0066CC\",\"31\":\"#CCCCFF\",\"40\":\"#00CCFF\",\"41\":\"#CCFFFF\","
-                    + "\"42\":\"#CCFFCC\",\"43\":\"#FFFF99\",\"44\":\"#99CCFF\",\"45\":\"#FF99CC\","
-                    + "\"46\":\"#CC99FF\",\"47\":\"#FFCC99\",\"48\":\"#3366FF\",\"49\":\"#33CCCC\","
-                    + "\"50\":\"#99CC00\",\"51\":\"#FFCC00\",\"52\":\"#FF9900\",\"53\":\"#FF6600\","
-                    + "\"54\":\"#666699\",\"55\":\"#969696\",\"56\":\"#003366\",\"57\":\"#339966\","
-                    + "\"58\":\"#003300\",\"59\":\"#333300\",\"60\":\"#993300\",\"61\":\"#993366\","
-                    + "\"62\":\"#333399\",\"63\":\"#333333\",\"64\":\"#FFFFFF\"}";
-
-    private final static JSONObject COLOR_INDEX_RGB_MAP = JSONUtil.parseObj(COLOR_JSON);
-
     /**
-     * 将 Excel 文件转换为 HTML 表格
+     * 将 Excel 文件转换为 png 图片
+     * <p> 所有图片都会保存在返回的 map 中，页面较多时使用 {@link #excelToPngWithColor(ExcelDrawImageRequest, PageImageSink)}
+     * 边绘制边写出 </p>
+     * <p> 所有页面都以完整图片的形式留在内存中，{@link ExcelDrawImageRequest#getStripHeight()} 在这里不能降低内存，
+     * 需要分块绘制时请使用写出 png 的 sink </p>
      *
      * @param request 画图请求体
-     * @return 返回 html 表格字符串，key 为 sheetIndex_sheetName，value 为 html 表格字符串
+     * @return key 为图片名称（时间戳_sheet名称_页码.png），value 为对应页面的图片
      * @throws IOException 可能会存在的 io 异常
      */
     public static Map<String, BufferedImage> excelToPngWithColor(ExcelDrawImageRequest request)
             throws IOException {
+        if (request.getStripHeight() > 0) {
+            log.warn("excelToPngWithColor::返回 map 时会保留所有页面的完整图片，stripHeight={} 不会降低内存，"
+                    + "请使用 DirectoryPageImageSink 或 ZipPageImageSink", request.getStripHeight());
+        }
+        CollectingPageImageSink sink = new CollectingPageImageSink();
+        excelToPngWithColor(request, sink);
+        return sink.getImages();
+    }
+
+    /**
+     * 将 Excel 文件转换为图片，每画完一页就按 sheet 和页码的顺序交给 sink，转换过程不会保留已经交出去的图片
+     *
+     * @param request 画图请求体
+     * @param sink 页面接收方，例如 {@link DirectoryPageImageSink}、{@link ZipPageImageSink}
+     * @throws IOException 可能会存在的 io 异常，包括 sink 写出图片时的异常
+     */
+    public static void excelToPngWithColor(ExcelDrawImageRequest request, PageImageSink sink)
+            throws IOException {
         InputStream fis = request.getExcelStream();
         FileTypeEnum fileTypeEnum = request.getFileTypeEnum();
+        if (request.isStreaming()) {
+            excelToPngWithColorStreaming(request, sink);
+            return;
+        }
         int defaultRowLength = request.getDefaultRowLength();
         int defaultColumnLength = request.getDefaultColumnLength();
         boolean needHeader = request.isNeedHeader();
-        List<Integer> headerRowIndexList = new ArrayList<>();
-        Map<String, BufferedImage> result = new HashMap<>();
-        try (Workbook wb = fileTypeEnum == FileTypeEnum.XLS ? new HSSFWorkbook(fis) : new XSSFWorkbook(fis)) {
+        AsyncHeaderDetector headerDetector = newHeaderDetector(request);
+        Supplier<List<Integer>> headerRows = SheetHeaderRows.NONE;
+        try (PageRenderer pageRenderer = new PageRenderer(request, sink);
+             Workbook wb = fileTypeEnum == FileTypeEnum.XLS ? new HSSFWorkbook(fis) : new XSSFWorkbook(fis)) {
             int numberOfSheets = wb.getNumberOfSheets();
-            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            ExcelEvaluationContext context = new ExcelEvaluationContext(wb, request.isUseCachedFormulaValue());
+            CellStyleColorCache colorCache = new CellStyleColorCache(wb);
+            Map<Integer, PendingHeader> batchPendings = needHeader && request.getBatchHeaderDetector() != null
+                    ? startBatchHeaderDetection(wb, context, request, headerDetector)
+                    : null;
             for (int i = 0; i < numberOfSheets; i++) {
                 Sheet sheet = wb.getSheetAt(i);
                 String sheetName = sheet.getSheetName();
                 log.info("excelToPng::解析表格Sheet-{} {}", i + 1, sheetName);
-                if (needHeader) {
-                    List<List<Object>> sheetData = ExcelUtils.getSheetData(sheet, evaluator);
-                    RowIndexInfoDTO rowIndexDesc = ExcelUtils.extractRowDesc(sheetData);
-                    if (Objects.nonNull(rowIndexDesc) && CollectionUtils.isNotEmpty(rowIndexDesc.getHeaderRowIndexList())) {
-                        headerRowIndexList = rowIndexDesc.getHeaderRowIndexList();
-                    }
+                if (batchPendings != null) {
+                    headerRows = new SheetHeaderRows(batchPendings.get(i), headerRows);
+                } else if (needHeader) {
+                    SheetSample sample = SheetSampleUtils.ofSheet(sheet, context, defaultRowLength);
+                    // 只有一页时表头不会重复出现，不需要识别；否则在后台识别，画到第二页时才需要结果
+                    PendingHeader pending = sample.isSinglePage() ? null : headerDetector.start(sample);
+                    headerRows = new SheetHeaderRows(pending, headerRows);
                 }
-                List<BufferedImage> images =
-                        convertOneSheetToOnePngTable(sheet, wb, defaultRowLength,
-                                defaultColumnLength, headerRowIndexList, needHeader);
-                IntStream.range(0, images.size()).forEach(index -> {
-                    String imageName =
-                            String.format("%s_%s_%s.png", System.currentTimeMillis(), sheet.getSheetName(), index);
-                    BufferedImage image = images.get(index);
-                    result.put(imageName, image);
-                });
+                // 单元格在当前线程读取完，页面的绘制可以在其他线程中继续，画完的页面按 sheet 和页码的顺序交给 sink
+                convertOneSheetToOnePngTable(sheet, i, context, colorCache, pageRenderer,
+                        defaultRowLength, defaultColumnLength, request.getImageDpi(), headerRows, needHeader);
             }
+            pageRenderer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return result;
     }
 
 
     /**
-     * 将 Excel 文件转换为 HTML 表格
+     * 将 Excel 文件转换为 png 图片
      *
      * @param fis excel 文件流
-     * @return 返回 html 表格字符串，key 为 sheetIndex_sheetName，value 为 html 表格字符串
+     * @return key 为图片名称（时间戳_sheet名称_页码.png），value 为对应页面的图片
      * @throws IOException 可能会存在的 io 异常
      */
     public static Map<String, BufferedImage> excelToPngWithColor(InputStream fis, FileTypeEnum fileTypeEnum)
             throws IOException {
-        Map<String, BufferedImage> result = new HashMap<>();
+        CollectingPageImageSink sink = new CollectingPageImageSink();
+        excelToPngWithColor(fis, fileTypeEnum, sink);
+        return sink.getImages();
+    }
+
+    /**
+     * 将 Excel 文件转换为图片，每画完一页就交给 sink
+     *
+     * @param fis excel 文件流
+     * @param sink 页面接收方
+     * @throws IOException 可能会存在的 io 异常，包括 sink 写出图片时的异常
+     */
+    public static void excelToPngWithColor(InputStream fis, FileTypeEnum fileTypeEnum, PageImageSink sink)
+            throws IOException {
         boolean needHeader = false;
-        try (Workbook wb = fileTypeEnum == FileTypeEnum.XLS ? new HSSFWorkbook(fis) : new XSSFWorkbook(fis)) {
+        try (PageRenderer pageRenderer = new PageRenderer(1, 0, sink);
+             Workbook wb = fileTypeEnum == FileTypeEnum.XLS ? new HSSFWorkbook(fis) : new XSSFWorkbook(fis)) {
             int numberOfSheets = wb.getNumberOfSheets();
+            ExcelEvaluationContext context = new ExcelEvaluationContext(wb);
+            CellStyleColorCache colorCache = new CellStyleColorCache(wb);
             for (int i = 0; i < numberOfSheets; i++) {
                 Sheet sheet = wb.getSheetAt(i);
                 String sheetName = sheet.getSheetName();
                 log.info("excelToPng::解析表格Sheet-{} {}", i + 1, sheetName);
-                List<BufferedImage> images = convertOneSheetToOnePngTable(sheet, wb, 100,
-                        10, new ArrayList<>(), needHeader);
-                IntStream.range(0, images.size()).forEach(index -> {
-                    String imageName =
-                            String.format("%s_%s_%s.png", System.currentTimeMillis(), sheet.getSheetName(), index);
-                    BufferedImage image = images.get(index);
-                    result.put(imageName, image);
-                });
+                convertOneSheetToOnePngTable(sheet, i, context, colorCache, pageRenderer,
+                        100, 10, 72, SheetHeaderRows.NONE, needHeader);
             }
+            pageRenderer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return result;
     }
 
-    private static List<BufferedImage> convertOneSheetToOnePngTable(Sheet sheet, Workbook wb,
-                                                                    int defaultRowLength,
-                                                                    int defaultColumnLength,
-                                                                    List<Integer> headerRowIndexList,
-                                                                    boolean needHeader) {
-        List<BufferedImage> tableImages = new ArrayList<>();
-        List<List<JExtendedCell>> tableRowContents = new ArrayList<>();
-        List<JTableMergeConfig> mergeConfigs = new ArrayList<>();
+    /**
+     * 流式读取 excel 并转换为图片，不构建 workbook，内存只与一页的数据量相关
+     *
+     * @param request 画图请求体
+     * @param sink 页面接收方
+     * @throws IOException 可能会存在的 io 异常
+     */
+    private static void excelToPngWithColorStreaming(ExcelDrawImageRequest request, PageImageSink sink)
+            throws IOException {
+        try (PageRenderer pageRenderer = new PageRenderer(request, sink)) {
+            ExcelStreamingReader.read(request.getExcelStream(), request.getFileTypeEnum(),
+                    new StreamingSheetImageHandler(request, pageRenderer));
+            pageRenderer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void convertOneSheetToOnePngTable(Sheet sheet,
+                                                     int sheetIndex,
+                                                     ExcelEvaluationContext context,
+                                                     CellStyleColorCache colorCache,
+                                                     PageRenderer pageRenderer,
+                                                     int defaultRowLength,
+                                                     int defaultColumnLength,
+                                                     int imageDpi,
+                                                     Supplier<List<Integer>> headerRows,
+                                                     boolean needHeader) {
+        SheetPageCollector collector = new SheetPageCollector(pageRenderer, sheetIndex, sheet.getSheetName(),
+                defaultRowLength, imageDpi, headerRows, needHeader);
+        MergedRegionIndex mergedRegionIndex = MergedRegionIndex.of(sheet);
         int lastRow = sheet.getLastRowNum();
-        AtomicInteger rowIndex = new AtomicInteger(0);
-        List<List<JExtendedCell>> headerRowContents = new ArrayList<>();
-        AtomicInteger pageNumber = new AtomicInteger(0);
         for (int r = 0; r <= lastRow; r++) {
             List<JExtendedCell> oneRowContent = new ArrayList<>();
             Row row = sheet.getRow(r);
             if (row == null) {
                 // 空行直接补
-                tableRowContents.add(oneRowContent);
-                rowIndex.incrementAndGet();
-                if (headerRowIndexList.contains(r)) {
-                    headerRowContents.add(oneRowContent);
-                }
+                collector.addRow(r, oneRowContent);
                 continue;
             }
             int lastCol = row.getLastCellNum();
             for (int c = 0; c < lastCol; c++) {
                 Cell cell = row.getCell(c);
                 // 获取单元格颜色
-                Color backgroundColor = getCellBackgroundColor(cell);
-                Color textColor = getCellTextColor(cell, wb);
+                Color backgroundColor = colorCache.getCellBackgroundColor(cell);
+                Color textColor = colorCache.getCellTextColor(cell);
+                CellRangeAddress merged = mergedRegionIndex.getMergedRegion(r, c);
                 /* 1. 如果当前格被合并但不是左上角，跳过 */
-                if (getMergedRegion(sheet, r, c) != null &&
-                        !isMergedTopLeft(sheet, r, c)) {
+                if (merged != null && (merged.getFirstRow() != r || merged.getFirstColumn() != c)) {
                     oneRowContent.add(new JExtendedCell("\n")
                             .setBackgroundColor(backgroundColor)
                             .setTextColor(textColor));
                     continue;
                 }
                 /* 2. 构造 <td> 属性 */
-                CellRangeAddress merged = getMergedRegion(sheet, r, c);
                 if (merged != null) {
-                    int rs = merged.getLastRow() - merged.getFirstRow() + 1;
-                    int cs = merged.getLastColumn() - merged.getFirstColumn() + 1;
-                    int mgFirstRow = merged.getFirstRow() % defaultRowLength;
-                    int mgLastRow = merged.getLastRow() % defaultRowLength;
-                    int mgFirstColumn = merged.getFirstColumn();
-                    int mgLastColumn = merged.getLastColumn();
-                    if (rs > 1) {
-                        JTableMergeConfig mergeConfig =
-                                new JTableMergeConfig(mgFirstRow + 1, mgLastRow + 1,
-                                        mgFirstColumn + 1, mgLastColumn + 1, false);
-                        mergeConfigs.add(mergeConfig);
-                    }
-                    if (cs > 1) {
-                        JTableMergeConfig mergeConfig =
-                                new JTableMergeConfig(mgFirstRow + 1, mgLastRow + 1,
-                                        mgFirstColumn + 1, mgLastColumn + 1, true);
-                        mergeConfigs.add(mergeConfig);
-                    }
+                    collector.addMergedRegion(merged);
                 }
                 /* 3. 单元格内容 */
-                String content = getCellText(cell, wb);
+                String content = context.getCellText(cell);
                 oneRowContent.add(new JExtendedCell(content)
                         .setBackgroundColor(backgroundColor)
                         .setTextColor(textColor));
             }
-            tableRowContents.add(oneRowContent);
-            if (headerRowIndexList.contains(r)) {
-                headerRowContents.add(oneRowContent);
-            }
-            int curRowIndex = rowIndex.incrementAndGet();
-            if (curRowIndex % defaultRowLength == 0) {
-                drawImageForCurPage(needHeader, tableImages, tableRowContents,
-                        mergeConfigs, headerRowContents, pageNumber);
-                tableRowContents = new ArrayList<>();
-                mergeConfigs = new ArrayList<>();
-                pageNumber.incrementAndGet();
-            }
-        }
-        if (CollectionUtils.isNotEmpty(tableRowContents)) {
-            drawImageForCurPage(needHeader, tableImages, tableRowContents,
-                    mergeConfigs, headerRowContents, pageNumber);
-            pageNumber.incrementAndGet();
+            collector.addRow(r, oneRowContent);
         }
-        return tableImages;
-    }
-
-    private static void drawImageForCurPage(boolean needHeader, List<BufferedImage> tableImages, List<List<JExtendedCell>> tableRowContents, List<JTableMergeConfig> mergeConfigs, List<List<JExtendedCell>> headerRowContents, AtomicInteger pageNumber) {
-        JTable tableGraph = new JTable()
-                .setCellFont(new Font("宋体", Font.PLAIN, 24))
-                .setHeaderFont(new Font("宋体", Font.BOLD, 24))
-                .setHeaderBackGroundColor(Color.gray)
-                .setMergeConfigs(mergeConfigs)
-                .setRowHeight(50);            // 计算表头信息
-        if (needHeader && pageNumber.get() != 0 && CollectionUtils.size(headerRowContents) > 0) {
-            // 将表头添加到 tableRowContents 中，并重新计算索引
-            tableRowContents.addAll(0, headerRowContents);
-        }
-        BufferedImage curTableImage = JDrawTableUtil.drawTableWithColor(tableGraph, tableRowContents);
-        tableImages.add(curTableImage);
-    }
-
-    /* 返回当前 (r,c) 所在的合并区域，找不到返回 null */
-    private static CellRangeAddress getMergedRegion(Sheet sheet, int r, int c) {
-        for (CellRangeAddress range : sheet.getMergedRegions()) {
-            if (range.isInRange(r, c)) {
-                return range;
-            }
-        }
-        return null;
-    }
-
-    /* 当前 (r,c) 是否是合并区域的左上角 */
-    private static boolean isMergedTopLeft(Sheet sheet, int r, int c) {
-        CellRangeAddress range = getMergedRegion(sheet, r, c);
-        return range != null && range.getFirstRow() == r && range.getFirstColumn() == c;
+        collector.finish();
     }
 
     /**
-     * 获取单元格背景色
+     * 读取所有 sheet 的第一页，超过一页的 sheet 一起在后台批量识别表头
+     *
+     * @return key 为 sheet 的下标，只有一页的 sheet 不在其中
      */
-    private static Color getCellBackgroundColor(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        CellStyle style = cell.getCellStyle();
-        if (style == null) {
-            return null;
-        }
-        if (style instanceof XSSFCellStyle) {
-            XSSFCellStyle newCellStyle = (XSSFCellStyle) style;
-            XSSFColor backGroundColor = newCellStyle.getFillForegroundColorColor(); // 关键方法
-            if (backGroundColor != null) {
-                byte[] rgb = backGroundColor.getRGB();
-                return new Color(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
-            }
-        }
-        if (style instanceof HSSFCellStyle) {
-            HSSFCellStyle newCellStyle = (HSSFCellStyle) style;
-            HSSFColor backGroundColor = newCellStyle.getFillForegroundColorColor(); // 关键方法
-            if (backGroundColor != null) {
-                short index = backGroundColor.getIndex();
-                short[] triplet = backGroundColor.getTriplet();
-                Color color = new Color(triplet[0], triplet[1], triplet[2]);
-                if (index == IndexedColors.AUTOMATIC.index) {
-                    color = Color.white;
-                }
-                return color;
+    private static Map<Integer, PendingHeader> startBatchHeaderDetection(Workbook wb, ExcelEvaluationContext context,
+                                                                         ExcelDrawImageRequest request,
+                                                                         AsyncHeaderDetector headerDetector) {
+        List<Integer> sheetIndexes = new ArrayList<>();
+        List<SheetSample> samples = new ArrayList<>();
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+            SheetSample sample = SheetSampleUtils.ofSheet(wb.getSheetAt(i), context, request.getDefaultRowLength());
+            if (!sample.isSinglePage()) {
+                sheetIndexes.add(i);
+                samples.add(sample);
             }
         }
-
-        short fillForegroundColor = style.getFillForegroundColor();
-        if (fillForegroundColor == IndexedColors.AUTOMATIC.getIndex()) {
-            return null; // 无背景色
-        }
-
-        // 获取填充颜色
-        return getColorFromIndexedColor(style.getFillForegroundColor());
-    }
-
-    /**
-     * 获取单元格字体颜色
-     */
-    private static Color getCellTextColor(Cell cell, Workbook wb) {
-        if (cell == null) {
-            return Color.BLACK;
-        }
-        CellStyle style = cell.getCellStyle();
-        if (style == null) {
-            return Color.BLACK;
+        Map<Integer, PendingHeader> pendings = new HashMap<>();
+        if (samples.isEmpty()) {
+            return pendings;
         }
-        if (style instanceof XSSFCellStyle) {
-            XSSFCellStyle newCellStyle = (XSSFCellStyle) style;
-            XSSFColor fontColor = newCellStyle.getFont().getXSSFColor(); // 关键方法
-            if (fontColor != null) {
-                byte[] rgb = fontColor.getRGB();
-                return new Color(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
-            }
-        }
-        if (style instanceof HSSFCellStyle) {
-            HSSFWorkbook newWb = (HSSFWorkbook) wb;
-            int fontIndex = style.getFontIndex();
-            HSSFFont fontAt = newWb.getFontAt(fontIndex);
-            short fontColorIndex = fontAt.getColor();
-            return getColorFromIndexedColor(fontColorIndex);
+        List<PendingHeader> started = headerDetector.start(request.getBatchHeaderDetector(), samples);
+        for (int i = 0; i < sheetIndexes.size(); i++) {
+            pendings.put(sheetIndexes.get(i), started.get(i));
         }
-        org.apache.poi.ss.usermodel.Font fontAt = cell.getSheet().getWorkbook().getFontAt(style.getFontIndex());
-        short colorIndex = fontAt.getColor();
-        return getColorFromIndexedColor(colorIndex);
+        return pendings;
     }
 
     /**
-     * 从索引颜色获取 Color 对象
+     * 按请求中的超时时间和超时后的识别方式创建后台表头识别
      */
-    private static Color getColorFromIndexedColor(short colorIndex) {
-        // 尝试从标准索引颜色获取
-        IndexedColors indexedColor = IndexedColors.fromInt(colorIndex);
-        if (indexedColor != null) {
-            IndexedColors indexedColors = IndexedColors.fromInt(colorIndex);
-            if (indexedColors == null) {
-                indexedColors = IndexedColors.BLACK;
-            }
-            String rgbString = convertRgbHex(indexedColors.index);
-            if (StringUtils.isBlank(rgbString)) {
-                return Color.BLACK;
-            }
-            return new Color(Integer.parseInt(rgbString.replace("#", ""), 16));
-        }
-        return Color.BLACK;
-    }
-
-    /* 统一提取文本，日期、数字、公式都能转字符串 */
-    private static String getCellText(Cell cell, Workbook workbook) {
-        FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
-        Object data = formatCellValue(cell, evaluator);
-        return data == null ? "" : String.valueOf(data);
-    }
-
-    private static Object formatCellValue(Cell cell, FormulaEvaluator evaluator) {
-        if (cell == null) {
-            return "";
-        }
-        DataFormatter formatter = new DataFormatter();
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return formatter.formatCellValue(cell, evaluator);
-                } else {
-                    return cell.getNumericCellValue();
-                }
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
-            case BLANK:
-                return "";
-            case FORMULA:
-                Object defaultCellValue = null;
-                try {
-                    defaultCellValue = cell.getNumericCellValue();
-                } catch (Exception ignored) {
-
-                }
-                if (Objects.isNull(defaultCellValue) && cell instanceof XSSFCell) {
-                    String rawValue = ((XSSFCell) cell).getRawValue();
-                    if (StringUtils.isNotBlank(rawValue)) {
-                        defaultCellValue = rawValue;
-                    }
-                }
-                try {
-                    CellValue cellValue = evaluator.evaluate(cell);
-                    switch (cellValue.getCellType()) {
-                        case STRING:
-                            return cellValue.getStringValue();
-                        case NUMERIC:
-                            if (DateUtil.isCellDateFormatted(cell)) {
-                                return formatter.formatCellValue(cell, evaluator);
-                            } else {
-                                return cell.getNumericCellValue();
-                            }
-                        case BOOLEAN:
-                            return cellValue.getBooleanValue();
-                        default:
-                            return "";
-                    }
-                } catch (Exception e) {
-                    if (defaultCellValue != null) {
-                        return defaultCellValue;
-                    }
-                    log.error("计算公式出现异常: formatCellValue::error{}", e.getMessage());
-                    throw e;
-                }
-            default:
-                return cell.toString();
-        }
+    static AsyncHeaderDetector newHeaderDetector(ExcelDrawImageRequest request) {
+        return new AsyncHeaderDetector(request.getHeaderDetector(), request.getHeaderFallbackDetector(),
+                request.getHeaderDetectTimeoutMillis());
     }
 
     public static String convertRgbHex(short idx) {
-        String key = String.valueOf(idx & 63);
-        if (!COLOR_INDEX_RGB_MAP.containsKey(key)) {
-            return "";
-        }
-        Object string = COLOR_INDEX_RGB_MAP.get(key);
-        return String.valueOf(string);
+        return ExcelColorUtils.convertRgbHex(idx);
     }
 }
-
@@ -0,0 +1,296 @@
+package com.zj.excel.to.image;
+
+import com.zj.excel.graph.JDrawTableUtil;
+import com.zj.excel.graph.TableStripPainter;
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.to.image.cache.PageFingerprint;
+import com.zj.excel.to.image.cache.PageManifest;
+import com.zj.excel.to.image.cache.PageRenderCache;
+import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import com.zj.excel.to.image.png.PixelRowSource;
+import com.zj.excel.to.image.png.PngEncoder;
+import com.zj.excel.to.image.sink.PageImageSink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 页面绘制器，负责把一页的表格数据绘制成图片，并按顺序交给 {@link PageImageSink}
+ * <p> 读取单元格必须在读取 workbook 的线程里完成（poi 不是线程安全的），一页的数据准备好之后，
+ * 布局、合并单元格和绘制都只依赖这一页的数据，可以交给固定大小的线程池并行处理。
+ * 线程数不大于 1 时直接在当前线程绘制，和原来的行为一致 </p>
+ * <p> 开启多线程后是一个生产者/消费者的流水线：读取线程每凑满一页就提交一页（行数据和合并配置），绘制线程并行绘制，
+ * 读取和绘制同时进行。已经提交但还没有交给 sink 的页面数量有上限，达到上限时读取线程会等待最早的一页画完并交出去，
+ * 避免读取太快导致大量页面数据和图片堆积在内存中 </p>
+ * <p> 页面总是在读取线程中按提交顺序交给 sink，sink 不需要考虑线程安全 </p>
+ * <p> 设置了条带高度时按条带分块绘制，每一页直接编码成 png 交给 {@link PageImageSink#acceptPng}，见 {@link TableStripPainter} </p>
+ * <p> 设置了页面缓存时，提交的页面先按指纹查找缓存，命中的页面不再绘制，直接把 png 交给 sink；
+ * 没有命中的页面在绘制线程中画完后编码放入缓存 </p>
+ * <p> 设置了页面清单时为增量转换，指纹和上一次相同的页面直接跳过，见 {@link PageManifest} </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+class PageRenderer implements Closeable {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(1);
+
+    private final ExecutorService executor;
+
+    private final PageImageSink sink;
+
+    /**
+     * 已经提交但还没有交给 sink 的页面数量上限
+     */
+    private final int maxInFlightPages;
+
+    /**
+     * 已经提交但还没有交给 sink 的页面，按提交顺序排列，只在读取线程中访问
+     */
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+
+    /**
+     * 分块绘制的条带高度，不大于 0 时整页绘制
+     */
+    private final int stripHeight;
+
+    private final PngEncoder pngEncoder;
+
+    /**
+     * 页面缓存，为 null 时不缓存
+     */
+    private final PageRenderCache renderCache;
+
+    /**
+     * 增量转换的页面清单，为 null 时所有页面都绘制
+     */
+    private final PageManifest pageManifest;
+
+    /**
+     * 按请求中的线程数、在途页面上限、分块和缓存设置创建
+     *
+     * @param request 转换请求
+     * @param sink 页面接收方
+     */
+    PageRenderer(ExcelDrawImageRequest request, PageImageSink sink) {
+        this(request.getRenderThreadCount(), request.getMaxInFlightPages(), request.getStripHeight(),
+                request.getPngEncoder(), request.getRenderCache(), request.getPageManifest(), sink);
+    }
+
+    /**
+     * @param renderThreadCount 绘制线程数
+     * @param maxInFlightPages 已经提交但还没有交给 sink 的页面数量上限，不大于 0 时为线程数的 2 倍
+     * @param sink 页面接收方
+     */
+    PageRenderer(int renderThreadCount, int maxInFlightPages, PageImageSink sink) {
+        this(renderThreadCount, maxInFlightPages, 0, null, null, null, sink);
+    }
+
+    /**
+     * @param renderThreadCount 绘制线程数
+     * @param maxInFlightPages 已经提交但还没有交给 sink 的页面数量上限，不大于 0 时为线程数的 2 倍
+     * @param stripHeight 分块绘制的条带高度，不大于 0 时整页绘制
+     * @param pngEncoder 分块绘制和写入缓存时的 png 编码配置，为 null 时使用默认配置
+     * @param renderCache 页面缓存，为 null 时不缓存
+     * @param pageManifest 增量转换的页面清单，为 null 时所有页面都绘制
+     * @param sink 页面接收方
+     */
+    PageRenderer(int renderThreadCount, int maxInFlightPages, int stripHeight, PngEncoder pngEncoder,
+                 PageRenderCache renderCache, PageManifest pageManifest, PageImageSink sink) {
+        this.executor = renderThreadCount > 1
+                ? Executors.newFixedThreadPool(renderThreadCount, runnable -> {
+                    Thread thread = new Thread(runnable, "excel-page-render-" + THREAD_NUMBER.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        this.maxInFlightPages = maxInFlightPages > 0 ? maxInFlightPages : Math.max(1, renderThreadCount) * 2;
+        this.sink = sink;
+        this.stripHeight = stripHeight;
+        this.pngEncoder = pngEncoder != null ? pngEncoder : new PngEncoder();
+        this.renderCache = renderCache;
+        this.pageManifest = pageManifest;
+    }
+
+    /**
+     * 提交一页的绘制任务，已经画完的页面会顺带交给 sink；在途页面达到上限时会阻塞到最早的一页画完并交出去
+     * <p> 会在读取 excel 的回调中调用，sink 的 io 异常包装为 {@link UncheckedIOException}，由转换方法还原 </p>
+     *
+     * @param sheetIndex sheet 的下标
+     * @param sheetName sheet 名称
+     * @param pageIndex 页码
+     * @param table 表格样式
+     * @param tableRowContents 当前页的所有行，提交之后不能再修改
+     */
+    void submit(int sheetIndex, String sheetName, int pageIndex,
+                JTable table, List<List<JExtendedCell>> tableRowContents) {
+        try {
+            String fingerprint = renderCache == null && pageManifest == null
+                    ? null
+                    : PageFingerprint.of(table, tableRowContents, pngEncoder);
+            if (pageManifest != null && !pageManifest.update(sheetName, pageIndex, fingerprint)) {
+                log.debug("PageRenderer::页面没有变化，跳过 {} {}", sheetName, pageIndex);
+                return;
+            }
+            byte[] cached = renderCache == null ? null : renderCache.get(fingerprint);
+            Future<RenderedPage> image;
+            if (cached != null) {
+                image = CompletableFuture.completedFuture(new RenderedPage(null, cached));
+            } else if (executor == null) {
+                image = CompletableFuture.completedFuture(render(table, tableRowContents, fingerprint));
+            } else {
+                image = executor.submit(() -> render(table, tableRowContents, fingerprint));
+            }
+            pendingPages.addLast(new PendingPage(sheetIndex, sheetName, pageIndex, image));
+            while (!pendingPages.isEmpty()
+                    && (pendingPages.size() >= maxInFlightPages || pendingPages.peekFirst().image.isDone())) {
+                deliverFirst();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 等待剩余的页面画完，按提交顺序交给 sink
+     *
+     * @throws IOException 绘制或者写出图片时的 io 异常
+     */
+    void finish() throws IOException {
+        while (!pendingPages.isEmpty()) {
+            deliverFirst();
+        }
+    }
+
+    /**
+     * @param fingerprint 页面指纹，开启缓存时把编码后的 png 放入缓存
+     */
+    private RenderedPage render(JTable table, List<List<JExtendedCell>> tableRowContents, String fingerprint)
+            throws IOException {
+        RenderedPage page;
+        if (stripHeight <= 0) {
+            page = new RenderedPage(JDrawTableUtil.drawTableWithColor(table, tableRowContents), null);
+        } else {
+            TableStripPainter painter = TableStripPainter.ofExtendedRows(table, tableRowContents);
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            pngEncoder.encode(painter.getWidth(), painter.getHeight(), false, new StripRowSource(painter), png);
+            page = new RenderedPage(null, png.toByteArray());
+        }
+        if (renderCache != null) {
+            renderCache.put(fingerprint, page.png != null ? page.png : pngEncoder.encode(page.image));
+        }
+        return page;
+    }
+
+    private void deliverFirst() throws IOException {
+        PendingPage page = pendingPages.pollFirst();
+        RenderedPage rendered = await(page.image);
+        if (rendered.png != null) {
+            sink.acceptPng(page.sheetIndex, page.sheetName, page.pageIndex, rendered.png);
+        } else {
+            sink.accept(page.sheetIndex, page.sheetName, page.pageIndex, rendered.image);
+        }
+    }
+
+    private static RenderedPage await(Future<RenderedPage> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待图片绘制时线程被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("绘制图片失败", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        pendingPages.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class PendingPage {
+
+        private final int sheetIndex;
+
+        private final String sheetName;
+
+        private final int pageIndex;
+
+        private final Future<RenderedPage> image;
+
+        private PendingPage(int sheetIndex, String sheetName, int pageIndex, Future<RenderedPage> image) {
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.pageIndex = pageIndex;
+            this.image = image;
+        }
+    }
+
+    /**
+     * 画完的一页，整页绘制时为图片，分块绘制时为 png
+     */
+    private static class RenderedPage {
+
+        private final BufferedImage image;
+
+        private final byte[] png;
+
+        private RenderedPage(BufferedImage image, byte[] png) {
+            this.image = image;
+            this.png = png;
+        }
+    }
+
+    /**
+     * 编码器按行读取像素，读到当前条带之外时绘制下一个条带，复用同一块内存
+     */
+    private class StripRowSource implements PixelRowSource {
+
+        private final TableStripPainter painter;
+
+        private BufferedImage strip;
+
+        private int stripTop;
+
+        private StripRowSource(TableStripPainter painter) {
+            this.painter = painter;
+        }
+
+        @Override
+        public void readRow(int y, int[] pixels) {
+            if (strip == null || y >= stripTop + strip.getHeight()) {
+                stripTop = y;
+                strip = painter.paintStrip(y, stripHeight, strip);
+            }
+            PngEncoder.readRow(strip, y - stripTop, pixels);
+        }
+    }
+}
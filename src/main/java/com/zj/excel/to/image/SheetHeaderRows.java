@@ -0,0 +1,52 @@
+package com.zj.excel.to.image;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.PendingHeader;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 一个 sheet 的表头行号，第一次使用时才等待后台的识别结果
+ * <p> 没有识别出表头时沿用上一个 sheet 的表头行号 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class SheetHeaderRows implements Supplier<List<Integer>> {
+
+    /**
+     * 第一个 sheet 之前没有表头
+     */
+    static final Supplier<List<Integer>> NONE = Collections::emptyList;
+
+    private final PendingHeader pending;
+
+    private final Supplier<List<Integer>> previous;
+
+    private List<Integer> headerRowIndexList;
+
+    /**
+     * @param pending 识别中的表头，为 null 时表示这个 sheet 没有识别表头
+     * @param previous 上一个 sheet 的表头行号
+     */
+    SheetHeaderRows(PendingHeader pending, Supplier<List<Integer>> previous) {
+        this.pending = pending;
+        this.previous = previous;
+    }
+
+    @Override
+    public List<Integer> get() {
+        if (headerRowIndexList == null) {
+            RowIndexInfoDTO rowIndexDesc = pending == null ? null : pending.await();
+            headerRowIndexList = Objects.nonNull(rowIndexDesc)
+                    && CollectionUtils.isNotEmpty(rowIndexDesc.getHeaderRowIndexList())
+                    ? rowIndexDesc.getHeaderRowIndexList()
+                    : previous.get();
+        }
+        return headerRowIndexList;
+    }
+}
@@ -0,0 +1,157 @@
+package com.zj.excel.to.image;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 按页收集一个 sheet 的行数据，每满 defaultRowLength 行绘制一张图片
+ * <p> dom 方式和流式读取方式共用这一套分页逻辑，每一页的数据准备好之后交给 {@link PageRenderer} 绘制，
+ * 绘制可能是异步的，页面之间不共享可变的数据。
+ * 表头只会出现在第一页中，需要表头时先保留第一页的行，画第二页时才取表头行号（可能在等待后台的识别结果） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class SheetPageCollector {
+
+    private final int defaultRowLength;
+
+    private final int imageDpi;
+
+    private final Supplier<List<Integer>> headerRowIndexSupplier;
+
+    private final boolean needHeader;
+
+    private final PageRenderer pageRenderer;
+
+    private final int sheetIndex;
+
+    private final String sheetName;
+
+    private List<Integer> firstPageRowIndexes = new ArrayList<>();
+
+    private List<List<JExtendedCell>> firstPageRowContents = new ArrayList<>();
+
+    private List<List<JExtendedCell>> headerRowContents;
+
+    private List<List<JExtendedCell>> tableRowContents = new ArrayList<>();
+
+    private List<JTableMergeConfig> mergeConfigs = new ArrayList<>();
+
+    private int rowIndex = 0;
+
+    private int pageNumber = 0;
+
+    SheetPageCollector(PageRenderer pageRenderer, int sheetIndex, String sheetName, int defaultRowLength,
+                       int imageDpi, Supplier<List<Integer>> headerRowIndexSupplier, boolean needHeader) {
+        this.pageRenderer = pageRenderer;
+        this.sheetIndex = sheetIndex;
+        this.sheetName = sheetName;
+        this.defaultRowLength = defaultRowLength;
+        this.imageDpi = imageDpi;
+        this.headerRowIndexSupplier = headerRowIndexSupplier;
+        this.needHeader = needHeader;
+    }
+
+    /**
+     * 添加当前行中合并区域左上角单元格对应的合并配置
+     *
+     * @param merged 合并区域
+     */
+    void addMergedRegion(CellRangeAddress merged) {
+        int rs = merged.getLastRow() - merged.getFirstRow() + 1;
+        int cs = merged.getLastColumn() - merged.getFirstColumn() + 1;
+        int mgFirstRow = merged.getFirstRow() % defaultRowLength;
+        int mgLastRow = merged.getLastRow() % defaultRowLength;
+        int mgFirstColumn = merged.getFirstColumn();
+        int mgLastColumn = merged.getLastColumn();
+        if (rs > 1) {
+            JTableMergeConfig mergeConfig =
+                    new JTableMergeConfig(mgFirstRow + 1, mgLastRow + 1,
+                            mgFirstColumn + 1, mgLastColumn + 1, false);
+            mergeConfigs.add(mergeConfig);
+        }
+        if (cs > 1) {
+            JTableMergeConfig mergeConfig =
+                    new JTableMergeConfig(mgFirstRow + 1, mgLastRow + 1,
+                            mgFirstColumn + 1, mgLastColumn + 1, true);
+            mergeConfigs.add(mergeConfig);
+        }
+    }
+
+    /**
+     * 添加一行数据，满一页时绘制当前页
+     *
+     * @param r 行号
+     * @param oneRowContent 当前行的单元格
+     */
+    void addRow(int r, List<JExtendedCell> oneRowContent) {
+        tableRowContents.add(oneRowContent);
+        if (needHeader && pageNumber == 0) {
+            firstPageRowIndexes.add(r);
+            firstPageRowContents.add(oneRowContent);
+        }
+        rowIndex++;
+        if (rowIndex % defaultRowLength == 0) {
+            drawImageForCurPage();
+            tableRowContents = new ArrayList<>();
+            mergeConfigs = new ArrayList<>();
+            pageNumber++;
+        }
+    }
+
+    /**
+     * 绘制剩余不足一页的数据
+     */
+    void finish() {
+        if (CollectionUtils.isNotEmpty(tableRowContents)) {
+            drawImageForCurPage();
+            pageNumber++;
+        }
+    }
+
+    private void drawImageForCurPage() {
+        JTable tableGraph = new JTable()
+                .setCellFont(new Font("宋体", Font.PLAIN, 24))
+                .setHeaderFont(new Font("宋体", Font.BOLD, 24))
+                .setHeaderBackGroundColor(Color.gray)
+                .setMergeConfigs(mergeConfigs)
+                .setImageDpi(imageDpi)
+                .setRowHeight(50);            // 计算表头信息
+        if (needHeader && pageNumber != 0) {
+            if (headerRowContents == null) {
+                headerRowContents = collectHeaderRows();
+            }
+            if (CollectionUtils.isNotEmpty(headerRowContents)) {
+                // 将表头添加到 tableRowContents 中，并重新计算索引
+                tableRowContents.addAll(0, headerRowContents);
+            }
+        }
+        pageRenderer.submit(sheetIndex, sheetName, pageNumber, tableGraph, tableRowContents);
+    }
+
+    /**
+     * 从第一页的行中取出表头行，之后不再保留第一页的数据
+     */
+    private List<List<JExtendedCell>> collectHeaderRows() {
+        List<Integer> headerRowIndexList = headerRowIndexSupplier.get();
+        List<List<JExtendedCell>> headerRows = new ArrayList<>();
+        for (int i = 0; i < firstPageRowIndexes.size(); i++) {
+            if (headerRowIndexList.contains(firstPageRowIndexes.get(i))) {
+                headerRows.add(firstPageRowContents.get(i));
+            }
+        }
+        firstPageRowIndexes = null;
+        firstPageRowContents = null;
+        return headerRows;
+    }
+}
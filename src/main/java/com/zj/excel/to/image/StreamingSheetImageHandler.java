@@ -0,0 +1,150 @@
+package com.zj.excel.to.image;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.header.AsyncHeaderDetector;
+import com.zj.excel.header.PendingHeader;
+import com.zj.excel.header.SheetSampleUtils;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.stream.ExcelRowHandler;
+import com.zj.excel.stream.ExcelStreamCell;
+import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import com.zj.excel.utils.MergedRegionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 流式读取时，将每一行数据直接交给分页逻辑绘制图片
+ * <p> 内存中只保留当前页的数据；需要表头时额外缓存第一页（多一行）的数据用于识别表头 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+class StreamingSheetImageHandler implements ExcelRowHandler {
+
+    private final int defaultRowLength;
+
+    private final int imageDpi;
+
+    private final boolean needHeader;
+
+    private final PageRenderer pageRenderer;
+
+    private final AsyncHeaderDetector headerDetector;
+
+    private Supplier<List<Integer>> headerRows = SheetHeaderRows.NONE;
+
+    private int sheetIndex;
+
+    private String sheetName;
+
+    private MergedRegionIndex mergedRegionIndex;
+
+    private SheetPageCollector collector;
+
+    private List<Integer> pendingRowIndexes;
+
+    private List<List<ExcelStreamCell>> pendingRows;
+
+    StreamingSheetImageHandler(ExcelDrawImageRequest request, PageRenderer pageRenderer) {
+        this.defaultRowLength = request.getDefaultRowLength();
+        this.imageDpi = request.getImageDpi();
+        this.needHeader = request.isNeedHeader();
+        this.pageRenderer = pageRenderer;
+        this.headerDetector = ExcelDrawUtil.newHeaderDetector(request);
+    }
+
+    @Override
+    public void startSheet(int sheetIndex, String sheetName, List<CellRangeAddress> mergedRegions) {
+        this.sheetIndex = sheetIndex;
+        this.sheetName = sheetName;
+        this.mergedRegionIndex = new MergedRegionIndex(mergedRegions);
+        if (needHeader) {
+            // 表头需要根据第一页的数据识别出来之后才能开始分页
+            collector = null;
+            pendingRowIndexes = new ArrayList<>();
+            pendingRows = new ArrayList<>();
+        } else {
+            collector = new SheetPageCollector(pageRenderer, sheetIndex, sheetName, defaultRowLength,
+                    imageDpi, headerRows, false);
+        }
+    }
+
+    @Override
+    public void handleRow(int rowIndex, List<ExcelStreamCell> cells) {
+        if (collector != null) {
+            appendRow(rowIndex, cells);
+            return;
+        }
+        pendingRowIndexes.add(rowIndex);
+        pendingRows.add(cells);
+        // 多缓存一行，才能知道 sheet 是否超过一页
+        if (pendingRows.size() > defaultRowLength) {
+            flushPendingRows(false);
+        }
+    }
+
+    @Override
+    public void endSheet() {
+        if (collector == null) {
+            // 整个 sheet 不超过一页
+            flushPendingRows(true);
+        }
+        collector.finish();
+        collector = null;
+    }
+
+    /**
+     * @param singlePage 整个 sheet 是否只有缓存的这些行，只有一页时不需要识别表头
+     */
+    private void flushPendingRows(boolean singlePage) {
+        PendingHeader pending = null;
+        if (!singlePage) {
+            // 在后台识别，第一页照常绘制，画到第二页时才需要结果
+            SheetSample sample = SheetSampleUtils.ofStreamRows(sheetName,
+                    pendingRowIndexes.subList(0, defaultRowLength), pendingRows.subList(0, defaultRowLength),
+                    mergedRegionIndex.getMergedRegions(), false);
+            pending = headerDetector.start(sample);
+        }
+        headerRows = new SheetHeaderRows(pending, headerRows);
+        collector = new SheetPageCollector(pageRenderer, sheetIndex, sheetName, defaultRowLength,
+                imageDpi, headerRows, true);
+        for (int i = 0; i < pendingRows.size(); i++) {
+            appendRow(pendingRowIndexes.get(i), pendingRows.get(i));
+        }
+        pendingRowIndexes = null;
+        pendingRows = null;
+    }
+
+    private void appendRow(int r, List<ExcelStreamCell> cells) {
+        List<JExtendedCell> oneRowContent = new ArrayList<>();
+        for (int c = 0; c < cells.size(); c++) {
+            ExcelStreamCell cell = cells.get(c);
+            Color backgroundColor = cell == null ? null : cell.getBackgroundColor();
+            Color textColor = cell == null ? Color.BLACK : cell.getTextColor();
+            CellRangeAddress merged = mergedRegionIndex.getMergedRegion(r, c);
+            /* 1. 如果当前格被合并但不是左上角，跳过 */
+            if (merged != null && (merged.getFirstRow() != r || merged.getFirstColumn() != c)) {
+                oneRowContent.add(new JExtendedCell("\n")
+                        .setBackgroundColor(backgroundColor)
+                        .setTextColor(textColor));
+                continue;
+            }
+            /* 2. 合并区域的左上角，记录合并配置 */
+            if (merged != null) {
+                collector.addMergedRegion(merged);
+            }
+            /* 3. 单元格内容 */
+            String content = cell == null ? "" : cell.getText();
+            oneRowContent.add(new JExtendedCell(content)
+                    .setBackgroundColor(backgroundColor)
+                    .setTextColor(textColor));
+        }
+        collector.addRow(r, oneRowContent);
+    }
+}
@@ -0,0 +1,137 @@
+package com.zj.excel.to.image.cache;
+
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import com.zj.excel.to.image.png.PngEncoder;
+import com.zj.excel.utils.HashUtils;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * 一页图片的内容指纹
+ * <p> 一页图片完全由这一页的表格数据和绘制参数决定：每个单元格的内容、背景色和文字颜色，
+ * 合并配置，以及 {@link JTable} 中的字体、行高、边距、dpi 和表头，再加上 png 的编码配置。
+ * 对这些数据计算 SHA-256，指纹相同的两页编码出的 png 完全相同，可以直接复用 </p>
+ * <p> 页面的行数和列数（分页大小）也包含在单元格数据中 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PageFingerprint {
+
+    /**
+     * 数据格式变化时修改版本号，让旧的指纹全部失效
+     */
+    private static final int VERSION = 1;
+
+    private final MessageDigest digest;
+
+    private PageFingerprint() {
+        this.digest = HashUtils.newSha256();
+    }
+
+    /**
+     * 计算一页的指纹
+     *
+     * @param table 表格样式和合并配置
+     * @param tableRowContents 当前页的所有行
+     * @param pngEncoder png 编码配置，为 null 时不参与计算
+     * @return 64 位十六进制字符串
+     */
+    public static String of(JTable table, List<List<JExtendedCell>> tableRowContents, PngEncoder pngEncoder) {
+        PageFingerprint fingerprint = new PageFingerprint();
+        fingerprint.writeInt(VERSION);
+        fingerprint.writeTable(table);
+        if (pngEncoder != null) {
+            fingerprint.writeInt(pngEncoder.getCompressionLevel());
+            fingerprint.writeString(pngEncoder.getFilterStrategy().name());
+        } else {
+            fingerprint.writeInt(-2);
+        }
+        fingerprint.writeInt(tableRowContents.size());
+        for (List<JExtendedCell> row : tableRowContents) {
+            fingerprint.writeInt(row.size());
+            for (JExtendedCell cell : row) {
+                fingerprint.writeString(cell.getContent());
+                fingerprint.writeColor(cell.getBackgroundColor());
+                fingerprint.writeColor(cell.getTextColor());
+            }
+        }
+        return HashUtils.toHex(fingerprint.digest.digest());
+    }
+
+    private void writeTable(JTable table) {
+        writeFont(table.getCellFont());
+        writeFont(table.getHeaderFont());
+        writeColor(table.getHeaderBackGroundColor());
+        writeInt(table.getRowHeight());
+        writeInt(table.getMarginX());
+        writeInt(table.getMarginY());
+        writeInt(table.getImageDpi());
+        List<JTableMergeConfig> mergeConfigs = table.getMergeConfigs();
+        writeInt(mergeConfigs == null ? -1 : mergeConfigs.size());
+        if (mergeConfigs != null) {
+            for (JTableMergeConfig config : mergeConfigs) {
+                writeInt(config.getStartRow());
+                writeInt(config.getEndRow());
+                writeInt(config.getStartCol());
+                writeInt(config.getEndCol());
+                writeInt(config.isHorizontal() ? 1 : 0);
+            }
+        }
+        List<JCell> headCells = table.getHeadCells();
+        writeInt(headCells == null ? -1 : headCells.size());
+        if (headCells != null) {
+            for (JCell cell : headCells) {
+                writeInt(cell.getRow());
+                writeInt(cell.getColumn());
+                writeInt(cell.getBelongColumn());
+                writeInt(cell.getWidth());
+                writeInt(cell.getHeight());
+                writeString(cell.getContent());
+                writeColor(cell.getBackgroundColor());
+                writeColor(cell.getTextColor());
+            }
+        }
+    }
+
+    private void writeFont(Font font) {
+        if (font == null) {
+            writeInt(-1);
+            return;
+        }
+        writeString(font.getName());
+        writeInt(font.getStyle());
+        writeInt(Float.floatToIntBits(font.getSize2D()));
+    }
+
+    private void writeColor(Color color) {
+        writeInt(color == null ? 0 : 1);
+        if (color != null) {
+            writeInt(color.getRGB());
+        }
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void writeInt(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+}
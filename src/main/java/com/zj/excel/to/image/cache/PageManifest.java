@@ -0,0 +1,148 @@
+package com.zj.excel.to.image.cache;
+
+import com.zj.excel.to.image.sink.PageImageSink;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 页面清单，记录一次转换中每一页的指纹，用于增量转换
+ * <p> 转换时传入上一次转换的清单，每一页计算指纹后和上一次的指纹比较，相同的页面不再绘制，也不会交给 sink，
+ * 只有新增或者内容有变化的页面会重新绘制并交出。调用方需要保留上一次输出的图片（例如输出到同一个目录），
+ * 并删除 {@link #getRemovedPages()} 中已经不存在的页面 </p>
+ * <p> 页面以默认的图片文件名称（{@link PageImageSink#fileName}）标识。转换结束后通过 {@link #save} 保存本次的清单，
+ * 作为下一次转换的输入 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PageManifest {
+
+    /**
+     * 上一次转换的指纹：图片文件名称 -> 指纹
+     */
+    private final Map<String, String> previous;
+
+    /**
+     * 本次转换的指纹，按页面顺序排列
+     */
+    private final Map<String, String> current = new LinkedHashMap<>();
+
+    private final List<String> changedPages = new ArrayList<>();
+
+    /**
+     * 没有上一次的清单，所有页面都会绘制
+     */
+    public PageManifest() {
+        this(new LinkedHashMap<>());
+    }
+
+    private PageManifest(Map<String, String> previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * 读取上一次保存的清单，文件不存在时返回空清单
+     *
+     * @param file 清单文件
+     * @return 清单
+     * @throws IOException 读取文件失败
+     */
+    public static PageManifest load(Path file) throws IOException {
+        Map<String, String> previous = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return new PageManifest(previous);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // 每行为：指纹 图片文件名称，文件名称中可能有空格，只按第一个空格拆分
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    previous.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        }
+        return new PageManifest(previous);
+    }
+
+    /**
+     * 保存本次转换的清单
+     *
+     * @param file 清单文件
+     * @throws IOException 写出文件失败
+     */
+    public void save(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : current.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write(' ');
+                writer.write(entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * 以本次转换的结果作为上一次的清单，用于在内存中连续进行增量转换
+     *
+     * @return 新的清单
+     */
+    public PageManifest nextRun() {
+        return new PageManifest(new LinkedHashMap<>(current));
+    }
+
+    /**
+     * 记录一页的指纹
+     *
+     * @param sheetName sheet 名称
+     * @param pageIndex 页码
+     * @param fingerprint 页面指纹，见 {@link PageFingerprint}
+     * @return 和上一次的指纹不同（包括新增的页面）时返回 true，需要重新绘制
+     */
+    public boolean update(String sheetName, int pageIndex, String fingerprint) {
+        String page = PageImageSink.fileName(sheetName, pageIndex);
+        current.put(page, fingerprint);
+        boolean changed = !fingerprint.equals(previous.get(page));
+        if (changed) {
+            changedPages.add(page);
+        }
+        return changed;
+    }
+
+    /**
+     * @return 本次转换中重新绘制的页面
+     */
+    public List<String> getChangedPages() {
+        return Collections.unmodifiableList(changedPages);
+    }
+
+    /**
+     * @return 上一次存在、本次转换中已经没有的页面
+     */
+    public List<String> getRemovedPages() {
+        List<String> removed = new ArrayList<>();
+        for (String page : previous.keySet()) {
+            if (!current.containsKey(page)) {
+                removed.add(page);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return 本次转换所有页面的指纹：图片文件名称 -> 指纹
+     */
+    public Map<String, String> getFingerprints() {
+        return Collections.unmodifiableMap(current);
+    }
+}
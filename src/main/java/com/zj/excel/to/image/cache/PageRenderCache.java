@@ -0,0 +1,168 @@
+package com.zj.excel.to.image.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按内容指纹缓存编码好的 png 页面，见 {@link PageFingerprint}
+ * <p> 内存中是按字节数限制大小的 LRU，超出上限时淘汰最久没有使用的页面；可选的磁盘目录作为第二级缓存，
+ * 每页一个 {@code 指纹.png} 文件，内存中没有时从磁盘读取并放回内存，进程重启后仍然可以命中 </p>
+ * <p> 同一个缓存对象可以在多次转换、多个线程之间共用。缓存读写失败只记录日志并按未命中处理，不会中断转换 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class PageRenderCache {
+
+    private final long maxMemoryBytes;
+
+    private final Path diskDirectory;
+
+    /**
+     * 指纹 -> png，按访问顺序排列，最前面的是最久没有使用的
+     */
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long memoryBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 只使用内存缓存
+     *
+     * @param maxMemoryBytes 内存中缓存的 png 总字节数上限
+     */
+    public PageRenderCache(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.diskDirectory = null;
+    }
+
+    /**
+     * 内存缓存加磁盘缓存
+     *
+     * @param maxMemoryBytes 内存中缓存的 png 总字节数上限
+     * @param diskDirectory 磁盘缓存目录，不存在时会自动创建
+     * @throws IOException 创建目录失败
+     */
+    public PageRenderCache(long maxMemoryBytes, Path diskDirectory) throws IOException {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.diskDirectory = Files.createDirectories(diskDirectory);
+    }
+
+    /**
+     * 查找缓存的页面
+     *
+     * @param fingerprint 页面指纹
+     * @return png 数据，没有缓存时返回 null
+     */
+    public byte[] get(String fingerprint) {
+        byte[] png;
+        synchronized (memory) {
+            png = memory.get(fingerprint);
+        }
+        if (png == null && diskDirectory != null) {
+            png = readDisk(fingerprint);
+            if (png != null) {
+                putMemory(fingerprint, png);
+            }
+        }
+        (png == null ? missCount : hitCount).incrementAndGet();
+        return png;
+    }
+
+    /**
+     * 缓存一页，开启磁盘缓存时同时写入磁盘
+     *
+     * @param fingerprint 页面指纹
+     * @param png png 数据，放入缓存后不能再修改
+     */
+    public void put(String fingerprint, byte[] png) {
+        putMemory(fingerprint, png);
+        if (diskDirectory != null) {
+            writeDisk(fingerprint, png);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return 内存中缓存的 png 总字节数
+     */
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    private void putMemory(String fingerprint, byte[] png) {
+        if (png.length > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            byte[] previous = memory.put(fingerprint, png);
+            memoryBytes += png.length - (previous == null ? 0 : previous.length);
+            Iterator<Map.Entry<String, byte[]>> iterator = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+                memoryBytes -= iterator.next().getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private byte[] readDisk(String fingerprint) {
+        try {
+            return Files.readAllBytes(diskFile(fingerprint));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("PageRenderCache::读取磁盘缓存失败 {}", fingerprint, e);
+            return null;
+        }
+    }
+
+    private void writeDisk(String fingerprint, byte[] png) {
+        Path file = diskFile(fingerprint);
+        if (Files.exists(file)) {
+            return;
+        }
+        try {
+            // 先写临时文件再改名，其他线程或进程不会读到写了一半的文件
+            Path temp = Files.createTempFile(diskDirectory, fingerprint, ".tmp");
+            try {
+                Files.write(temp, png);
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("PageRenderCache::写入磁盘缓存失败 {}", fingerprint, e);
+        }
+    }
+
+    private Path diskFile(String fingerprint) {
+        return diskDirectory.resolve(fingerprint + ".png");
+    }
+}
@@ -2,6 +2,13 @@ package com.zj.excel.to.image.dto;
 
 import com.zj.excel.FileTypeEnum;
 import com.zj.excel.ai.AiInvokeUtils;
+import com.zj.excel.header.AiBatchHeaderDetector;
+import com.zj.excel.header.BatchHeaderDetector;
+import com.zj.excel.header.HeaderDetector;
+import com.zj.excel.to.image.cache.PageManifest;
+import com.zj.excel.to.image.cache.PageRenderCache;
+import com.zj.excel.to.image.png.PngEncoder;
+import com.zj.excel.to.image.sink.PageImageSink;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -45,4 +52,94 @@ public class ExcelDrawImageRequest {
      * <p> 每张图片带上表头需要 ai 能力的支持。{@link AiInvokeUtils#setAiConfig } aiConfig 中，配置相关的 api url, apiKey 和 调用的 model 即可实现这个功能 </p>
      */
     private boolean needHeader = false;
+
+    /**
+     * 开启表头时使用的表头识别方式
+     * <p> 默认先用本地规则识别（冻结窗格、合并区域、粗体、背景色以及和下方数据的类型差异），无法确定时再调用 ai 识别 </p>
+     */
+    private HeaderDetector headerDetector = HeaderDetector.defaultDetector();
+
+    /**
+     * 批量识别表头，默认为 null，即每个 sheet 单独识别
+     * <p> 设置后（例如 {@link AiBatchHeaderDetector}）先读取所有 sheet 的第一页，把需要识别的 sheet 一次交给批量识别，
+     * 多个 sheet 只需要一次 ai 调用，此时不再使用 {@link #headerDetector}。
+     * 流式读取按顺序解析 sheet，无法提前拿到后面 sheet 的数据，不支持批量识别 </p>
+     */
+    private BatchHeaderDetector batchHeaderDetector;
+
+    /**
+     * 等待表头识别结果的最长时间（毫秒），不大于 0 时在读取线程中同步识别
+     * <p> 读取完 sheet 的第一页后在后台识别表头，第一页不需要表头，照常读取和绘制，画到第二页时才等待识别结果，
+     * ai 的耗时和第一页的读取、绘制重叠。超时后使用 {@link #headerFallbackDetector} </p>
+     */
+    private long headerDetectTimeoutMillis = 15_000;
+
+    /**
+     * 表头识别超时或者出错时使用的识别方式，默认为 null，即这个 sheet 不重复表头（仍然沿用上一个 sheet 的表头）
+     */
+    private HeaderDetector headerFallbackDetector;
+
+    /**
+     * 是否使用流式方式读取 excel
+     * <p> 开启后 xlsx 按行解析 sheet 的 xml，xls 按 record 流解析，不再构建完整的 workbook，内存占用只与一页的数据量相关。
+     * 公式单元格直接使用文件中缓存的计算结果 </p>
+     */
+    private boolean streaming = false;
+
+    /**
+     * 是否直接使用公式单元格中缓存的计算结果
+     * <p> excel 保存文件时会把公式的计算结果一起写入，开启后不再计算公式，只有没有缓存结果的单元格才会计算。
+     * 公式较多的报表可以达到和普通数据一样的速度，但是程序生成后没有重新计算过的文件，缓存结果可能是旧的。
+     * 流式读取本身就只使用缓存结果，不受这个选项影响 </p>
+     */
+    private boolean useCachedFormulaValue = false;
+
+    /**
+     * 绘制图片的线程数
+     * <p> 大于 1 时开启并行绘制：单元格仍然在读取 workbook 的线程中依次读取（poi 不是线程安全的），
+     * 每一页的布局、合并单元格和绘制交给固定大小的线程池，结果仍然按 sheet 和页码的顺序返回。默认为 1，即在当前线程中绘制 </p>
+     */
+    private int renderThreadCount = 1;
+
+    /**
+     * 并行绘制时，已经读取完、正在排队或者绘制中的页面数量上限
+     * <p> 读取线程和绘制线程组成流水线，达到上限时读取线程会等待，用来限制同时在内存中的页面数据。不大于 0 时为绘制线程数的 2 倍 </p>
+     */
+    private int maxInFlightPages = 0;
+
+    /**
+     * 图片的 dpi，默认 72。直接按目标 dpi 绘制，例如 144 时图片的宽高是 72 dpi 时的 2 倍
+     */
+    private int imageDpi = 72;
+
+    /**
+     * 分块绘制时每个横向条带的高度（按 dpi 缩放后的像素），不大于 0 时整页绘制
+     * <p> 大于 0 时每一页按条带从上到下依次绘制，画完一个条带就编码进 png，再复用这块内存画下一个条带，
+     * 整张图片不会出现在内存中，图片内存只与图片宽度 x 条带高度有关，适合行数很多或者 dpi 很高的超大页面。
+     * 页面以 png 的形式通过 {@link PageImageSink#acceptPng} 交出 </p>
+     * <p> 只有重写了 {@link PageImageSink#acceptPng} 直接写出 png 的 sink（例如 DirectoryPageImageSink、ZipPageImageSink）
+     * 才能限制内存；默认实现会把 png 重新解码成整张图片，返回 map 的
+     * {@link com.zj.excel.to.image.ExcelDrawUtil#excelToPngWithColor(ExcelDrawImageRequest)} 还会保留所有页面，
+     * 这时分块绘制只会多一次编解码 </p>
+     */
+    private int stripHeight = 0;
+
+    /**
+     * 分块绘制时使用的 png 编码配置
+     */
+    private PngEncoder pngEncoder = new PngEncoder();
+
+    /**
+     * 页面缓存，默认不缓存
+     * <p> 设置后每一页先按内容指纹查找缓存，命中时直接把缓存的 png 交给 {@link PageImageSink#acceptPng}，
+     * 不再计算布局和绘制；没有命中时正常绘制，并把编码后的 png 放入缓存。同一个缓存对象可以在多次转换之间共用 </p>
+     */
+    private PageRenderCache renderCache;
+
+    /**
+     * 增量转换使用的页面清单，默认不开启
+     * <p> 传入上一次转换的清单（{@link PageManifest#load}），指纹没有变化的页面不再绘制，也不会交给 sink，
+     * 本次所有页面的指纹会记录到同一个对象中，转换结束后保存即可作为下一次的输入，详见 {@link PageManifest} </p>
+     */
+    private PageManifest pageManifest;
 }
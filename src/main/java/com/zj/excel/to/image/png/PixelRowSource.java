@@ -0,0 +1,20 @@
+package com.zj.excel.to.image.png;
+
+/**
+ * 按行提供像素，编码时从第 0 行开始依次读取每一行，每行只读一次
+ * <p> 不需要整张图片都在内存中，例如分块绘制时每次只绘制当前行所在的一小块 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@FunctionalInterface
+public interface PixelRowSource {
+
+    /**
+     * 读取一行像素
+     *
+     * @param y 行号
+     * @param pixels 写入该行的像素，ARGB 格式，长度为图片宽度
+     */
+    void readRow(int y, int[] pixels);
+}
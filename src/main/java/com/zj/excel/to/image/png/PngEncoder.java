@@ -0,0 +1,390 @@
+package com.zj.excel.to.image.png;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * png 编码器，把图片直接编码写到输出流中，不经过 ImageIO 的插件查找和中间拷贝
+ * <p> 输出 8 位的 RGB（图片带透明通道时为 RGBA）png，压缩级别和过滤方式可以配置，用 CPU 换文件大小。
+ * TYPE_INT_RGB / TYPE_INT_ARGB 的图片直接读取像素数据，其他类型通过 {@link BufferedImage#getRGB} 转换 </p>
+ * <p> 配置好之后没有可变状态，可以在多个线程中共用 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final int COLOR_TYPE_RGB = 2;
+
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    /**
+     * 单个 IDAT 块的最大长度
+     */
+    private static final int IDAT_SIZE = 64 * 1024;
+
+    /**
+     * deflate 压缩级别，0 - 9，{@link Deflater#DEFAULT_COMPRESSION} 为 zlib 默认的 6
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 表格图片逐行重复的内容很多，UP 在默认压缩级别下和 ADAPTIVE 的大小相差很小，耗时不到一半
+     */
+    private PngFilterStrategy filterStrategy = PngFilterStrategy.UP;
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @param compressionLevel 0（不压缩，最快）- 9（最小），或者 {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public PngEncoder setCompressionLevel(int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < 0 || compressionLevel > 9)) {
+            throw new IllegalArgumentException("压缩级别只能是 0-9: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    public PngFilterStrategy getFilterStrategy() {
+        return filterStrategy;
+    }
+
+    public PngEncoder setFilterStrategy(PngFilterStrategy filterStrategy) {
+        if (filterStrategy == null) {
+            throw new IllegalArgumentException("过滤方式不能为空");
+        }
+        this.filterStrategy = filterStrategy;
+        return this;
+    }
+
+    /**
+     * 编码并写出图片，不会关闭输出流
+     *
+     * @param image 图片
+     * @param outputStream 输出流
+     * @return 写出的字节数
+     * @throws IOException 写出时的 io 异常
+     */
+    public long encode(BufferedImage image, OutputStream outputStream) throws IOException {
+        return encode(image.getWidth(), image.getHeight(), image.getColorModel().hasAlpha(),
+                (y, pixels) -> readRow(image, y, pixels), outputStream);
+    }
+
+    /**
+     * 按行读取像素并编码写出，不会关闭输出流
+     *
+     * @param width 图片宽度
+     * @param height 图片高度
+     * @param hasAlpha 是否保留透明通道
+     * @param source 像素来源，从第 0 行开始依次读取
+     * @param outputStream 输出流
+     * @return 写出的字节数
+     * @throws IOException 写出时的 io 异常
+     */
+    public long encode(int width, int height, boolean hasAlpha, PixelRowSource source, OutputStream outputStream)
+            throws IOException {
+        CountingOutputStream out = new CountingOutputStream(outputStream);
+        int bytesPerPixel = hasAlpha ? 4 : 3;
+
+        out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        writeInt(header, width);
+        writeInt(header, height);
+        header.write(8);
+        header.write(hasAlpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB);
+        // 压缩方式、过滤方式、不隔行扫描
+        header.write(0);
+        header.write(0);
+        header.write(0);
+        writeChunk(out, "IHDR", header.toByteArray(), header.size());
+
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            DeflaterOutputStream deflaterOutputStream =
+                    new DeflaterOutputStream(new IdatOutputStream(out), deflater, IDAT_SIZE);
+            int rowLength = width * bytesPerPixel;
+            int[] pixels = new int[width];
+            byte[] current = new byte[rowLength];
+            byte[] previous = new byte[rowLength];
+            RowFilter rowFilter = new RowFilter(filterStrategy, rowLength, bytesPerPixel);
+            for (int y = 0; y < height; y++) {
+                source.readRow(y, pixels);
+                toBytes(pixels, current, hasAlpha);
+                rowFilter.write(deflaterOutputStream, current, previous);
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            // 写出剩余的压缩数据和最后一个 IDAT 块，不会关闭 out
+            deflaterOutputStream.close();
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(out, "IEND", new byte[0], 0);
+        out.flush();
+        return out.count;
+    }
+
+    /**
+     * 编码并写出图片，不会关闭通道
+     *
+     * @param image 图片
+     * @param channel 输出通道
+     * @return 写出的字节数
+     * @throws IOException 写出时的 io 异常
+     */
+    public long encode(BufferedImage image, WritableByteChannel channel) throws IOException {
+        return encode(image, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * 编码为字节数组
+     */
+    public byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encode(image, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 读取图片的一行像素，TYPE_INT_RGB / TYPE_INT_ARGB 直接取打包好的像素，不经过 ColorModel 逐个转换
+     *
+     * @param image 图片
+     * @param y 行号
+     * @param pixels 写入该行的像素，长度为图片宽度
+     */
+    public static void readRow(BufferedImage image, int y, int[] pixels) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) {
+            image.getRaster().getDataElements(0, y, pixels.length, 1, pixels);
+        } else {
+            image.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+        }
+    }
+
+    private static void toBytes(int[] pixels, byte[] row, boolean hasAlpha) {
+        int i = 0;
+        for (int pixel : pixels) {
+            row[i++] = (byte) (pixel >> 16);
+            row[i++] = (byte) (pixel >> 8);
+            row[i++] = (byte) pixel;
+            if (hasAlpha) {
+                row[i++] = (byte) (pixel >>> 24);
+            }
+        }
+    }
+
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt(out, length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * 按过滤方式处理一行数据，ADAPTIVE 时对每一行分别选择
+     */
+    private static class RowFilter {
+
+        private final PngFilterStrategy strategy;
+
+        private final int bytesPerPixel;
+
+        /**
+         * 下标为过滤类型，第 0 个字节是过滤类型本身
+         */
+        private final byte[][] filtered = new byte[5][];
+
+        RowFilter(PngFilterStrategy strategy, int rowLength, int bytesPerPixel) {
+            this.strategy = strategy;
+            this.bytesPerPixel = bytesPerPixel;
+            for (int type = 0; type < filtered.length; type++) {
+                filtered[type] = new byte[rowLength + 1];
+                filtered[type][0] = (byte) type;
+            }
+        }
+
+        void write(OutputStream out, byte[] current, byte[] previous) throws IOException {
+            int type = strategy.getFilterType();
+            if (type >= 0) {
+                filter(type, current, previous);
+            } else {
+                long best = Long.MAX_VALUE;
+                for (int candidate = 0; candidate < filtered.length; candidate++) {
+                    long sum = filter(candidate, current, previous);
+                    if (sum < best) {
+                        best = sum;
+                        type = candidate;
+                    }
+                }
+            }
+            out.write(filtered[type]);
+        }
+
+        /**
+         * 每种过滤方式单独一个循环，避免在逐字节的循环里做分支
+         *
+         * @return 过滤后每个字节按有符号数取绝对值之和
+         */
+        private long filter(int type, byte[] current, byte[] previous) {
+            byte[] out = filtered[type];
+            int bpp = Math.min(bytesPerPixel, current.length);
+            int length = current.length;
+            long sum = 0;
+            switch (type) {
+                case 1:
+                    for (int i = 0; i < bpp; i++) {
+                        sum += put(out, i, current[i]);
+                    }
+                    for (int i = bpp; i < length; i++) {
+                        sum += put(out, i, current[i] - current[i - bpp]);
+                    }
+                    break;
+                case 2:
+                    for (int i = 0; i < length; i++) {
+                        sum += put(out, i, current[i] - previous[i]);
+                    }
+                    break;
+                case 3:
+                    for (int i = 0; i < bpp; i++) {
+                        sum += put(out, i, (current[i] & 0xFF) - ((previous[i] & 0xFF) >>> 1));
+                    }
+                    for (int i = bpp; i < length; i++) {
+                        sum += put(out, i, (current[i] & 0xFF)
+                                - (((current[i - bpp] & 0xFF) + (previous[i] & 0xFF)) >>> 1));
+                    }
+                    break;
+                case 4:
+                    for (int i = 0; i < bpp; i++) {
+                        // 左边和左上都是 0 时 paeth 的结果就是上方的值
+                        sum += put(out, i, current[i] - previous[i]);
+                    }
+                    for (int i = bpp; i < length; i++) {
+                        sum += put(out, i, (current[i] & 0xFF) - paeth(current[i - bpp] & 0xFF,
+                                previous[i] & 0xFF, previous[i - bpp] & 0xFF));
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < length; i++) {
+                        sum += put(out, i, current[i]);
+                    }
+                    break;
+            }
+            return sum;
+        }
+
+        private static int put(byte[] out, int i, int value) {
+            byte filteredByte = (byte) value;
+            out[i + 1] = filteredByte;
+            return filteredByte < 0 ? -filteredByte : filteredByte;
+        }
+
+        private static int paeth(int a, int b, int c) {
+            int p = a + b - c;
+            int pa = Math.abs(p - a);
+            int pb = Math.abs(p - b);
+            int pc = Math.abs(p - c);
+            if (pa <= pb && pa <= pc) {
+                return a;
+            }
+            return pb <= pc ? b : c;
+        }
+    }
+
+    /**
+     * 把压缩后的数据切分成 IDAT 块写出，关闭时只写出剩余数据，不关闭下层的输出流
+     */
+    private static class IdatOutputStream extends OutputStream {
+
+        private final OutputStream out;
+
+        private final byte[] buffer = new byte[IDAT_SIZE];
+
+        private int size;
+
+        IdatOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) {
+                writeIdat();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (size == buffer.length) {
+                    writeIdat();
+                }
+                int n = Math.min(len, buffer.length - size);
+                System.arraycopy(b, off, buffer, size, n);
+                size += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (size > 0) {
+                writeIdat();
+            }
+        }
+
+        private void writeIdat() throws IOException {
+            writeChunk(out, "IDAT", buffer, size);
+            size = 0;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.zj.excel.to.image.png;
+
+/**
+ * png 每一行在压缩前使用的过滤方式
+ * <p> 表格图片大部分是大块的纯色和水平的线条，UP 通常已经足够；ADAPTIVE 每一行都会尝试所有过滤方式，
+ * 压缩结果最小但耗时最多；NONE 最快，文件也最大 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public enum PngFilterStrategy {
+
+    NONE(0),
+
+    SUB(1),
+
+    UP(2),
+
+    AVERAGE(3),
+
+    PAETH(4),
+
+    /**
+     * 每一行分别选择差值绝对值之和最小的过滤方式
+     */
+    ADAPTIVE(-1),
+    ;
+
+    /**
+     * png 规范中的过滤类型，ADAPTIVE 为 -1
+     */
+    private final int filterType;
+
+    PngFilterStrategy(int filterType) {
+        this.filterType = filterType;
+    }
+
+    public int getFilterType() {
+        return filterType;
+    }
+}
@@ -0,0 +1,30 @@
+package com.zj.excel.to.image.sink;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 把所有页面收集到 map 中，和原来返回 map 的方式保持一致
+ * <p> 所有图片都会保存在内存中直到调用方处理完，页面较多时建议使用 {@link DirectoryPageImageSink} 或者 {@link ZipPageImageSink} </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CollectingPageImageSink implements PageImageSink {
+
+    private final Map<String, BufferedImage> images = new HashMap<>();
+
+    @Override
+    public void accept(int sheetIndex, String sheetName, int pageIndex, BufferedImage image) {
+        String imageName = String.format("%s_%s_%s.png", System.currentTimeMillis(), sheetName, pageIndex);
+        images.put(imageName, image);
+    }
+
+    /**
+     * @return key 为图片名称（时间戳_sheet名称_页码.png），value 为图片
+     */
+    public Map<String, BufferedImage> getImages() {
+        return images;
+    }
+}
@@ -0,0 +1,71 @@
+package com.zj.excel.to.image.sink;
+
+import com.zj.excel.to.image.png.PngEncoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 把每一页图片写到目录中，文件名称见 {@link PageImageSink#fileName}
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class DirectoryPageImageSink implements PageImageSink {
+
+    private final Path directory;
+
+    private final PngEncoder pngEncoder;
+
+    /**
+     * 已经写出的 png 字节数
+     */
+    private long encodedBytes;
+
+    /**
+     * @param directory 输出目录，不存在时会自动创建
+     * @throws IOException 创建目录失败
+     */
+    public DirectoryPageImageSink(Path directory) throws IOException {
+        this(directory, new PngEncoder());
+    }
+
+    /**
+     * @param directory 输出目录，不存在时会自动创建
+     * @param pngEncoder png 编码配置
+     * @throws IOException 创建目录失败
+     */
+    public DirectoryPageImageSink(Path directory, PngEncoder pngEncoder) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.pngEncoder = pngEncoder;
+    }
+
+    @Override
+    public void accept(int sheetIndex, String sheetName, int pageIndex, BufferedImage image) throws IOException {
+        Path file = directory.resolve(PageImageSink.fileName(sheetName, pageIndex));
+        long bytes;
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            bytes = pngEncoder.encode(image, outputStream);
+        }
+        encodedBytes += bytes;
+        log.debug("DirectoryPageImageSink::写出图片 {} {} bytes", file, bytes);
+    }
+
+    @Override
+    public void acceptPng(int sheetIndex, String sheetName, int pageIndex, byte[] png) throws IOException {
+        Path file = directory.resolve(PageImageSink.fileName(sheetName, pageIndex));
+        Files.write(file, png);
+        encodedBytes += png.length;
+        log.debug("DirectoryPageImageSink::写出图片 {} {} bytes", file, png.length);
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+}
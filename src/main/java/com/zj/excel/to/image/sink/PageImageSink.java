@@ -0,0 +1,56 @@
+package com.zj.excel.to.image.sink;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * 图片页面的接收方
+ * <p> 每绘制完一页就立即回调一次，回调结束后转换过程不再持有这张图片，可以被回收，
+ * 不需要等整个 excel 转换完再把所有图片一起返回 </p>
+ * <p> 回调按 sheet 顺序、页码顺序依次发生，并且都在调用转换方法的线程中执行，实现类不需要考虑线程安全 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@FunctionalInterface
+public interface PageImageSink {
+
+    /**
+     * 接收一页图片
+     *
+     * @param sheetIndex sheet 的下标
+     * @param sheetName sheet 名称
+     * @param pageIndex 页码，从 0 开始
+     * @param image 当前页的图片
+     * @throws IOException 写出图片时的 io 异常，会中断本次转换
+     */
+    void accept(int sheetIndex, String sheetName, int pageIndex, BufferedImage image) throws IOException;
+
+    /**
+     * 接收一页已经编码好的 png
+     * <p> 分块绘制时整张图片不会出现在内存中，页面直接以 png 的形式交出。
+     * 默认解码成图片后交给 {@link #accept}，写文件、写压缩包的实现可以直接写出字节，避免再解码、编码一次 </p>
+     *
+     * @param sheetIndex sheet 的下标
+     * @param sheetName sheet 名称
+     * @param pageIndex 页码，从 0 开始
+     * @param png 当前页的 png 数据
+     * @throws IOException 写出图片时的 io 异常，会中断本次转换
+     */
+    default void acceptPng(int sheetIndex, String sheetName, int pageIndex, byte[] png) throws IOException {
+        accept(sheetIndex, sheetName, pageIndex, ImageIO.read(new ByteArrayInputStream(png)));
+    }
+
+    /**
+     * 默认的图片文件名称
+     *
+     * @param sheetName sheet 名称
+     * @param pageIndex 页码
+     * @return sheetName_pageIndex.png
+     */
+    static String fileName(String sheetName, int pageIndex) {
+        return String.format("%s_%s.png", sheetName, pageIndex);
+    }
+}
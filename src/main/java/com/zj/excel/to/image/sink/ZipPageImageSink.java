@@ -0,0 +1,76 @@
+package com.zj.excel.to.image.sink;
+
+import com.zj.excel.to.image.png.PngEncoder;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 把每一页图片依次写成 zip 压缩包中的一个条目，边绘制边写出，适合直接写到 http 响应等输出流中
+ * <p> png 本身已经压缩过，条目不再压缩（STORED），避免重复压缩浪费 CPU。全部写完后需要调用 {@link #close()} 写出 zip 的目录信息 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ZipPageImageSink implements PageImageSink, Closeable {
+
+    private final ZipOutputStream zipOutputStream;
+
+    private final PngEncoder pngEncoder;
+
+    /**
+     * 已经写出的 png 字节数，不包含 zip 自身的条目信息
+     */
+    private long encodedBytes;
+
+    /**
+     * @param outputStream zip 的输出流，关闭当前对象时会一起关闭
+     */
+    public ZipPageImageSink(OutputStream outputStream) {
+        this(outputStream, new PngEncoder());
+    }
+
+    /**
+     * @param outputStream zip 的输出流，关闭当前对象时会一起关闭
+     * @param pngEncoder png 编码配置
+     */
+    public ZipPageImageSink(OutputStream outputStream, PngEncoder pngEncoder) {
+        this.zipOutputStream = new ZipOutputStream(outputStream);
+        this.pngEncoder = pngEncoder;
+    }
+
+    @Override
+    public void accept(int sheetIndex, String sheetName, int pageIndex, BufferedImage image) throws IOException {
+        // STORED 条目需要提前知道大小和 crc，只缓存当前这一页编码后的数据
+        acceptPng(sheetIndex, sheetName, pageIndex, pngEncoder.encode(image));
+    }
+
+    @Override
+    public void acceptPng(int sheetIndex, String sheetName, int pageIndex, byte[] png) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(png);
+        ZipEntry entry = new ZipEntry(PageImageSink.fileName(sheetName, pageIndex));
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(png.length);
+        entry.setCompressedSize(png.length);
+        entry.setCrc(crc.getValue());
+        zipOutputStream.putNextEntry(entry);
+        zipOutputStream.write(png);
+        zipOutputStream.closeEntry();
+        encodedBytes += png.length;
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipOutputStream.close();
+    }
+}
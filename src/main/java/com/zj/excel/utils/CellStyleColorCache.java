@@ -0,0 +1,180 @@
+package com.zj.excel.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个 workbook 内样式颜色的解析缓存
+ * <p> 一个 workbook 的样式通常只有几十个，却会被成千上万的单元格共用。这里按样式下标缓存解析好的背景色和字体颜色，
+ * rgb 打包成 int 保存，对应的 {@link Color} 在缓存内复用，同一个样式只解析一次，之后每个单元格只需要一次数组查找 </p>
+ * <p> xls 的颜色依赖 workbook 的自定义调色板，缓存的 key 实际是 (调色板, 样式下标)，调色板变化时通过 {@link #usePalette} 清空。
+ * 一个 workbook 的一次转换使用一个实例，不是线程安全的 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CellStyleColorCache {
+
+    /**
+     * 没有背景色时的占位值，解析出来的颜色 alpha 都是 0xFF，不会和它冲突
+     */
+    private static final int NO_COLOR = 0;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Workbook workbook;
+
+    /**
+     * 当前缓存对应的调色板，只比较引用
+     */
+    private Object palette;
+
+    private boolean[] resolved = new boolean[INITIAL_CAPACITY];
+
+    private int[] backgroundRgbs = new int[INITIAL_CAPACITY];
+
+    private int[] textRgbs = new int[INITIAL_CAPACITY];
+
+    private Color[] backgroundColors = new Color[INITIAL_CAPACITY];
+
+    private Color[] textColors = new Color[INITIAL_CAPACITY];
+
+    /**
+     * 相同 rgb 的颜色只保留一个对象，只在解析新样式时使用
+     */
+    private final Map<Integer, Color> internedColors = new HashMap<>();
+
+    /**
+     * 流式读取时没有 workbook，由调用方解析后通过 {@link #put} 放入缓存
+     */
+    public CellStyleColorCache() {
+        this(null);
+    }
+
+    public CellStyleColorCache(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * 获取单元格背景色，规则和 {@link ExcelColorUtils#getCellBackgroundColor} 一致
+     */
+    public Color getCellBackgroundColor(Cell cell) {
+        if (cell == null || cell.getCellStyle() == null) {
+            return null;
+        }
+        return backgroundColors[resolve(cell)];
+    }
+
+    /**
+     * 获取单元格字体颜色，规则和 {@link ExcelColorUtils#getCellTextColor} 一致
+     */
+    public Color getCellTextColor(Cell cell) {
+        if (cell == null || cell.getCellStyle() == null) {
+            return Color.BLACK;
+        }
+        return textColors[resolve(cell)];
+    }
+
+    /**
+     * 切换调色板，和当前调色板不是同一个对象时清空已解析的样式
+     *
+     * @param palette xls 的调色板
+     */
+    public void usePalette(Object palette) {
+        if (this.palette == palette) {
+            return;
+        }
+        this.palette = palette;
+        Arrays.fill(resolved, false);
+    }
+
+    /**
+     * 该样式下标是否已经解析过
+     */
+    public boolean isResolved(int styleIndex) {
+        return styleIndex >= 0 && styleIndex < resolved.length && resolved[styleIndex];
+    }
+
+    /**
+     * 放入解析好的样式颜色
+     *
+     * @param styleIndex 样式下标
+     * @param backgroundColor 背景色，可以为 null
+     * @param textColor 字体颜色
+     */
+    public void put(int styleIndex, Color backgroundColor, Color textColor) {
+        ensureCapacity(styleIndex);
+        backgroundRgbs[styleIndex] = pack(backgroundColor);
+        textRgbs[styleIndex] = pack(textColor);
+        backgroundColors[styleIndex] = intern(backgroundRgbs[styleIndex]);
+        textColors[styleIndex] = intern(textRgbs[styleIndex]);
+        resolved[styleIndex] = true;
+    }
+
+    /**
+     * 获取样式的背景色，没有解析过的样式返回 null
+     */
+    public Color getBackgroundColor(int styleIndex) {
+        return isResolved(styleIndex) ? backgroundColors[styleIndex] : null;
+    }
+
+    /**
+     * 获取样式的字体颜色，没有解析过的样式返回黑色
+     */
+    public Color getTextColor(int styleIndex) {
+        return isResolved(styleIndex) ? textColors[styleIndex] : Color.BLACK;
+    }
+
+    /**
+     * 获取样式背景色打包后的 rgb，没有背景色或者没有解析过返回 0
+     */
+    public int getBackgroundRgb(int styleIndex) {
+        return isResolved(styleIndex) ? backgroundRgbs[styleIndex] : NO_COLOR;
+    }
+
+    /**
+     * 获取样式字体颜色打包后的 rgb，没有解析过返回黑色
+     */
+    public int getTextRgb(int styleIndex) {
+        return isResolved(styleIndex) ? textRgbs[styleIndex] : Color.BLACK.getRGB();
+    }
+
+    private int resolve(Cell cell) {
+        CellStyle style = cell.getCellStyle();
+        int styleIndex = style.getIndex() & 0xFFFF;
+        if (!isResolved(styleIndex)) {
+            Workbook wb = workbook == null ? cell.getSheet().getWorkbook() : workbook;
+            put(styleIndex, ExcelColorUtils.getStyleBackgroundColor(style), ExcelColorUtils.getCellTextColor(cell, wb));
+        }
+        return styleIndex;
+    }
+
+    private void ensureCapacity(int styleIndex) {
+        if (styleIndex < resolved.length) {
+            return;
+        }
+        int newLength = Math.max(styleIndex + 1, resolved.length * 2);
+        resolved = Arrays.copyOf(resolved, newLength);
+        backgroundRgbs = Arrays.copyOf(backgroundRgbs, newLength);
+        textRgbs = Arrays.copyOf(textRgbs, newLength);
+        backgroundColors = Arrays.copyOf(backgroundColors, newLength);
+        textColors = Arrays.copyOf(textColors, newLength);
+    }
+
+    private Color intern(int rgb) {
+        if (rgb == NO_COLOR) {
+            return null;
+        }
+        return internedColors.computeIfAbsent(rgb, Color::new);
+    }
+
+    private static int pack(Color color) {
+        return color == null ? NO_COLOR : color.getRGB() | 0xFF000000;
+    }
+}
@@ -0,0 +1,194 @@
+package com.zj.excel.utils;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.hssf.record.PaletteRecord;
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFFont;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * 单元格颜色解析工具
+ * <p> 从 ExcelDrawUtil 中抽取出来，供 dom 方式和流式读取方式共用 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ExcelColorUtils {
+
+    private final static String COLOR_JSON =
+            "{\"0\":\"#000000\",\"1\":\"#FFFFFF\",\"2\":\"#FF0000\",\"3\":\"#00FF00\",\"4\":\"#0000FF\","
+                    + "\"5\":\"#FFFF00\",\"6\":\"#FF00FF\",\"7\":\"#00FFFF\",\"8\":\"#000000\",\"9\":\"#FFFFFF\","
+                    + "\"10\":\"#FF0000\",\"11\":\"#00FF00\",\"12\":\"#0000FF\",\"13\":\"#FFFF00\","
+                    + "\"14\":\"#FF00FF\",\"15\":\"#00FFFF\",\"16\":\"#800000\",\"17\":\"#008000\","
+                    + "\"18\":\"#000080\",\"19\":\"#808000\",\"20\":\"#800080\",\"21\":\"#008080\","
+                    + "\"22\":\"#C0C0C0\",\"23\":\"#808080\",\"24\":\"#9999FF\",\"25\":\"#993366\","
+                    + "\"26\":\"#FFFFCC\",\"27\":\"#CCFFFF\",\"28\":\"#660066\",\"29\":\"#FF8080\","
+                    + "\"30\":\"#0066CC\",\"31\":\"#CCCCFF\",\"40\":\"#00CCFF\",\"41\":\"#CCFFFF\","
+                    + "\"42\":\"#CCFFCC\",\"43\":\"#FFFF99\",\"44\":\"#99CCFF\",\"45\":\"#FF99CC\","
+                    + "\"46\":\"#CC99FF\",\"47\":\"#FFCC99\",\"48\":\"#3366FF\",\"49\":\"#33CCCC\","
+                    + "\"50\":\"#99CC00\",\"51\":\"#FFCC00\",\"52\":\"#FF9900\",\"53\":\"#FF6600\","
+                    + "\"54\":\"#666699\",\"55\":\"#969696\",\"56\":\"#003366\",\"57\":\"#339966\","
+                    + "\"58\":\"#003300\",\"59\":\"#333300\",\"60\":\"#993300\",\"61\":\"#993366\","
+                    + "\"62\":\"#333399\",\"63\":\"#333333\",\"64\":\"#FFFFFF\"}";
+
+    private final static JSONObject COLOR_INDEX_RGB_MAP = JSONUtil.parseObj(COLOR_JSON);
+
+    /**
+     * 标准索引颜色对应的 Color，下标为颜色索引，类加载时根据 {@link #COLOR_JSON} 预先算好，避免每个单元格都查 json 再解析十六进制
+     */
+    private final static Color[] INDEXED_COLORS = buildIndexedColors();
+
+    /**
+     * 获取单元格背景色
+     */
+    public static Color getCellBackgroundColor(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        return getStyleBackgroundColor(cell.getCellStyle());
+    }
+
+    /**
+     * 获取样式的背景色
+     */
+    public static Color getStyleBackgroundColor(CellStyle style) {
+        if (style == null) {
+            return null;
+        }
+        if (style instanceof XSSFCellStyle) {
+            XSSFCellStyle newCellStyle = (XSSFCellStyle) style;
+            XSSFColor backGroundColor = newCellStyle.getFillForegroundColorColor(); // 关键方法
+            if (backGroundColor != null) {
+                byte[] rgb = backGroundColor.getRGB();
+                return new Color(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
+            }
+        }
+        if (style instanceof HSSFCellStyle) {
+            HSSFCellStyle newCellStyle = (HSSFCellStyle) style;
+            HSSFColor backGroundColor = newCellStyle.getFillForegroundColorColor(); // 关键方法
+            if (backGroundColor != null) {
+                short index = backGroundColor.getIndex();
+                short[] triplet = backGroundColor.getTriplet();
+                Color color = new Color(triplet[0], triplet[1], triplet[2]);
+                if (index == IndexedColors.AUTOMATIC.index) {
+                    color = Color.white;
+                }
+                return color;
+            }
+        }
+
+        short fillForegroundColor = style.getFillForegroundColor();
+        if (fillForegroundColor == IndexedColors.AUTOMATIC.getIndex()) {
+            return null; // 无背景色
+        }
+
+        // 获取填充颜色
+        return getColorFromIndexedColor(style.getFillForegroundColor());
+    }
+
+    /**
+     * 获取单元格字体颜色
+     */
+    public static Color getCellTextColor(Cell cell, Workbook wb) {
+        if (cell == null) {
+            return Color.BLACK;
+        }
+        CellStyle style = cell.getCellStyle();
+        if (style == null) {
+            return Color.BLACK;
+        }
+        if (style instanceof XSSFCellStyle) {
+            return getXssfStyleTextColor((XSSFCellStyle) style);
+        }
+        if (style instanceof HSSFCellStyle) {
+            HSSFWorkbook newWb = (HSSFWorkbook) wb;
+            int fontIndex = style.getFontIndex();
+            HSSFFont fontAt = newWb.getFontAt(fontIndex);
+            short fontColorIndex = fontAt.getColor();
+            return getColorFromIndexedColor(fontColorIndex);
+        }
+        org.apache.poi.ss.usermodel.Font fontAt = cell.getSheet().getWorkbook().getFontAt(style.getFontIndex());
+        short colorIndex = fontAt.getColor();
+        return getColorFromIndexedColor(colorIndex);
+    }
+
+    /**
+     * 获取 xlsx 样式的字体颜色，流式读取时没有 {@link Cell} 对象，直接根据样式获取
+     */
+    public static Color getXssfStyleTextColor(XSSFCellStyle style) {
+        if (style == null) {
+            return Color.BLACK;
+        }
+        XSSFColor fontColor = style.getFont().getXSSFColor(); // 关键方法
+        if (fontColor != null) {
+            byte[] rgb = fontColor.getRGB();
+            return new Color(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
+        }
+        return getColorFromIndexedColor(style.getFont().getColor());
+    }
+
+    /**
+     * 根据 xls 的调色板获取背景色，流式读取 xls 时没有 HSSFCellStyle，规则和 {@link #getStyleBackgroundColor} 一致
+     *
+     * @param palette 调色板，文件中没有自定义调色板时为默认调色板
+     * @param fillForegroundColor 填充色的索引
+     */
+    public static Color getHssfBackgroundColor(PaletteRecord palette, short fillForegroundColor) {
+        if (fillForegroundColor == IndexedColors.AUTOMATIC.getIndex()) {
+            return Color.white;
+        }
+        byte[] rgb = palette.getColor(fillForegroundColor);
+        if (rgb != null) {
+            return new Color(rgb[0] & 0xFF, rgb[1] & 0xFF, rgb[2] & 0xFF);
+        }
+        return getColorFromIndexedColor(fillForegroundColor);
+    }
+
+    /**
+     * 从索引颜色获取 Color 对象
+     * <p> xls 中字体的默认颜色为 0x7FFF（系统文字颜色），不在标准索引颜色中，和其他未知的索引一样按黑色处理 </p>
+     */
+    public static Color getColorFromIndexedColor(short colorIndex) {
+        if (colorIndex < 0 || colorIndex >= INDEXED_COLORS.length) {
+            return Color.BLACK;
+        }
+        return INDEXED_COLORS[colorIndex];
+    }
+
+    private static Color[] buildIndexedColors() {
+        int maxIndex = 0;
+        for (IndexedColors indexedColor : IndexedColors.values()) {
+            maxIndex = Math.max(maxIndex, indexedColor.getIndex());
+        }
+        Color[] colors = new Color[maxIndex + 1];
+        Arrays.fill(colors, Color.BLACK);
+        for (IndexedColors indexedColor : IndexedColors.values()) {
+            String rgbString = convertRgbHex(indexedColor.getIndex());
+            if (StringUtils.isNotBlank(rgbString)) {
+                colors[indexedColor.getIndex()] = new Color(Integer.parseInt(rgbString.replace("#", ""), 16));
+            }
+        }
+        return colors;
+    }
+
+    public static String convertRgbHex(short idx) {
+        String key = String.valueOf(idx & 63);
+        if (!COLOR_INDEX_RGB_MAP.containsKey(key)) {
+            return "";
+        }
+        Object string = COLOR_INDEX_RGB_MAP.get(key);
+        return String.valueOf(string);
+    }
+}
@@ -0,0 +1,197 @@
+package com.zj.excel.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 一次转换过程中单元格取值的上下文
+ * <p> 每个 workbook 只创建一个 {@link FormulaEvaluator} 和一个 {@link DataFormatter}，这样 poi 自身的公式计算缓存可以在整个转换过程中复用，
+ * 公式单元格格式化后的结果也会缓存起来，同一个单元格被多次读取（例如先识别表头再画图）时只计算一次 </p>
+ * <p> 开启 useCachedFormulaValue 后公式单元格直接使用文件中缓存的计算结果，只有没有缓存值时才会计算公式 </p>
+ * <p> 与 workbook 绑定，不是线程安全的 </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+@Slf4j
+public class ExcelEvaluationContext {
+
+    private final FormulaEvaluator evaluator;
+
+    /**
+     * 是否直接使用公式的缓存结果
+     */
+    private final boolean useCachedFormulaValue;
+
+    /**
+     * workbook 是否使用 1904 日期系统，使用缓存结果格式化日期时才需要，第一次用到时获取
+     */
+    private Boolean date1904;
+
+    private final DataFormatter formatter = new DataFormatter();
+
+    /**
+     * 公式单元格格式化后的结果，dom 方式下单元格对象在 workbook 关闭前一直存在，直接按对象引用缓存
+     */
+    private final Map<Cell, Object> formulaValues = new IdentityHashMap<>();
+
+    public ExcelEvaluationContext(Workbook workbook) {
+        this(workbook, false);
+    }
+
+    public ExcelEvaluationContext(Workbook workbook, boolean useCachedFormulaValue) {
+        this(workbook.getCreationHelper().createFormulaEvaluator(), useCachedFormulaValue);
+    }
+
+    public ExcelEvaluationContext(FormulaEvaluator evaluator) {
+        this(evaluator, false);
+    }
+
+    public ExcelEvaluationContext(FormulaEvaluator evaluator, boolean useCachedFormulaValue) {
+        this.evaluator = evaluator;
+        this.useCachedFormulaValue = useCachedFormulaValue;
+    }
+
+    public FormulaEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /* 统一提取文本，日期、数字、公式都能转字符串 */
+    public String getCellText(Cell cell) {
+        Object data = formatCellValue(cell);
+        return data == null ? "" : String.valueOf(data);
+    }
+
+    /**
+     * 获取单元格的值
+     *
+     * @param cell 单元格，为 null 时返回空字符串
+     * @return String / Double / Boolean
+     */
+    public Object formatCellValue(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return formatter.formatCellValue(cell, evaluator);
+                } else {
+                    return cell.getNumericCellValue();
+                }
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            case BLANK:
+                return "";
+            case FORMULA:
+                Object cachedValue = formulaValues.get(cell);
+                if (cachedValue == null) {
+                    cachedValue = useCachedFormulaValue && hasCachedFormulaValue(cell)
+                            ? getCachedFormulaValue(cell)
+                            : evaluateFormula(cell);
+                    formulaValues.put(cell, cachedValue);
+                }
+                return cachedValue;
+            default:
+                return cell.toString();
+        }
+    }
+
+    /**
+     * 直接读取公式的缓存结果，和计算公式得到的结果格式一致
+     */
+    private Object getCachedFormulaValue(Cell cell) {
+        switch (cell.getCachedFormulaResultType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    CellStyle style = cell.getCellStyle();
+                    return formatter.formatRawCellContents(value, style.getDataFormat(),
+                            style.getDataFormatString(), isDate1904(cell));
+                }
+                return value;
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            default:
+                return "";
+        }
+    }
+
+    /* xlsx 的公式单元格可能没有 <v> 缓存值（例如程序生成后没有计算过），xls 的公式 record 总是带着缓存值 */
+    private static boolean hasCachedFormulaValue(Cell cell) {
+        if (cell instanceof XSSFCell) {
+            return ((XSSFCell) cell).getCTCell().isSetV();
+        }
+        return true;
+    }
+
+    private boolean isDate1904(Cell cell) {
+        if (date1904 == null) {
+            Workbook workbook = cell.getSheet().getWorkbook();
+            if (workbook instanceof XSSFWorkbook) {
+                date1904 = ((XSSFWorkbook) workbook).isDate1904();
+            } else if (workbook instanceof HSSFWorkbook) {
+                date1904 = ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+            } else {
+                date1904 = false;
+            }
+        }
+        return date1904;
+    }
+
+    private Object evaluateFormula(Cell cell) {
+        Object defaultCellValue = null;
+        try {
+            defaultCellValue = cell.getNumericCellValue();
+        } catch (Exception ignored) {
+            // 结果不是数字的公式，使用下面的原始值作为兜底
+        }
+        if (Objects.isNull(defaultCellValue) && cell instanceof XSSFCell) {
+            String rawValue = ((XSSFCell) cell).getRawValue();
+            if (StringUtils.isNotBlank(rawValue)) {
+                defaultCellValue = rawValue;
+            }
+        }
+        try {
+            CellValue cellValue = evaluator.evaluate(cell);
+            switch (cellValue.getCellType()) {
+                case STRING:
+                    return cellValue.getStringValue();
+                case NUMERIC:
+                    if (DateUtil.isCellDateFormatted(cell)) {
+                        return formatter.formatCellValue(cell, evaluator);
+                    } else {
+                        return cellValue.getNumberValue();
+                    }
+                case BOOLEAN:
+                    return cellValue.getBooleanValue();
+                default:
+                    return "";
+            }
+        } catch (Exception e) {
+            log.error("计算公式出现异常: formatCellValue::error{}", e.getMessage());
+            if (defaultCellValue != null) {
+                return defaultCellValue;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,13 +3,13 @@ package com.zj.excel.utils;
 import com.zj.excel.FileTypeEnum;
 import com.zj.excel.ai.AiInvokeUtils;
 import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.stream.ExcelStreamCell;
+import com.zj.excel.stream.ExcelStreamingReader;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.IOException;
@@ -32,7 +32,7 @@ public class ExcelUtils {
         if (CollectionUtils.isEmpty(sheetData)) {
             return null;
         }
-        addRowNumberIndex(sheetData);
+        List<List<Object>> numberedSheetData = addRowNumberIndex(sheetData);
         String prompt = "下面的数据是一个二维的表格数据，该数据的第一列为每行数据的行号: \n" +
                 "\n" +
                 "二维表数据如下: \n" +
@@ -44,7 +44,7 @@ public class ExcelUtils {
                 "\tdataRowStartIndex:  为除开表头，实际的数据开始的行号。\n" +
                 "\totherRowIndexList:  为除开表头和数据行的其他行的行号，如果不存在则返回空列表 \n" +
                 "要求，请你按照上面的格式返回识别出来的 json 结果。";
-        String promptJson = prompt.replace("$rowDataList", GsonUtils.toJSONString(sheetData));
+        String promptJson = prompt.replace("$rowDataList", GsonUtils.toJSONString(numberedSheetData));
         RowIndexInfoDTO result = AiInvokeUtils.invokeWithJson(promptJson, RowIndexInfoDTO.class);
         log.info("ai 识别表头信息结果为: result:{}", GsonUtils.toJSONString(result));
         if (Objects.nonNull(result) && CollectionUtils.isNotEmpty(result.getHeaderRowIndexList())) {
@@ -62,17 +62,23 @@ public class ExcelUtils {
         return result;
     }
 
-    private static void addRowNumberIndex(List<List<Object>> sheetData) {
-        if (CollectionUtils.isEmpty(sheetData)) {
-            return;
-        }
+    /**
+     * 在每行数据前加上行号，返回新的列表，不修改传入的数据
+     */
+    private static List<List<Object>> addRowNumberIndex(List<List<Object>> sheetData) {
+        List<List<Object>> numbered = new ArrayList<>(sheetData.size());
         AtomicInteger indexNumber = new AtomicInteger(1);
         sheetData.forEach(oneRowData -> {
             if (CollectionUtils.isEmpty(oneRowData)) {
+                numbered.add(oneRowData);
                 return;
             }
-            oneRowData.add(0, indexNumber.getAndIncrement());
+            List<Object> numberedRow = new ArrayList<>(oneRowData.size() + 1);
+            numberedRow.add(indexNumber.getAndIncrement());
+            numberedRow.addAll(oneRowData);
+            numbered.add(numberedRow);
         });
+        return numbered;
     }
 
     public static InputStream downloadFileByUrl(String url) {
@@ -94,6 +100,21 @@ public class ExcelUtils {
     }
 
     public static Map<String, List<List<Object>>> readExcelToList(String url, FileTypeEnum fileType) {
+        return readExcelToList(url, fileType, false, false);
+    }
+
+    /**
+     * 下载并读取 excel 为二维表数据，参数和 {@link #readExcelToList(InputStream, FileTypeEnum, boolean, boolean)} 一致
+     *
+     * @param url 文件地址
+     * @param fileType 文件类型
+     * @param streaming 是否使用流式读取，开启后不再构建完整的 workbook，公式单元格使用文件中缓存的计算结果
+     * @param useCachedFormulaValue 是否直接使用公式的缓存结果，只有没有缓存结果时才计算公式
+     * @return key 为 sheet 名称，value 为二维表数据
+     */
+    public static Map<String, List<List<Object>>> readExcelToList(String url, FileTypeEnum fileType,
+                                                                  boolean streaming,
+                                                                  boolean useCachedFormulaValue) {
         InputStream inputStream = null;
         HttpURLConnection connection = null;
         long s1 = System.currentTimeMillis();
@@ -106,7 +127,7 @@ public class ExcelUtils {
             connection.setReadTimeout(5000);
             inputStream = connection.getInputStream();
             log.info("importFile::下载文件完成，耗时：{} url={}", System.currentTimeMillis() - s1, url);
-            return ExcelUtils.readExcelToList(inputStream, fileType);
+            return ExcelUtils.readExcelToList(inputStream, fileType, streaming, useCachedFormulaValue);
         } catch (Exception e) {
             log.error("importFile::error url=" + url, e);
         } finally {
@@ -125,22 +146,6 @@ public class ExcelUtils {
         return null;
     }
 
-    /* 返回当前 (r,c) 所在的合并区域，找不到返回 null */
-    private static CellRangeAddress getMergedRegion(Sheet sheet, int r, int c) {
-        for (CellRangeAddress range : sheet.getMergedRegions()) {
-            if (range.isInRange(r, c)) {
-                return range;
-            }
-        }
-        return null;
-    }
-
-    /* 当前 (r,c) 是否是合并区域的左上角 */
-    private static boolean isMergedTopLeft(Sheet sheet, int r, int c) {
-        CellRangeAddress range = getMergedRegion(sheet, r, c);
-        return range != null && range.getFirstRow() == r && range.getFirstColumn() == c;
-    }
-
     /**
      * 将 Excel 文件转换为 HTML 表格
      *
@@ -152,20 +157,22 @@ public class ExcelUtils {
         Map<String, String> result = new HashMap<>();
         try (Workbook wb = new XSSFWorkbook(fis)) {
             int numberOfSheets = wb.getNumberOfSheets();
+            ExcelEvaluationContext context = new ExcelEvaluationContext(wb);
             for (int i = 0; i < numberOfSheets; i++) {
                 Sheet sheet = wb.getSheetAt(i);
                 String sheetName = sheet.getSheetName();
                 log.info("excelToHtml::解析表格Sheet-{} {}", i + 1, sheetName);
-                String oneTableString = convertOneSheetToOneHtmlTable(sheet, wb);
+                String oneTableString = convertOneSheetToOneHtmlTable(sheet, context);
                 result.put(String.format("%s_%s", i, sheetName), oneTableString);
             }
         }
         return result;
     }
 
-    private static String convertOneSheetToOneHtmlTable(Sheet sheet, Workbook wb) {
+    private static String convertOneSheetToOneHtmlTable(Sheet sheet, ExcelEvaluationContext context) {
         StringBuilder html = new StringBuilder();
         html.append("<table border='1' cellspacing='0' cellpadding='4'>\n");
+        MergedRegionIndex mergedRegionIndex = MergedRegionIndex.of(sheet);
         int lastRow = sheet.getLastRowNum();
         for (int r = 0; r <= lastRow; r++) {
             Row row = sheet.getRow(r);
@@ -176,15 +183,14 @@ public class ExcelUtils {
             html.append("<tr>");
             int lastCol = row.getLastCellNum();
             for (int c = 0; c < lastCol; c++) {
+                CellRangeAddress merged = mergedRegionIndex.getMergedRegion(r, c);
                 /* 1. 如果当前格被合并但不是左上角，跳过 */
-                if (getMergedRegion(sheet, r, c) != null &&
-                        !isMergedTopLeft(sheet, r, c)) {
+                if (merged != null && (merged.getFirstRow() != r || merged.getFirstColumn() != c)) {
                     continue;
                 }
 
                 /* 2. 构造 <td> 属性 */
                 StringBuilder tdAttr = new StringBuilder();
-                CellRangeAddress merged = getMergedRegion(sheet, r, c);
                 if (merged != null) {
                     int rs = merged.getLastRow() - merged.getFirstRow() + 1;
                     int cs = merged.getLastColumn() - merged.getFirstColumn() + 1;
@@ -198,7 +204,7 @@ public class ExcelUtils {
 
                 /* 3. 单元格内容 */
                 Cell cell = row.getCell(c);
-                String content = getCellText(cell, wb);
+                String content = context.getCellText(cell);
 
                 html.append("<td").append(tdAttr).append(">")
                         .append(escapeHtml(content))
@@ -210,13 +216,6 @@ public class ExcelUtils {
         return html.toString();
     }
 
-    /* 统一提取文本，日期、数字、公式都能转字符串 */
-    private static String getCellText(Cell cell, Workbook workbook) {
-        FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
-        Object data = formatCellValue(cell, evaluator);
-        return data == null ? "" : String.valueOf(data);
-    }
-
     /* 最简单转义，防止 < > & 破坏 html */
     private static String escapeHtml(String s) {
         if (s == null) {
@@ -229,7 +228,47 @@ public class ExcelUtils {
 
     public static Map<String, List<List<Object>>> readExcelToList(InputStream inputStream,
                                                                   FileTypeEnum fileTypeEnum) {
+        return readExcelToList(inputStream, fileTypeEnum, false);
+    }
+
+    /**
+     * 读取 excel 为二维表数据
+     *
+     * @param inputStream excel 文件流
+     * @param fileTypeEnum 文件类型
+     * @param streaming 是否使用流式读取，开启后不再构建完整的 workbook，公式单元格使用文件中缓存的计算结果
+     * @return key 为 sheet 名称，value 为二维表数据
+     */
+    public static Map<String, List<List<Object>>> readExcelToList(InputStream inputStream,
+                                                                  FileTypeEnum fileTypeEnum,
+                                                                  boolean streaming) {
+        return readExcelToList(inputStream, fileTypeEnum, streaming, false);
+    }
+
+    /**
+     * 读取 excel 为二维表数据
+     *
+     * @param inputStream excel 文件流
+     * @param fileTypeEnum 文件类型
+     * @param streaming 是否使用流式读取，开启后不再构建完整的 workbook，公式单元格使用文件中缓存的计算结果
+     * @param useCachedFormulaValue 是否直接使用公式的缓存结果，只有没有缓存结果时才计算公式
+     * @return key 为 sheet 名称，value 为二维表数据
+     */
+    public static Map<String, List<List<Object>>> readExcelToList(InputStream inputStream,
+                                                                  FileTypeEnum fileTypeEnum,
+                                                                  boolean streaming,
+                                                                  boolean useCachedFormulaValue) {
         Map<String, List<List<Object>>> result = new HashMap<>();
+        if (streaming) {
+            try {
+                log.info("importExcelToList::开始流式解析表格文件 ");
+                ExcelStreamingReader.read(inputStream, fileTypeEnum, new SheetDataRowHandler(result));
+                log.info("importExcelToList::表格文件解析完成 ");
+            } catch (Exception e) {
+                log.error("importExcelToList::error", e);
+            }
+            return result;
+        }
         try {
             // 解析 xls
             Workbook workbook;
@@ -240,14 +279,14 @@ public class ExcelUtils {
                 workbook = new XSSFWorkbook(inputStream);
             }
             log.info("importExcelToList::开始解析表格文件 ");
-            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            ExcelEvaluationContext context = new ExcelEvaluationContext(workbook, useCachedFormulaValue);
             for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
                 if (workbook.isSheetHidden(i) || workbook.isSheetVeryHidden(i)) {
                     continue;
                 }
                 Sheet sheet = workbook.getSheetAt(i);
                 log.info("importExcelToList::解析表格Sheet-{} {}", i + 1, sheet.getSheetName());
-                buildSheetData(sheet, result, evaluator);
+                buildSheetData(sheet, result, context);
             }
             log.info("importExcelToList::表格文件解析完成 ");
         } catch (Exception e) {
@@ -257,10 +296,21 @@ public class ExcelUtils {
     }
 
     public static List<List<Object>> getSheetData(Sheet sheet, FormulaEvaluator evaluator) {
+        return getSheetData(sheet, new ExcelEvaluationContext(evaluator));
+    }
+
+    /**
+     * 读取 sheet 的二维表数据
+     *
+     * @param sheet sheet 页
+     * @param context 当前 workbook 的取值上下文，同一个 workbook 的多个 sheet 共用
+     * @return 二维表格数据
+     */
+    public static List<List<Object>> getSheetData(Sheet sheet, ExcelEvaluationContext context) {
         List<List<Object>> sheetData = new ArrayList<>();
         boolean sheetAllCellsEmpty = true;
         // 获取合并单元格信息
-        Map<String, Object> mergedCellsMap = getMergedCells(sheet, evaluator);
+        Map<String, Object> mergedCellsMap = getMergedCells(sheet, context);
         log.info("获取当前合并单元格的信息: {}", GsonUtils.toJSONString(mergedCellsMap));
 
         for (int rowNum = 0; rowNum <= sheet.getLastRowNum(); rowNum++) {
@@ -280,7 +330,7 @@ public class ExcelUtils {
                         if (cell == null) {
                             cellData = "";
                         } else {
-                            cellData = formatCellValue(cell, evaluator);
+                            cellData = context.formatCellValue(cell);
                         }
                         if (cellData != null && !cellData.toString().isEmpty()) {
                             rowAllCellsEmpty = false;
@@ -305,9 +355,53 @@ public class ExcelUtils {
         return sheetData;
     }
 
+    /**
+     * 将流式读取得到的行数据转换为二维表数据，规则和 {@link #getSheetData(Sheet, ExcelEvaluationContext)} 一致
+     *
+     * @param rows 流式读取得到的行
+     * @return 二维表格数据
+     */
+    public static List<List<Object>> getStreamSheetData(List<List<ExcelStreamCell>> rows) {
+        List<List<Object>> sheetData = new ArrayList<>();
+        for (List<ExcelStreamCell> row : rows) {
+            List<Object> rowData = getStreamRowData(row);
+            if (rowData != null) {
+                sheetData.add(rowData);
+            }
+        }
+        if (!sheetData.isEmpty()) {
+            sheetData = parseSheetData(sheetData);
+        }
+        return sheetData;
+    }
+
+    /**
+     * 将流式读取得到的一行转换为行数据
+     *
+     * @param row 流式读取得到的行
+     * @return 行数据，整行都为空时返回 null
+     */
+    static List<Object> getStreamRowData(List<ExcelStreamCell> row) {
+        List<Object> rowData = new ArrayList<>();
+        boolean rowAllCellsEmpty = true;
+        for (ExcelStreamCell cell : row) {
+            Object cellData = cell == null || cell.getValue() == null ? "" : cell.getValue();
+            if (!cellData.toString().isEmpty()) {
+                rowAllCellsEmpty = false;
+            }
+            rowData.add(cellData);
+        }
+        return rowAllCellsEmpty ? null : rowData;
+    }
+
     public static void buildSheetData(Sheet sheet, Map<String, List<List<Object>>> result,
                                       FormulaEvaluator evaluator) {
-        List<List<Object>> sheetData = getSheetData(sheet, evaluator);
+        buildSheetData(sheet, result, new ExcelEvaluationContext(evaluator));
+    }
+
+    public static void buildSheetData(Sheet sheet, Map<String, List<List<Object>>> result,
+                                      ExcelEvaluationContext context) {
+        List<List<Object>> sheetData = getSheetData(sheet, context);
         result.put(sheet.getSheetName(), sheetData);
     }
 
@@ -344,13 +438,16 @@ public class ExcelUtils {
         return result;
     }
 
-    private static Map<String, Object> getMergedCells(Sheet sheet, FormulaEvaluator evaluator) {
-        int mergedRegionsCount = sheet.getNumMergedRegions();
+    private static Map<String, Object> getMergedCells(Sheet sheet, ExcelEvaluationContext context) {
         Map<String, Object> mergedCellsMap = new HashMap<>();
-        for (int regionIndex = 0; regionIndex < mergedRegionsCount; regionIndex++) {
-            CellRangeAddress region = sheet.getMergedRegion(regionIndex);
-            Cell cell = sheet.getRow(region.getFirstRow()).getCell(region.getFirstColumn());
-            Object cellValue = formatCellValue(cell, evaluator);
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            Row firstRow = sheet.getRow(region.getFirstRow());
+            Cell cell = firstRow == null ? null : firstRow.getCell(region.getFirstColumn());
+            if (cell == null) {
+                // 合并区域左上角的单元格不存在时没有值
+                continue;
+            }
+            Object cellValue = context.formatCellValue(cell);
             for (int row = region.getFirstRow(); row <= region.getLastRow(); row++) {
                 for (int col = region.getFirstColumn(); col <= region.getLastColumn(); col++) {
                     mergedCellsMap.put(row + "_" + col, cellValue);
@@ -359,60 +456,4 @@ public class ExcelUtils {
         }
         return mergedCellsMap;
     }
-
-    private static Object formatCellValue(Cell cell, FormulaEvaluator evaluator) {
-        DataFormatter formatter = new DataFormatter();
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return formatter.formatCellValue(cell, evaluator);
-                } else {
-                    return cell.getNumericCellValue();
-                }
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
-            case BLANK:
-                return "";
-            case FORMULA:
-                Object defaultCellValue = null;
-                try {
-                    defaultCellValue = cell.getNumericCellValue();
-                } catch (Exception exception) {
-                    log.error("获取默认值: formatCellValue::error, {}", exception.getMessage());
-                }
-                if (Objects.isNull(defaultCellValue) && cell instanceof XSSFCell) {
-                    String rawValue = ((XSSFCell) cell).getRawValue();
-                    if (StringUtils.isNotBlank(rawValue)) {
-                        defaultCellValue = rawValue;
-                    }
-                }
-                try {
-                    CellValue cellValue = evaluator.evaluate(cell);
-                    switch (cellValue.getCellType()) {
-                        case STRING:
-                            return cellValue.getStringValue();
-                        case NUMERIC:
-                            if (DateUtil.isCellDateFormatted(cell)) {
-                                return formatter.formatCellValue(cell, evaluator);
-                            } else {
-                                return cell.getNumericCellValue();
-                            }
-                        case BOOLEAN:
-                            return cellValue.getBooleanValue();
-                        default:
-                            return "";
-                    }
-                } catch (Exception e) {
-                    log.error("计算公式出现异常: formatCellValue::error{}", e.getMessage());
-                    if (defaultCellValue != null) {
-                        return defaultCellValue;
-                    }
-                    throw e;
-                }
-            default:
-                return cell.toString();
-        }
-    }
 }
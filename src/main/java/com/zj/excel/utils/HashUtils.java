@@ -0,0 +1,51 @@
+package com.zj.excel.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 指纹计算使用的 SHA-256 工具
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class HashUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private HashUtils() {
+    }
+
+    /**
+     * @return 新的 SHA-256 摘要，MessageDigest 不是线程安全的，每次计算单独创建
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前环境不支持 SHA-256", e);
+        }
+    }
+
+    /**
+     * @param text 文本，按 UTF-8 编码
+     * @return 64 位十六进制字符串
+     */
+    public static String sha256Hex(String text) {
+        return toHex(newSha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param bytes 字节数组
+     * @return 小写十六进制字符串
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
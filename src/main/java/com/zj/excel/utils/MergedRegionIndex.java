@@ -0,0 +1,126 @@
+package com.zj.excel.utils;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * sheet 合并区域的索引
+ * <p> 按行构建区间树：每个节点取一个中心行，保存跨过该行的合并区域，其余区域分到左右子树。合并区域互不重叠，
+ * 同一节点上的区域都覆盖中心行，所以它们的列范围也互不重叠，按起始列排序后二分即可。
+ * 查找某个单元格所在的合并区域是 O(log² n)，内存只和合并区域的个数有关，与区域跨越的行数无关（整列合并也只占一个位置）。
+ * 避免每个单元格都线性扫描 {@link Sheet#getMergedRegions()}（该方法每次调用都会复制一份列表） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class MergedRegionIndex {
+
+    private static final CellRangeAddress[] EMPTY_REGIONS = new CellRangeAddress[0];
+
+    private final List<CellRangeAddress> mergedRegions;
+
+    private final Node root;
+
+    public MergedRegionIndex(List<CellRangeAddress> mergedRegions) {
+        this.mergedRegions = mergedRegions == null ? Collections.emptyList() : mergedRegions;
+        this.root = build(this.mergedRegions);
+    }
+
+    /**
+     * 根据 sheet 构建合并区域索引，每个 sheet 只需要构建一次
+     */
+    public static MergedRegionIndex of(Sheet sheet) {
+        return new MergedRegionIndex(sheet.getMergedRegions());
+    }
+
+    /* 返回当前 (r,c) 所在的合并区域，找不到返回 null */
+    public CellRangeAddress getMergedRegion(int r, int c) {
+        Node node = root;
+        while (node != null) {
+            CellRangeAddress region = findByColumn(node.regions, c);
+            if (region != null && region.getFirstRow() <= r && r <= region.getLastRow()) {
+                return region;
+            }
+            if (r == node.center) {
+                return null;
+            }
+            node = r < node.center ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * 所有的合并区域
+     */
+    public List<CellRangeAddress> getMergedRegions() {
+        return mergedRegions;
+    }
+
+    private static Node build(List<CellRangeAddress> regions) {
+        if (regions.isEmpty()) {
+            return null;
+        }
+        // 取所有端点的中位数作为中心行，保证左右子树大致平衡
+        int[] rows = new int[regions.size() * 2];
+        for (int i = 0; i < regions.size(); i++) {
+            rows[i * 2] = regions.get(i).getFirstRow();
+            rows[i * 2 + 1] = regions.get(i).getLastRow();
+        }
+        Arrays.sort(rows);
+        int center = rows[rows.length / 2];
+        List<CellRangeAddress> left = new ArrayList<>();
+        List<CellRangeAddress> right = new ArrayList<>();
+        List<CellRangeAddress> current = new ArrayList<>();
+        for (CellRangeAddress region : regions) {
+            if (region.getLastRow() < center) {
+                left.add(region);
+            } else if (region.getFirstRow() > center) {
+                right.add(region);
+            } else {
+                current.add(region);
+            }
+        }
+        current.sort(Comparator.comparingInt(CellRangeAddress::getFirstColumn));
+        return new Node(center, current.toArray(EMPTY_REGIONS), build(left), build(right));
+    }
+
+    /* regions 的列范围互不重叠，找到起始列 <= c 的最后一个区域 */
+    private static CellRangeAddress findByColumn(CellRangeAddress[] regions, int c) {
+        int low = 0;
+        int high = regions.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (regions[mid].getFirstColumn() <= c) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0 || regions[found].getLastColumn() < c) {
+            return null;
+        }
+        return regions[found];
+    }
+
+    private static final class Node {
+        private final int center;
+        private final CellRangeAddress[] regions;
+        private final Node left;
+        private final Node right;
+
+        private Node(int center, CellRangeAddress[] regions, Node left, Node right) {
+            this.center = center;
+            this.regions = regions;
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
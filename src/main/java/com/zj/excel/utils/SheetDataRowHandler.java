@@ -0,0 +1,56 @@
+package com.zj.excel.utils;
+
+import com.zj.excel.stream.ExcelRowHandler;
+import com.zj.excel.stream.ExcelStreamCell;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式读取时将每个 sheet 转换为二维表数据，跳过隐藏的 sheet，规则和 {@link ExcelUtils#readExcelToList} 一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+class SheetDataRowHandler implements ExcelRowHandler {
+
+    private final Map<String, List<List<Object>>> result;
+
+    private String sheetName;
+
+    private List<List<Object>> sheetData;
+
+    private boolean sheetAllCellsEmpty;
+
+    SheetDataRowHandler(Map<String, List<List<Object>>> result) {
+        this.result = result;
+    }
+
+    @Override
+    public boolean acceptSheet(int sheetIndex, String sheetName, boolean hidden) {
+        return !hidden;
+    }
+
+    @Override
+    public void startSheet(int sheetIndex, String sheetName, List<CellRangeAddress> mergedRegions) {
+        this.sheetName = sheetName;
+        this.sheetData = new ArrayList<>();
+        this.sheetAllCellsEmpty = true;
+    }
+
+    @Override
+    public void handleRow(int rowIndex, List<ExcelStreamCell> cells) {
+        List<Object> rowData = ExcelUtils.getStreamRowData(cells);
+        if (rowData != null) {
+            sheetData.add(rowData);
+            sheetAllCellsEmpty = false;
+        }
+    }
+
+    @Override
+    public void endSheet() {
+        result.put(sheetName, sheetAllCellsEmpty ? sheetData : ExcelUtils.parseSheetData(sheetData));
+    }
+}
@@ -0,0 +1,103 @@
+package com.zj.excel.ai;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 使用本地的 http 服务模拟 openai 接口，校验并发、超时和相同提示词的合并
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class AiClientTest {
+
+    private StubOpenaiServer server;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubOpenaiServer()
+                .setAnswer("<think>先看第一行</think>{\"headerRowIndexList\":[0],\"dataRowStartIndex\":1}");
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void parsesJsonAnswer() {
+        RowIndexInfoDTO result = server.client(2, 5000).invokeWithJson("prompt", RowIndexInfoDTO.class);
+        assertEquals(Collections.singletonList(0), result.getHeaderRowIndexList());
+        assertEquals(1, result.getDataRowStartIndex().intValue());
+    }
+
+    @Test
+    public void identicalPromptsShareOneRequest() throws Exception {
+        server.setDelayMillis(300);
+        AiClient client = server.client(4, 5000);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return client.invoke("same prompt");
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("{\"headerRowIndexList\":[0],\"dataRowStartIndex\":1}", result.get());
+        }
+        assertEquals(1, server.getRequests());
+        assertEquals(1, client.getRequestCount());
+        assertEquals(7, client.getCoalescedCount());
+    }
+
+    @Test
+    public void concurrencyIsBounded() throws Exception {
+        server.setDelayMillis(200);
+        AiClient client = server.client(2, 5000);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String prompt = "prompt " + i;
+            results.add(callers.submit(() -> client.invoke(prompt)));
+        }
+        for (Future<String> result : results) {
+            result.get();
+        }
+        assertEquals(6, server.getRequests());
+        assertEquals(2, server.getMaxRunning());
+    }
+
+    @Test
+    public void slowAnswerTimesOut() {
+        server.setDelayMillis(2000);
+        long start = System.currentTimeMillis();
+        assertNull(server.client(2, 200).invoke("slow"));
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    public void nonJsonAnswerIsRetried() {
+        server.setAnswer("不是 json");
+        assertNull(server.client(2, 5000).invokeWithJson("prompt", RowIndexInfoDTO.class));
+        assertEquals(3, server.getRequests());
+    }
+}
@@ -0,0 +1,123 @@
+package com.zj.excel.ai;
+
+import cn.hutool.ai.ModelName;
+import cn.hutool.ai.core.AIConfigBuilder;
+import com.sun.net.httpserver.HttpServer;
+import com.zj.excel.utils.GsonUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 模拟 openai 的 /chat/completions 接口，记录请求数和同时处理的请求数
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class StubOpenaiServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private volatile long delayMillis = 0;
+
+    private volatile String answer = "";
+
+    private volatile String lastRequestBody;
+
+    public StubOpenaiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            requests.incrementAndGet();
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int n; (n = in.read(buffer)) >= 0; ) {
+                    requestBody.write(buffer, 0, n);
+                }
+                lastRequestBody = new String(requestBody.toByteArray(), StandardCharsets.UTF_8);
+                Thread.sleep(delayMillis);
+                byte[] body = completion(answer).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * @param answer 每次请求返回的回答内容
+     */
+    public StubOpenaiServer setAnswer(String answer) {
+        this.answer = answer;
+        return this;
+    }
+
+    public StubOpenaiServer setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+        return this;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getMaxRunning() {
+        return maxRunning.get();
+    }
+
+    public String getLastRequestBody() {
+        return lastRequestBody;
+    }
+
+    public AiClient client(int maxConcurrency, long timeoutMillis) {
+        return new AiClient(new AIConfigBuilder(ModelName.OPENAI.getValue())
+                .setApiKey("test")
+                .setApiUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1")
+                .setModel("stub")
+                .build(), maxConcurrency, timeoutMillis);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static String completion(String content) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content);
+        Map<String, Object> choice = new HashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        Map<String, Object> completion = new HashMap<>();
+        completion.put("id", "stub");
+        completion.put("choices", Collections.singletonList(choice));
+        return GsonUtils.toJSONString(completion);
+    }
+}
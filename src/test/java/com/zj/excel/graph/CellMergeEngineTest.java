@@ -0,0 +1,137 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JCell;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 索引合并的结果（包括顺序）需要和原来逐个配置过滤整个列表的实现完全一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CellMergeEngineTest {
+
+    @Test
+    public void matchesListBasedMerge() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            int rows = 1 + random.nextInt(12);
+            int columns = 1 + random.nextInt(8);
+            List<JTableMergeConfig> configs = new ArrayList<>();
+            int configCount = random.nextInt(10);
+            for (int i = 0; i < configCount; i++) {
+                int startRow = 1 + random.nextInt(rows + 1);
+                int startCol = 1 + random.nextInt(columns + 1);
+                int endRow = startRow + random.nextInt(4) - 1;
+                int endCol = startCol + random.nextInt(4) - 1;
+                if (random.nextBoolean()) {
+                    // 和 SheetPageCollector 一样，矩形区域先竖向再横向
+                    configs.add(new JTableMergeConfig(startRow, endRow, startCol, endCol, false));
+                    configs.add(new JTableMergeConfig(startRow, endRow, startCol, endCol, true));
+                } else {
+                    configs.add(new JTableMergeConfig(startRow, endRow, startCol, endCol, random.nextBoolean()));
+                }
+            }
+            List<JCell> expected = legacyMerge(cells(rows, columns), configs);
+            List<JCell> actual = JDrawTableUtil.mergeCells(cells(rows, columns), configs, new ArrayList<>());
+            assertEquals("round " + round, expected, actual);
+        }
+    }
+
+    @Test
+    public void equalDuplicatesAreRemovedLikeRemoveAll() {
+        List<JCell> cells = cells(2, 3);
+        // 与第一行第一列完全相等的重复单元格
+        cells.add(copy(cells.get(0)));
+        List<JTableMergeConfig> configs = new ArrayList<>();
+        configs.add(new JTableMergeConfig(1, 1, 1, 2, true));
+        List<JCell> duplicate = new ArrayList<>();
+        for (JCell cell : cells) {
+            duplicate.add(copy(cell));
+        }
+        assertEquals(legacyMerge(duplicate, configs), JDrawTableUtil.mergeCells(cells, configs, new ArrayList<>()));
+    }
+
+    private static List<JCell> cells(int rows, int columns) {
+        List<JCell> cells = new ArrayList<>();
+        for (int r = 1; r <= rows; r++) {
+            for (int c = 1; c <= columns; c++) {
+                cells.add(new JCell()
+                        .setRow(r)
+                        .setColumn(c)
+                        .setX(c * 100)
+                        .setY(r * 50)
+                        .setWidth(100 + c)
+                        .setHeight(50 + r)
+                        .setTextAlign(true)
+                        .setContent((r + c) % 3 == 0 ? "\n" : r + "-" + c)
+                        .setBackgroundColor(r % 2 == 0 ? Color.YELLOW : null)
+                        .setTextColor(Color.BLACK));
+            }
+        }
+        return cells;
+    }
+
+    private static JCell copy(JCell cell) {
+        return new JCell().setRow(cell.getRow()).setColumn(cell.getColumn()).setX(cell.getX()).setY(cell.getY())
+                .setWidth(cell.getWidth()).setHeight(cell.getHeight()).setTextAlign(cell.isTextAlign())
+                .setContent(cell.getContent()).setBackgroundColor(cell.getBackgroundColor())
+                .setTextColor(cell.getTextColor());
+    }
+
+    /**
+     * 原来的实现
+     */
+    private static List<JCell> legacyMerge(List<JCell> allCells, List<JTableMergeConfig> mergeConfigs) {
+        if (mergeConfigs.isEmpty()) {
+            return allCells;
+        }
+        for (JTableMergeConfig config : mergeConfigs) {
+            allCells = legacyMergeOne(allCells, config);
+        }
+        return allCells;
+    }
+
+    private static List<JCell> legacyMergeOne(List<JCell> allCells, JTableMergeConfig config) {
+        List<JCell> result = new ArrayList<>(allCells);
+        boolean horizontal = config.isHorizontal();
+        List<JCell> cellsToMerge = allCells.stream()
+                .filter(cell -> horizontal ? cell.getRow() == config.getStartRow() : cell.getColumn() == config.getStartCol())
+                .filter(cell -> horizontal
+                        ? cell.getColumn() >= config.getStartCol() && cell.getColumn() <= config.getEndCol()
+                        : cell.getRow() >= config.getStartRow() && cell.getRow() <= config.getEndRow())
+                .sorted(Comparator.comparingInt(horizontal ? JCell::getColumn : JCell::getRow))
+                .collect(Collectors.toList());
+        if (cellsToMerge.size() < 2) {
+            return result;
+        }
+        String content = cellsToMerge.stream().map(JCell::getContent).filter(StringUtils::isNotBlank)
+                .collect(Collectors.joining("\n"));
+        JCell first = cellsToMerge.get(0);
+        JCell mergedCell = new JCell();
+        mergedCell.setRow(config.getStartRow());
+        mergedCell.setColumn(config.getStartCol());
+        mergedCell.setX(first.getX());
+        mergedCell.setY(first.getY());
+        mergedCell.setHeight(horizontal ? first.getHeight() : cellsToMerge.stream().mapToInt(JCell::getHeight).sum());
+        mergedCell.setWidth(horizontal ? cellsToMerge.stream().mapToInt(JCell::getWidth).sum() : first.getWidth());
+        mergedCell.setContent(content);
+        mergedCell.setTextAlign(first.isTextAlign());
+        mergedCell.setBackgroundColor(first.getBackgroundColor());
+        mergedCell.setTextColor(first.getTextColor());
+        result.removeAll(cellsToMerge);
+        result.add(mergedCell);
+        return result;
+    }
+}
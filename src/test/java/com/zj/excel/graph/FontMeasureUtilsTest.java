@@ -0,0 +1,117 @@
+package com.zj.excel.graph;
+
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 缓存的测量结果需要和在表格画布上直接测量的结果一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class FontMeasureUtilsTest {
+
+    private static final Font[] FONTS = {
+            new Font("宋体", Font.PLAIN, 24),
+            new Font("宋体", Font.BOLD, 24),
+            new Font("楷体", Font.BOLD, 15),
+            new Font(Font.SANS_SERIF, Font.PLAIN, 12),
+            new Font(Font.SERIF, Font.ITALIC, 17),
+    };
+
+    private static final String[] SAMPLES = {
+            "", "-", "abc 123", "1234.5678", "中文表头", "合计：12,345.00 元", "Ünïcödé ß", "２０２５年",
+            "مرحبا بالعالم", "ภาษาไทย", "emoji 😀 x", "tab\there", " nbsp",
+    };
+
+    @Test
+    public void stringWidthMatchesCanvasMetrics() {
+        for (Font font : FONTS) {
+            FontMetrics expected = canvasMetrics(font);
+            for (String sample : SAMPLES) {
+                assertEquals(font + " " + sample, expected.stringWidth(sample), FontMeasureUtils.stringWidth(font, sample));
+            }
+            Random random = new Random(font.hashCode());
+            for (int i = 0; i < 200; i++) {
+                String text = randomText(random);
+                assertEquals(font + " " + text, expected.stringWidth(text), FontMeasureUtils.stringWidth(font, text));
+            }
+        }
+    }
+
+    @Test
+    public void maxLineWidthUsesWidestLine() {
+        Font font = FONTS[0];
+        FontMetrics expected = canvasMetrics(font);
+        int widest = Math.max(expected.stringWidth("短"), expected.stringWidth("比较长的一行 text"));
+        assertEquals(widest, FontMeasureUtils.maxLineWidth(font, "短\n比较长的一行 text\n"));
+        assertEquals(0, FontMeasureUtils.maxLineWidth(font, ""));
+    }
+
+    @Test
+    public void concurrentCallsAgree() throws Exception {
+        Font font = new Font("宋体", Font.PLAIN, 19);
+        FontMetrics expected = canvasMetrics(font);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 500; i++) {
+                        String text = randomText(random);
+                        assertEquals(text, expected.stringWidth(text), FontMeasureUtils.stringWidth(font, text));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FontMetrics canvasMetrics(Font font) {
+        Graphics2D graphics = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB).createGraphics();
+        graphics.setFont(font);
+        FontMetrics fontMetrics = graphics.getFontMetrics();
+        graphics.dispose();
+        return fontMetrics;
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(20);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    builder.append((char) (0x20 + random.nextInt(0x5F)));
+                    break;
+                case 1:
+                    builder.append((char) (0x4E00 + random.nextInt(0x5000)));
+                    break;
+                case 2:
+                    builder.append((char) (0xA0 + random.nextInt(0x60)));
+                    break;
+                default:
+                    builder.append((char) ('0' + random.nextInt(10)));
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 表格绘制的布局和合并结果校验
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class JDrawTableUtilTest {
+
+    @Test
+    public void layoutUsesPrefixSums() {
+        JTable table = table();
+        List<List<JExtendedCell>> rows = Arrays.asList(
+                row("a", "bb"),
+                Collections.emptyList(),
+                row("多行\n内容\n第三行", "x", "y"));
+        TableLayout layout = TableLayout.ofExtendedRows(rows, table);
+        assertEquals(3, layout.getColumnCount());
+        assertEquals(50, layout.getRowHeight(0));
+        // 空行按 1 行计算
+        assertEquals(50 + 24, layout.getRowHeight(1));
+        assertEquals(50 + 24 * 2, layout.getRowHeight(2));
+        assertEquals(10, layout.getY(0));
+        assertEquals(10 + 50 + 74, layout.getY(2));
+        assertEquals(50 + 74 + 98, layout.getTableHeight());
+        assertEquals(10 + layout.getColumnWidth(0) + layout.getColumnWidth(1), layout.getX(2));
+    }
+
+    @Test
+    public void directDrawMatchesCellDraw() {
+        List<List<JExtendedCell>> rows = new ArrayList<>();
+        for (int r = 0; r < 12; r++) {
+            rows.add(r == 4 ? new ArrayList<>() : row("r" + r, "中文" + r, r % 3 == 0 ? "多\n行" : "", "end"));
+        }
+        rows.get(2).get(1).setBackgroundColor(Color.YELLOW).setTextColor(Color.RED);
+        BufferedImage direct = JDrawTableUtil.drawTableWithColor(table(), rows);
+        // 单个单元格的合并配置不会改变结果，但会走生成单元格对象再合并的流程
+        JTable withNoopMerge = table().setMergeConfigs(new ArrayList<>(Collections.singletonList(
+                new JTableMergeConfig(1, 1, 1, 1, true))));
+        assertSameImage(direct, JDrawTableUtil.drawTableWithColor(withNoopMerge, rows));
+    }
+
+    @Test
+    public void rowsAfterEmptyRowAreDrawn() {
+        List<List<JExtendedCell>> rows = Arrays.asList(row("a"), Collections.emptyList(), row("b"));
+        JTable table = table();
+        BufferedImage image = JDrawTableUtil.drawTableWithColor(table, rows);
+        TableLayout layout = TableLayout.ofExtendedRows(rows, table);
+        // 最后一行的上边框
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(layout.getX(0) + 5, layout.getY(2)));
+    }
+
+    @Test
+    public void imageDpiScalesCanvasAtDrawTime() {
+        List<List<JExtendedCell>> rows = Arrays.asList(row("a", "中文"), row("b", "c"));
+        BufferedImage normal = JDrawTableUtil.drawTableWithColor(table(), rows);
+        BufferedImage doubled = JDrawTableUtil.drawTableWithColor(table().setImageDpi(144), rows);
+        assertEquals(normal.getWidth() * 2, doubled.getWidth());
+        assertEquals(normal.getHeight() * 2, doubled.getHeight());
+        // 边框按 2 倍宽度直接绘制
+        assertEquals(Color.BLACK.getRGB(), doubled.getRGB(40, 19));
+        assertEquals(Color.BLACK.getRGB(), doubled.getRGB(40, 20));
+
+        List<List<String>> textRows = Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"));
+        BufferedImage text = JDrawTableUtil.drawTable(table(), textRows);
+        BufferedImage text200 = JDrawTableUtil.drawTable(table().setImageDpi(200), textRows);
+        assertEquals(text.getWidth() * 200 / 72, text200.getWidth());
+        assertEquals(text.getHeight() * 200 / 72, text200.getHeight());
+    }
+
+    static JTable table() {
+        return new JTable()
+                .setCellFont(new Font("宋体", Font.PLAIN, 24))
+                .setHeaderFont(new Font("宋体", Font.BOLD, 24))
+                .setHeaderBackGroundColor(Color.gray)
+                .setRowHeight(50);
+    }
+
+    static List<JExtendedCell> row(String... contents) {
+        List<JExtendedCell> row = new ArrayList<>();
+        for (String content : contents) {
+            row.add(new JExtendedCell(content).setTextColor(Color.BLACK));
+        }
+        return row;
+    }
+
+    static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals(
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+    }
+}
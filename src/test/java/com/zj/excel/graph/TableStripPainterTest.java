@@ -0,0 +1,75 @@
+package com.zj.excel.graph;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.zj.excel.graph.JDrawTableUtilTest.assertSameImage;
+import static com.zj.excel.graph.JDrawTableUtilTest.row;
+import static com.zj.excel.graph.JDrawTableUtilTest.table;
+
+/**
+ * 分块绘制拼起来需要和整张绘制的图片逐像素一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class TableStripPainterTest {
+
+    private static final int[] STRIP_HEIGHTS = {1, 7, 64, 100000};
+
+    @Test
+    public void stripsMatchWholeImage() {
+        List<List<JExtendedCell>> rows = rows();
+        assertStripsMatch(table(), rows);
+        assertStripsMatch(table().setImageDpi(144), rows);
+        assertStripsMatch(table().setImageDpi(200), rows);
+    }
+
+    @Test
+    public void mergedStripsMatchWholeImage() {
+        List<List<JExtendedCell>> rows = rows();
+        // 横向合并后三行内容放在一行高度内，文字会超出单元格
+        List<JTableMergeConfig> mergeConfigs = Arrays.asList(
+                new JTableMergeConfig(2, 1, 2, 3, true),
+                new JTableMergeConfig(5, 2, 9, 2, false));
+        assertStripsMatch(table().setMergeConfigs(new ArrayList<>(mergeConfigs)), rows);
+        assertStripsMatch(table().setImageDpi(144).setMergeConfigs(new ArrayList<>(mergeConfigs)), rows);
+    }
+
+    @Test
+    public void emptyTableMatchesWholeImage() {
+        assertStripsMatch(table(), new ArrayList<>());
+        assertStripsMatch(table().setImageDpi(144), new ArrayList<>());
+    }
+
+    private static List<List<JExtendedCell>> rows() {
+        List<List<JExtendedCell>> rows = new ArrayList<>();
+        for (int r = 0; r < 20; r++) {
+            rows.add(r == 6 ? new ArrayList<>() : row("r" + r, "中文" + r, r % 4 == 0 ? "多\n行" : "x", "end"));
+        }
+        rows.get(3).get(1).setBackgroundColor(Color.YELLOW).setTextColor(Color.RED);
+        return rows;
+    }
+
+    private static void assertStripsMatch(JTable table, List<List<JExtendedCell>> rows) {
+        BufferedImage expected = JDrawTableUtil.drawTableWithColor(table, rows);
+        TableStripPainter painter = TableStripPainter.ofExtendedRows(table, rows);
+        for (int stripHeight : STRIP_HEIGHTS) {
+            BufferedImage actual = new BufferedImage(painter.getWidth(), painter.getHeight(), BufferedImage.TYPE_INT_RGB);
+            BufferedImage strip = null;
+            for (int top = 0; top < painter.getHeight(); top += stripHeight) {
+                strip = painter.paintStrip(top, stripHeight, strip);
+                actual.getRaster().setRect(0, top, strip.getRaster());
+            }
+            assertSameImage(expected, actual);
+        }
+    }
+}
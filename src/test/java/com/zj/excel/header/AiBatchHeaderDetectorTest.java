@@ -0,0 +1,125 @@
+package com.zj.excel.header;
+
+import com.zj.excel.ai.StubOpenaiServer;
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.stream.ExcelStreamCell;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 批量识别表头的提示词和结果校验
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class AiBatchHeaderDetectorTest {
+
+    @Test
+    public void batchPromptContainsEverySheet() {
+        String prompt = new HeaderPromptBuilder().buildBatch(Arrays.asList(sample("a"), sample("b")));
+        assertTrue(prompt.contains("### sheet 0: a\n0|a名称|a数量\n"));
+        assertTrue(prompt.contains("### sheet 1: b\n0|b名称|b数量\n"));
+        assertTrue(prompt.contains("key 为 sheet 的编号"));
+    }
+
+    @Test
+    public void invalidAnswersFallBackToSingleSheet() throws IOException {
+        List<String> fallbackSheets = new ArrayList<>();
+        HeaderDetector fallback = sample -> {
+            fallbackSheets.add(sample.getSheetName());
+            return header(1);
+        };
+        try (StubOpenaiServer server = new StubOpenaiServer()
+                // sheet 1 的行号不在数据中，sheet 2 没有返回
+                .setAnswer("{\"0\":{\"headerRowIndexList\":[0],\"dataRowStartIndex\":1},"
+                        + "\"1\":{\"headerRowIndexList\":[99],\"dataRowStartIndex\":100}}")) {
+            AiBatchHeaderDetector detector = new AiBatchHeaderDetector(server.client(2, 5000),
+                    new HeaderPromptBuilder(), null, fallback);
+            List<RowIndexInfoDTO> results = detector.detectAll(Arrays.asList(sample("a"), sample("b"), sample("c")));
+            assertEquals(1, server.getRequests());
+            assertEquals(Collections.singletonList(0), results.get(0).getHeaderRowIndexList());
+            assertEquals(Collections.singletonList(1), results.get(1).getHeaderRowIndexList());
+            assertEquals(Collections.singletonList(1), results.get(2).getHeaderRowIndexList());
+            assertEquals(Arrays.asList("b", "c"), fallbackSheets);
+        }
+    }
+
+    @Test
+    public void localResultsSkipAi() throws IOException {
+        try (StubOpenaiServer server = new StubOpenaiServer().setAnswer("{}")) {
+            AiBatchHeaderDetector detector = new AiBatchHeaderDetector(server.client(2, 5000),
+                    new HeaderPromptBuilder(),
+                    sample -> header(0), null);
+            List<RowIndexInfoDTO> results = detector.detectAll(Arrays.asList(sample("a"), sample("b")));
+            assertEquals(0, server.getRequests());
+            assertEquals(Collections.singletonList(0), results.get(1).getHeaderRowIndexList());
+
+            // 没有本地识别和 fallback 时，ai 的结果不可用的 sheet 为 null
+            detector = new AiBatchHeaderDetector(server.client(2, 5000), new HeaderPromptBuilder(), null, null);
+            results = detector.detectAll(Arrays.asList(sample("a"), sample("b")));
+            assertEquals(1, server.getRequests());
+            assertNull(results.get(0));
+        }
+    }
+
+    @Test
+    public void cachedSheetsSkipBatchAndAnswersAreCached() throws IOException {
+        CachingHeaderDetector cache = new CachingHeaderDetector(sample -> {
+            throw new IllegalStateException("批量识别时不应该单独识别");
+        });
+        cache.put(sample("a"), header(0));
+        try (StubOpenaiServer server = new StubOpenaiServer()
+                .setAnswer("{\"0\":{\"headerRowIndexList\":[0],\"dataRowStartIndex\":1},"
+                        + "\"1\":{\"headerRowIndexList\":[1],\"dataRowStartIndex\":2}}")) {
+            AiBatchHeaderDetector detector = new AiBatchHeaderDetector(server.client(2, 5000),
+                    new HeaderPromptBuilder(), null, null, cache);
+            List<RowIndexInfoDTO> results = detector.detectAll(Arrays.asList(sample("a"), sample("b"), sample("c")));
+            assertEquals(1, server.getRequests());
+            // 缓存命中的 sheet a 不在提示词中
+            assertTrue(server.getLastRequestBody().contains("b名称"));
+            assertFalse(server.getLastRequestBody().contains("a名称"));
+            assertEquals(Collections.singletonList(0), results.get(0).getHeaderRowIndexList());
+            assertEquals(Collections.singletonList(1), results.get(2).getHeaderRowIndexList());
+
+            // 批量结果已经写入缓存，再次识别时不再调用 ai
+            results = detector.detectAll(Arrays.asList(sample("b"), sample("c")));
+            assertEquals(1, server.getRequests());
+            assertEquals(3, cache.size());
+            assertEquals(Collections.singletonList(0), results.get(0).getHeaderRowIndexList());
+        }
+    }
+
+    private static RowIndexInfoDTO header(int rowIndex) {
+        RowIndexInfoDTO result = new RowIndexInfoDTO();
+        result.setHeaderRowIndexList(Collections.singletonList(rowIndex));
+        return result;
+    }
+
+    /**
+     * 第一行为表头，之后每行为 文本 + 数字，表头以 sheet 名称开头
+     */
+    private static SheetSample sample(String sheetName) {
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<List<ExcelStreamCell>> rows = new ArrayList<>();
+        rowIndexes.add(0);
+        rows.add(Arrays.asList(new ExcelStreamCell().setValue(sheetName + "名称"),
+                new ExcelStreamCell().setValue(sheetName + "数量")));
+        for (int r = 1; r < 6; r++) {
+            rowIndexes.add(r);
+            rows.add(Arrays.asList(new ExcelStreamCell().setValue("item" + r),
+                    new ExcelStreamCell().setValue((double) r)));
+        }
+        return SheetSampleUtils.ofStreamRows(sheetName, rowIndexes, rows, Collections.emptyList(), false);
+    }
+}
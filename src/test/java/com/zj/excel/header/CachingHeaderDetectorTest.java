@@ -0,0 +1,140 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.stream.ExcelStreamCell;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 表头识别结果的缓存
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CachingHeaderDetectorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final HeaderDetector counting = sample -> {
+        calls.incrementAndGet();
+        RowIndexInfoDTO result = new RowIndexInfoDTO();
+        result.setHeaderRowIndexList(new ArrayList<>(Collections.singletonList(0)));
+        result.setDataRowStartIndex(1);
+        return result;
+    };
+
+    @Test
+    public void sameTemplateIsDetectedOnce() {
+        CachingHeaderDetector detector = new CachingHeaderDetector(counting);
+        assertEquals(Collections.singletonList(0), detector.detect(sample("名称", 10)).getHeaderRowIndexList());
+        // 数据不同、表头相同
+        detector.detect(sample("名称", 30)).getHeaderRowIndexList().add(5);
+        assertEquals(1, calls.get());
+        // 返回的是副本，调用方修改不影响缓存
+        assertEquals(Collections.singletonList(0), detector.detect(sample("名称", 10)).getHeaderRowIndexList());
+        detector.detect(sample("品名", 10));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void entriesExpireAndAreBounded() {
+        AtomicLong now = new AtomicLong(1000);
+        CachingHeaderDetector detector = new CachingHeaderDetector(counting, 2, Duration.ofMillis(100), null)
+                .setClock(now::get);
+        detector.detect(sample("a", 10));
+        detector.detect(sample("b", 10));
+        detector.detect(sample("c", 10));
+        assertEquals(2, detector.size());
+        // a 已经被淘汰
+        detector.detect(sample("a", 10));
+        assertEquals(4, calls.get());
+        now.addAndGet(100);
+        detector.detect(sample("a", 10));
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        CachingHeaderDetector detector = new CachingHeaderDetector(sample -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        assertNull(detector.detect(sample("a", 10)));
+        assertNull(detector.detect(sample("a", 10)));
+        assertEquals(2, calls.get());
+        assertEquals(0, detector.size());
+    }
+
+    @Test
+    public void resultsWithoutHeaderRowsAreNotCached() {
+        CachingHeaderDetector detector = new CachingHeaderDetector(sample -> {
+            calls.incrementAndGet();
+            RowIndexInfoDTO result = new RowIndexInfoDTO();
+            result.setHeaderRowIndexList(new ArrayList<>());
+            result.setDataRowStartIndex(0);
+            return result;
+        });
+        assertEquals(Collections.emptyList(), detector.detect(sample("a", 10)).getHeaderRowIndexList());
+        detector.detect(sample("a", 10));
+        assertEquals(2, calls.get());
+        assertEquals(0, detector.size());
+    }
+
+    @Test
+    public void persistedEntriesSurviveRestart() {
+        Path file = temporaryFolder.getRoot().toPath().resolve("headers.json");
+        new CachingHeaderDetector(counting, 16, Duration.ofHours(1), file).detect(sample("名称", 10));
+        CachingHeaderDetector reopened = new CachingHeaderDetector(counting, 16, Duration.ofHours(1), file);
+        assertEquals(1, reopened.size());
+        assertEquals(Integer.valueOf(1), reopened.detect(sample("名称", 10)).getDataRowStartIndex());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void fingerprintIgnoresDataTextButNotStructure() {
+        String base = SheetSampleUtils.fingerprint(sample("名称", 10), 20, 5);
+        assertEquals(base, SheetSampleUtils.fingerprint(sample("名称", 99), 20, 5));
+        assertNotEquals(base, SheetSampleUtils.fingerprint(sample("品名", 10), 20, 5));
+        SheetSample merged = sample("名称", 10);
+        merged.getMergedRegions().add(CellRangeAddress.valueOf("A1:B1"));
+        assertNotEquals(base, SheetSampleUtils.fingerprint(merged, 20, 5));
+        SheetSample bold = sample("名称", 10);
+        bold.getRows().get(0).getCells().get(0).setBold(true);
+        assertNotEquals(base, SheetSampleUtils.fingerprint(bold, 20, 5));
+    }
+
+    /**
+     * 第一行为表头，之后每行为 文本 + 数字，文本以 seed 区分
+     */
+    private static SheetSample sample(String header, int seed) {
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<List<ExcelStreamCell>> rows = new ArrayList<>();
+        rowIndexes.add(0);
+        rows.add(Arrays.asList(new ExcelStreamCell().setValue(header), new ExcelStreamCell().setValue("数量")));
+        for (int r = 1; r < 8; r++) {
+            rowIndexes.add(r);
+            rows.add(Arrays.asList(new ExcelStreamCell().setValue("item" + (r + seed)),
+                    new ExcelStreamCell().setValue((double) r * seed)));
+        }
+        return SheetSampleUtils.ofStreamRows("s", rowIndexes, rows, Collections.emptyList(), false);
+    }
+}
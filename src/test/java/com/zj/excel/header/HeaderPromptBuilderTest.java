@@ -0,0 +1,86 @@
+package com.zj.excel.header;
+
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.stream.ExcelStreamCell;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 表头识别提示词的内容和长度校验
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class HeaderPromptBuilderTest {
+
+    @Test
+    public void promptContainsRowsAndColumnSummary() {
+        String prompt = new HeaderPromptBuilder().build(sample(10, "名称"));
+        assertTrue(prompt.contains("0|名称|数量\n"));
+        assertTrue(prompt.contains("3|item3|3.0\n"));
+        assertTrue(prompt.contains("第1列: text 10\n"));
+        assertTrue(prompt.contains("第2列: text 1, number 9\n"));
+        assertTrue(prompt.contains("合并单元格: 行0-0 列1-2"));
+    }
+
+    @Test
+    public void rowsAreLimitedByCountAndBudget() {
+        SheetSample sample = sample(100, "名称");
+        String prompt = new HeaderPromptBuilder().setMaxRows(5).build(sample);
+        assertTrue(prompt.contains("\n4|item4|4.0\n"));
+        assertFalse(prompt.contains("\n5|item5|5.0\n"));
+
+        String full = new HeaderPromptBuilder().setMaxRows(100).setTokenBudget(100000).build(sample);
+        int budget = HeaderPromptBuilder.estimateTokens(full) / 2;
+        String limited = new HeaderPromptBuilder().setMaxRows(100).setTokenBudget(budget).build(sample);
+        assertTrue(HeaderPromptBuilder.estimateTokens(limited) <= budget);
+        assertTrue(limited.contains("0|名称|数量\n"));
+
+        // 预算不够时至少保留一行数据
+        String tiny = new HeaderPromptBuilder().setTokenBudget(1).build(sample);
+        assertTrue(tiny.contains("0|名称|数量\n"));
+        assertFalse(tiny.contains("\n1|item1|1.0\n"));
+    }
+
+    @Test
+    public void longCellsAreTruncated() {
+        char[] chars = new char[100];
+        Arrays.fill(chars, '长');
+        String prompt = new HeaderPromptBuilder().setMaxCellLength(4).build(sample(3, new String(chars)));
+        assertTrue(prompt.contains("0|长长长长…|数量\n"));
+    }
+
+    @Test
+    public void estimateTokensCountsCjkAsOne() {
+        assertEquals(0, HeaderPromptBuilder.estimateTokens(""));
+        assertEquals(1, HeaderPromptBuilder.estimateTokens("abcd"));
+        assertEquals(2, HeaderPromptBuilder.estimateTokens("abcde"));
+        assertEquals(3, HeaderPromptBuilder.estimateTokens("名称a"));
+    }
+
+    /**
+     * 第一行为表头，之后每行为 文本 + 数字
+     */
+    private static SheetSample sample(int rowCount, String header) {
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<List<ExcelStreamCell>> rows = new ArrayList<>();
+        rowIndexes.add(0);
+        rows.add(Arrays.asList(new ExcelStreamCell().setValue(header), new ExcelStreamCell().setValue("数量")));
+        for (int r = 1; r < rowCount; r++) {
+            rowIndexes.add(r);
+            rows.add(Arrays.asList(new ExcelStreamCell().setValue("item" + r),
+                    new ExcelStreamCell().setValue((double) r)));
+        }
+        return SheetSampleUtils.ofStreamRows("s", rowIndexes, rows,
+                Collections.singletonList(CellRangeAddress.valueOf("A1:B1")), false);
+    }
+}
@@ -0,0 +1,163 @@
+package com.zj.excel.header;
+
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.domain.CellKind;
+import com.zj.excel.stream.ExcelStreamCell;
+import com.zj.excel.utils.ExcelEvaluationContext;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 本地规则识别表头
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class HeuristicHeaderDetectorTest {
+
+    private final HeuristicHeaderDetector detector = new HeuristicHeaderDetector();
+
+    @Test
+    public void textHeaderOverNumericColumns() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            text(sheet.createRow(0), "名称", "数量", "金额");
+            dataRows(sheet, 1, 20);
+            RowIndexInfoDTO result = detect(sheet);
+            assertEquals(Collections.singletonList(0), result.getHeaderRowIndexList());
+            assertEquals(Integer.valueOf(1), result.getDataRowStartIndex());
+        }
+    }
+
+    @Test
+    public void titleRowAndGroupedHeader() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            text(sheet.createRow(0), "2025 年销售报表");
+            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 3));
+            text(sheet.createRow(1), "商品", "", "销售", "");
+            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 1));
+            sheet.addMergedRegion(new CellRangeAddress(1, 1, 2, 3));
+            text(sheet.createRow(2), "名称", "编号", "数量", "金额");
+            for (int r = 3; r < 20; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("商品" + r);
+                row.createCell(1).setCellValue("P" + r);
+                row.createCell(2).setCellValue(r);
+                row.createCell(3).setCellValue(r * 1.5);
+            }
+            RowIndexInfoDTO result = detect(sheet);
+            assertEquals(Collections.singletonList(0), result.getOtherRowIndexList());
+            assertEquals(Arrays.asList(1, 2), result.getHeaderRowIndexList());
+            assertEquals(Integer.valueOf(3), result.getDataRowStartIndex());
+        }
+    }
+
+    @Test
+    public void boldHeaderOverTextColumns() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            Font bold = wb.createFont();
+            bold.setBold(true);
+            CellStyle style = wb.createCellStyle();
+            style.setFont(bold);
+            Row header = sheet.createRow(0);
+            text(header, "姓名", "部门");
+            header.getCell(0).setCellStyle(style);
+            header.getCell(1).setCellStyle(style);
+            for (int r = 1; r < 10; r++) {
+                text(sheet.createRow(r), "张" + r, "研发");
+            }
+            assertEquals(Collections.singletonList(0), detect(sheet).getHeaderRowIndexList());
+        }
+    }
+
+    @Test
+    public void frozenRowsAreHeader() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            for (int r = 0; r < 10; r++) {
+                text(sheet.createRow(r), "a" + r, "b" + r);
+            }
+            sheet.createFreezePane(0, 2);
+            assertEquals(Arrays.asList(0, 1), detect(sheet).getHeaderRowIndexList());
+        }
+    }
+
+    @Test
+    public void plainTextIsUndecided() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            for (int r = 0; r < 10; r++) {
+                text(sheet.createRow(r), "a" + r, "b" + r);
+            }
+            assertNull(detect(sheet));
+        }
+    }
+
+    @Test
+    public void streamRowsUseSameRules() {
+        List<Integer> rowIndexes = new ArrayList<>();
+        List<List<ExcelStreamCell>> rows = new ArrayList<>();
+        rowIndexes.add(2);
+        rows.add(Arrays.asList(cell("名称"), cell("数量")));
+        for (int r = 3; r < 10; r++) {
+            rowIndexes.add(r);
+            rows.add(Arrays.asList(cell("x" + r), cell((double) r)));
+        }
+        RowIndexInfoDTO result = detector.detect(
+                SheetSampleUtils.ofStreamRows("s", rowIndexes, rows, Collections.emptyList(), false));
+        assertEquals(Collections.singletonList(2), result.getHeaderRowIndexList());
+        assertEquals(Integer.valueOf(3), result.getDataRowStartIndex());
+    }
+
+    @Test
+    public void cellKindRecognizesFormattedValues() {
+        assertEquals(CellKind.NUMBER, CellKind.of(1.5));
+        assertEquals(CellKind.NUMBER, CellKind.of("1,234.5"));
+        assertEquals(CellKind.NUMBER, CellKind.of("12%"));
+        assertEquals(CellKind.DATE, CellKind.of("2025-10-12"));
+        assertEquals(CellKind.DATE, CellKind.of("2025年10月12日"));
+        assertEquals(CellKind.BOOLEAN, CellKind.of(true));
+        assertEquals(CellKind.BLANK, CellKind.of(" "));
+        assertEquals(CellKind.TEXT, CellKind.of("金额"));
+    }
+
+    private RowIndexInfoDTO detect(Sheet sheet) {
+        return detector.detect(SheetSampleUtils.ofSheet(sheet, new ExcelEvaluationContext(sheet.getWorkbook()), 100));
+    }
+
+    private static void text(Row row, String... values) {
+        for (int c = 0; c < values.length; c++) {
+            row.createCell(c).setCellValue(values[c]);
+        }
+    }
+
+    private static void dataRows(Sheet sheet, int from, int to) {
+        for (int r = from; r < to; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue("item" + r);
+            row.createCell(1).setCellValue(r);
+            row.createCell(2).setCellValue(r * 2.5);
+        }
+    }
+
+    private static ExcelStreamCell cell(Object value) {
+        return new ExcelStreamCell().setValue(value);
+    }
+}
@@ -0,0 +1,198 @@
+package com.zj.excel.stream;
+
+import com.zj.excel.FileTypeEnum;
+import com.zj.excel.to.image.ExcelDrawUtil;
+import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import com.zj.excel.utils.ExcelColorUtils;
+import com.zj.excel.utils.ExcelUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * 流式读取与 dom 方式的一致性校验
+ * <p> 覆盖带样式的连续空白单元格（xls 中为 MulBlankRecord）、合并区域、日期以及字符串公式（xls 中为 StringRecord） </p>
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ExcelStreamingReaderParityTest {
+
+    @Test
+    public void xlsCellsMatchDom() throws IOException {
+        assertCellsMatchDom(buildWorkbook(new HSSFWorkbook()), FileTypeEnum.XLS);
+    }
+
+    @Test
+    public void xlsxCellsMatchDom() throws IOException {
+        assertCellsMatchDom(buildWorkbook(new XSSFWorkbook()), FileTypeEnum.XLSX);
+    }
+
+    @Test
+    public void xlsListMatchesDom() throws IOException {
+        assertListMatchesDom(buildWorkbook(new HSSFWorkbook()), FileTypeEnum.XLS);
+    }
+
+    @Test
+    public void xlsxListMatchesDom() throws IOException {
+        assertListMatchesDom(buildWorkbook(new XSSFWorkbook()), FileTypeEnum.XLSX);
+    }
+
+    @Test
+    public void xlsImagesMatchDom() throws IOException {
+        assertImagesMatchDom(buildWorkbook(new HSSFWorkbook()), FileTypeEnum.XLS);
+    }
+
+    @Test
+    public void xlsxImagesMatchDom() throws IOException {
+        assertImagesMatchDom(buildWorkbook(new XSSFWorkbook()), FileTypeEnum.XLSX);
+    }
+
+    private static byte[] buildWorkbook(Workbook wb) throws IOException {
+        CellStyle yellow = wb.createCellStyle();
+        yellow.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+        yellow.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        CellStyle date = wb.createCellStyle();
+        date.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+        Sheet sheet = wb.createSheet("parity");
+        for (int r = 0; r < 30; r++) {
+            if (r % 7 == 3) {
+                continue;
+            }
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue("name" + r);
+            // 值之间和行尾都有连续的带样式空白单元格
+            for (int c = 1; c <= 3; c++) {
+                row.createCell(c).setCellStyle(yellow);
+            }
+            row.createCell(4).setCellValue(r * 1.5);
+            Cell dateCell = row.createCell(5);
+            dateCell.setCellValue(new Date(100000000000L + r * 86400000L));
+            dateCell.setCellStyle(date);
+            row.createCell(6).setCellFormula("A" + (r + 1) + "&\"-x\"");
+            row.createCell(7).setCellFormula("E" + (r + 1) + "*2");
+            for (int c = 8; c <= 10; c++) {
+                row.createCell(c).setCellStyle(yellow);
+            }
+        }
+        sheet.addMergedRegion(new CellRangeAddress(0, 1, 4, 5));
+        sheet.addMergedRegion(new CellRangeAddress(9, 9, 0, 2));
+        // 左上角所在的行不存在
+        sheet.addMergedRegion(new CellRangeAddress(10, 11, 1, 2));
+        wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        wb.write(outputStream);
+        wb.close();
+        return outputStream.toByteArray();
+    }
+
+    private static void assertCellsMatchDom(byte[] data, FileTypeEnum fileType) throws IOException {
+        List<List<ExcelStreamCell>> streamRows = new ArrayList<>();
+        List<CellRangeAddress> streamMergedRegions = new ArrayList<>();
+        ExcelStreamingReader.read(new ByteArrayInputStream(data), fileType, new ExcelRowHandler() {
+            @Override
+            public void startSheet(int sheetIndex, String sheetName, List<CellRangeAddress> mergedRegions) {
+                streamMergedRegions.addAll(mergedRegions);
+            }
+
+            @Override
+            public void handleRow(int rowIndex, List<ExcelStreamCell> cells) {
+                assertEquals(streamRows.size(), rowIndex);
+                streamRows.add(new ArrayList<>(cells));
+            }
+
+            @Override
+            public void endSheet() {
+            }
+        });
+
+        try (Workbook wb = WorkbookFactory.create(new ByteArrayInputStream(data))) {
+            Sheet sheet = wb.getSheetAt(0);
+            assertEquals(sheet.getMergedRegions().size(), streamMergedRegions.size());
+            assertEquals(sheet.getLastRowNum() + 1, streamRows.size());
+            for (int r = 0; r <= sheet.getLastRowNum(); r++) {
+                Row row = sheet.getRow(r);
+                List<ExcelStreamCell> streamCells = streamRows.get(r);
+                int lastCellNum = row == null ? 0 : Math.max(row.getLastCellNum(), 0);
+                assertEquals("row " + r + " length", lastCellNum, streamCells.size());
+                for (int c = 0; c < lastCellNum; c++) {
+                    Cell cell = row.getCell(c);
+                    ExcelStreamCell streamCell = streamCells.get(c);
+                    String position = "cell(" + r + "," + c + ")";
+                    if (cell == null) {
+                        assertEquals(position, null, streamCell);
+                        continue;
+                    }
+                    assertNotNull(position, streamCell);
+                    Color domBackground = ExcelColorUtils.getCellBackgroundColor(cell);
+                    assertEquals(position + " background", domBackground, streamCell.getBackgroundColor());
+                    assertEquals(position + " text color",
+                            ExcelColorUtils.getCellTextColor(cell, wb), streamCell.getTextColor());
+                }
+            }
+        }
+    }
+
+    private static void assertListMatchesDom(byte[] data, FileTypeEnum fileType) {
+        Map<String, List<List<Object>>> dom =
+                ExcelUtils.readExcelToList(new ByteArrayInputStream(data), fileType, false);
+        Map<String, List<List<Object>>> streaming =
+                ExcelUtils.readExcelToList(new ByteArrayInputStream(data), fileType, true);
+        assertEquals(String.valueOf(dom), String.valueOf(streaming));
+    }
+
+    private static void assertImagesMatchDom(byte[] data, FileTypeEnum fileType) throws IOException {
+        List<BufferedImage> dom = renderPages(data, fileType, false);
+        List<BufferedImage> streaming = renderPages(data, fileType, true);
+        assertEquals(dom.size(), streaming.size());
+        for (int i = 0; i < dom.size(); i++) {
+            BufferedImage expected = dom.get(i);
+            BufferedImage actual = streaming.get(i);
+            assertEquals(expected.getWidth(), actual.getWidth());
+            assertEquals(expected.getHeight(), actual.getHeight());
+            int[] expectedPixels = expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(),
+                    null, 0, expected.getWidth());
+            int[] actualPixels = actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(),
+                    null, 0, actual.getWidth());
+            assertArrayEquals("page " + i, expectedPixels, actualPixels);
+        }
+    }
+
+    private static List<BufferedImage> renderPages(byte[] data, FileTypeEnum fileType, boolean streaming)
+            throws IOException {
+        ExcelDrawImageRequest request = new ExcelDrawImageRequest()
+                .setExcelStream(new ByteArrayInputStream(data))
+                .setFileTypeEnum(fileType)
+                .setDefaultRowLength(12)
+                .setStreaming(streaming);
+        Map<String, BufferedImage> images = ExcelDrawUtil.excelToPngWithColor(request);
+        // 图片名称的前缀是时间戳，按 sheet 名称和页码排序
+        TreeMap<String, BufferedImage> sorted = new TreeMap<>();
+        images.forEach((name, image) -> sorted.put(name.substring(name.indexOf('_') + 1), image));
+        return new ArrayList<>(sorted.values());
+    }
+}
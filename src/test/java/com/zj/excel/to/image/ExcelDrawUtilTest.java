@@ -0,0 +1,413 @@
+package com.zj.excel.to.image;
+
+import com.zj.excel.FileTypeEnum;
+import com.zj.excel.domian.dto.RowIndexInfoDTO;
+import com.zj.excel.header.HeaderDetector;
+import com.zj.excel.header.HeuristicHeaderDetector;
+import com.zj.excel.header.domain.SheetSample;
+import com.zj.excel.to.image.cache.PageManifest;
+import com.zj.excel.to.image.cache.PageRenderCache;
+import com.zj.excel.to.image.dto.ExcelDrawImageRequest;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 图片绘制的不同执行方式需要得到相同的结果
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ExcelDrawUtilTest {
+
+    @Test
+    public void parallelRenderingMatchesSerial() throws IOException {
+        byte[] data = buildWorkbook();
+        assertSamePages(render(data, new ExcelDrawImageRequest()),
+                render(data, new ExcelDrawImageRequest().setRenderThreadCount(4)));
+        assertSamePages(render(data, new ExcelDrawImageRequest().setStreaming(true)),
+                render(data, new ExcelDrawImageRequest().setStreaming(true).setRenderThreadCount(4)));
+    }
+
+    @Test
+    public void boundedPipelineMatchesSerial() throws IOException {
+        byte[] data = buildWorkbook();
+        // 只允许一页在途时读取线程每提交一页都要等上一页画完
+        assertSamePages(render(data, new ExcelDrawImageRequest()),
+                render(data, new ExcelDrawImageRequest().setRenderThreadCount(3).setMaxInFlightPages(1)));
+        assertSamePages(render(data, new ExcelDrawImageRequest().setStreaming(true)),
+                render(data, new ExcelDrawImageRequest().setStreaming(true).setRenderThreadCount(3).setMaxInFlightPages(2)));
+    }
+
+    @Test
+    public void stripRenderingMatchesWholePage() throws IOException {
+        byte[] data = buildWorkbook();
+        assertSamePages(render(data, new ExcelDrawImageRequest()),
+                render(data, new ExcelDrawImageRequest().setStripHeight(37)));
+        assertSamePages(render(data, new ExcelDrawImageRequest().setStreaming(true).setImageDpi(144)),
+                render(data, new ExcelDrawImageRequest().setStreaming(true).setImageDpi(144)
+                        .setStripHeight(64).setRenderThreadCount(3)));
+    }
+
+    @Test
+    public void renderCacheReturnsSamePages() throws IOException {
+        byte[] data = buildWorkbook();
+        List<BufferedImage> expected = render(data, new ExcelDrawImageRequest());
+        PageRenderCache cache = new PageRenderCache(64L * 1024 * 1024);
+        assertSamePages(expected, render(data, new ExcelDrawImageRequest().setRenderCache(cache)));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(15, cache.getMissCount());
+        assertSamePages(expected, render(data, new ExcelDrawImageRequest().setRenderCache(cache)
+                .setStreaming(true).setRenderThreadCount(3)));
+        assertEquals(15, cache.getHitCount());
+        assertEquals(15, cache.getMissCount());
+    }
+
+    @Test
+    public void incrementalRenderEmitsOnlyChangedPages() throws IOException {
+        byte[] data = buildWorkbook();
+        PageManifest manifest = new PageManifest();
+        assertEquals(15, renderNames(data, manifest).size());
+
+        // 没有修改时不绘制任何页面
+        manifest = manifest.nextRun();
+        assertEquals(Collections.emptyList(), renderNames(data, manifest));
+
+        // 每页 10 行，第 26 行在第 2 页；删掉最后 5 行后第 4 页不存在
+        byte[] edited;
+        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(data))) {
+            wb.getSheet("sheet1").getRow(25).getCell(0).setCellValue("edited");
+            Sheet sheet2 = wb.getSheet("sheet2");
+            for (int r = 40; r < 45; r++) {
+                sheet2.removeRow(sheet2.getRow(r));
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            edited = outputStream.toByteArray();
+        }
+        manifest = manifest.nextRun();
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                        .setExcelStream(new ByteArrayInputStream(edited))
+                        .setDefaultRowLength(10)
+                        .setPageManifest(manifest),
+                (sheetIndex, sheetName, pageIndex, image) -> {
+                    names.add(sheetName + "_" + pageIndex);
+                    images.add(image);
+                });
+        assertEquals(Collections.singletonList("sheet1_2"), names);
+        assertEquals(Collections.singletonList("sheet1_2.png"), manifest.getChangedPages());
+        assertEquals(Collections.singletonList("sheet2_4.png"), manifest.getRemovedPages());
+        assertSameImage("sheet1_2", render(edited, new ExcelDrawImageRequest()).get(7), images.get(0));
+    }
+
+    private static List<String> renderNames(byte[] data, PageManifest manifest) throws IOException {
+        List<String> names = new ArrayList<>();
+        ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                        .setExcelStream(new ByteArrayInputStream(data))
+                        .setDefaultRowLength(10)
+                        .setStreaming(true)
+                        .setPageManifest(manifest),
+                (sheetIndex, sheetName, pageIndex, image) -> names.add(sheetName + "_" + pageIndex));
+        return names;
+    }
+
+    @Test
+    public void detectedHeaderIsRepeatedOnLaterPages() throws IOException {
+        byte[] data = buildHeaderWorkbook();
+        for (boolean streaming : new boolean[]{false, true}) {
+            List<BufferedImage> pages = render(data, new ExcelDrawImageRequest()
+                    .setNeedHeader(true)
+                    .setHeaderDetector(new HeuristicHeaderDetector())
+                    .setStreaming(streaming));
+            assertEquals(3, pages.size());
+            // 第 2 页在 10 行数据前多了一行表头
+            assertEquals(pages.get(0).getHeight() + 50, pages.get(1).getHeight());
+        }
+    }
+
+    @Test
+    public void singlePageSheetSkipsHeaderDetection() throws IOException {
+        byte[] data;
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("sheet0");
+            for (int r = 0; r < 10; r++) {
+                sheet.createRow(r).createCell(0).setCellValue(r == 0 ? "名称" : "item" + r);
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            data = outputStream.toByteArray();
+        }
+        AtomicInteger calls = new AtomicInteger();
+        for (boolean streaming : new boolean[]{false, true}) {
+            List<BufferedImage> pages = render(data, new ExcelDrawImageRequest()
+                    .setNeedHeader(true)
+                    .setHeaderDetector(sample -> {
+                        calls.incrementAndGet();
+                        return null;
+                    })
+                    .setStreaming(streaming));
+            assertEquals(1, pages.size());
+        }
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void firstPageIsRenderedWhileHeaderIsDetected() throws IOException {
+        byte[] data = buildHeaderWorkbook();
+        for (boolean streaming : new boolean[]{false, true}) {
+            CountDownLatch firstPage = new CountDownLatch(1);
+            HeuristicHeaderDetector heuristic = new HeuristicHeaderDetector();
+            List<BufferedImage> pages = new ArrayList<>();
+            ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                            .setExcelStream(new ByteArrayInputStream(data))
+                            .setDefaultRowLength(10)
+                            .setNeedHeader(true)
+                            .setHeaderDetector(sample -> {
+                                // 第一页交给 sink 之后才返回识别结果
+                                try {
+                                    assertTrue(firstPage.await(10, TimeUnit.SECONDS));
+                                } catch (InterruptedException e) {
+                                    throw new IllegalStateException(e);
+                                }
+                                return heuristic.detect(sample);
+                            })
+                            .setStreaming(streaming),
+                    (sheetIndex, sheetName, pageIndex, image) -> {
+                        pages.add(image);
+                        firstPage.countDown();
+                    });
+            assertEquals(3, pages.size());
+            assertEquals(pages.get(0).getHeight() + 50, pages.get(1).getHeight());
+        }
+    }
+
+    @Test
+    public void headerDetectionTimeoutUsesFallback() throws IOException {
+        byte[] data = buildHeaderWorkbook();
+        HeaderDetector slow = sample -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HeuristicHeaderDetector().detect(sample);
+        };
+        for (boolean streaming : new boolean[]{false, true}) {
+            List<BufferedImage> noHeader = render(data, new ExcelDrawImageRequest()
+                    .setNeedHeader(true)
+                    .setHeaderDetector(slow)
+                    .setHeaderDetectTimeoutMillis(50)
+                    .setStreaming(streaming));
+            assertEquals(noHeader.get(0).getHeight(), noHeader.get(1).getHeight());
+
+            List<BufferedImage> fallback = render(data, new ExcelDrawImageRequest()
+                    .setNeedHeader(true)
+                    .setHeaderDetector(slow)
+                    .setHeaderDetectTimeoutMillis(50)
+                    .setHeaderFallbackDetector(new HeuristicHeaderDetector())
+                    .setStreaming(streaming));
+            assertEquals(fallback.get(0).getHeight() + 50, fallback.get(1).getHeight());
+        }
+    }
+
+    @Test
+    public void synchronousHeaderDetectionErrorUsesFallback() throws IOException {
+        byte[] data = buildHeaderWorkbook();
+        for (boolean streaming : new boolean[]{false, true}) {
+            List<BufferedImage> pages = render(data, new ExcelDrawImageRequest()
+                    .setNeedHeader(true)
+                    .setHeaderDetector(sample -> {
+                        throw new IllegalStateException("识别失败");
+                    })
+                    .setHeaderDetectTimeoutMillis(0)
+                    .setHeaderFallbackDetector(new HeuristicHeaderDetector())
+                    .setStreaming(streaming));
+            assertEquals(3, pages.size());
+            assertEquals(pages.get(0).getHeight() + 50, pages.get(1).getHeight());
+        }
+    }
+
+    @Test
+    public void batchHeaderDetectionUsesOneCall() throws IOException {
+        byte[] data;
+        try (Workbook wb = new XSSFWorkbook()) {
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.createSheet("sheet" + s);
+                // sheet1 只有一页
+                int rowCount = s == 1 ? 5 : 26;
+                for (int r = 0; r < rowCount; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(r == 0 ? "名称" : "item" + r);
+                    row.createCell(1).setCellValue(r == 0 ? "数量" : String.valueOf(r));
+                }
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            data = outputStream.toByteArray();
+        }
+        List<List<String>> batches = new ArrayList<>();
+        List<BufferedImage> pages = render(data, new ExcelDrawImageRequest()
+                .setNeedHeader(true)
+                .setHeaderDetector(sample -> {
+                    throw new IllegalStateException("批量识别时不应该单独识别");
+                })
+                .setBatchHeaderDetector(samples -> {
+                    List<String> names = new ArrayList<>();
+                    List<RowIndexInfoDTO> results = new ArrayList<>();
+                    for (SheetSample sample : samples) {
+                        names.add(sample.getSheetName());
+                        RowIndexInfoDTO result = new RowIndexInfoDTO();
+                        result.setHeaderRowIndexList(Collections.singletonList(0));
+                        results.add(result);
+                    }
+                    batches.add(names);
+                    return results;
+                }));
+        assertEquals(Collections.singletonList(Arrays.asList("sheet0", "sheet2")), batches);
+        // sheet0 3 页，sheet1 1 页，sheet2 3 页
+        assertEquals(7, pages.size());
+        assertEquals(pages.get(0).getHeight() + 50, pages.get(1).getHeight());
+        assertEquals(pages.get(4).getHeight() + 50, pages.get(5).getHeight());
+    }
+
+    @Test
+    public void sinkReceivesPagesInOrder() throws IOException {
+        byte[] data = buildWorkbook();
+        List<BufferedImage> expected = render(data, new ExcelDrawImageRequest());
+        for (boolean streaming : new boolean[]{false, true}) {
+            List<String> names = new ArrayList<>();
+            List<BufferedImage> images = new ArrayList<>();
+            ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                            .setExcelStream(new ByteArrayInputStream(data))
+                            .setDefaultRowLength(10)
+                            .setStreaming(streaming)
+                            .setRenderThreadCount(4)
+                            .setMaxInFlightPages(2),
+                    (sheetIndex, sheetName, pageIndex, image) -> {
+                        names.add(sheetIndex + "/" + sheetName + "/" + pageIndex);
+                        images.add(image);
+                    });
+            assertEquals(15, names.size());
+            assertEquals("0/sheet0/0", names.get(0));
+            assertEquals("0/sheet0/4", names.get(4));
+            assertEquals("2/sheet2/4", names.get(14));
+            assertSamePages(expected, images);
+        }
+    }
+
+    @Test
+    public void sinkExceptionIsRethrown() throws IOException {
+        byte[] data = buildWorkbook();
+        try {
+            ExcelDrawUtil.excelToPngWithColor(new ExcelDrawImageRequest()
+                            .setExcelStream(new ByteArrayInputStream(data))
+                            .setStreaming(true)
+                            .setDefaultRowLength(10)
+                            .setRenderThreadCount(2),
+                    (sheetIndex, sheetName, pageIndex, image) -> {
+                        throw new IOException("disk full");
+                    });
+            fail("sink 的异常需要抛给调用方");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+    }
+
+    /**
+     * 第一行为表头，之后 25 行为 文本 + 数字，每页 10 行时共 3 页
+     */
+    static byte[] buildHeaderWorkbook() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("sheet0");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("名称");
+            header.createCell(1).setCellValue("数量");
+            for (int r = 1; r < 26; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("item" + r);
+                row.createCell(1).setCellValue(r);
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    static byte[] buildWorkbook() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            CellStyle fill = wb.createCellStyle();
+            fill.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
+            fill.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            for (int s = 0; s < 3; s++) {
+                Sheet sheet = wb.createSheet("sheet" + s);
+                for (int r = 0; r < 45; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue("row" + r);
+                    row.createCell(1).setCellValue(r * s);
+                    row.createCell(2).setCellStyle(fill);
+                    row.createCell(3).setCellValue("中文" + r);
+                }
+                sheet.addMergedRegion(new CellRangeAddress(2, 3, 0, 1));
+                sheet.addMergedRegion(new CellRangeAddress(20, 20, 1, 3));
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            wb.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * 图片名称的前缀是时间戳，按 sheet 名称和页码排序
+     */
+    static List<BufferedImage> render(byte[] data, ExcelDrawImageRequest request) throws IOException {
+        request.setExcelStream(new ByteArrayInputStream(data))
+                .setFileTypeEnum(FileTypeEnum.XLSX)
+                .setDefaultRowLength(10);
+        Map<String, BufferedImage> images = ExcelDrawUtil.excelToPngWithColor(request);
+        TreeMap<String, BufferedImage> sorted = new TreeMap<>();
+        images.forEach((name, image) -> sorted.put(name.substring(name.indexOf('_') + 1), image));
+        return new ArrayList<>(sorted.values());
+    }
+
+    static void assertSamePages(List<BufferedImage> expected, List<BufferedImage> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameImage("page " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    static void assertSameImage(String message, BufferedImage expected, BufferedImage actual) {
+        assertEquals(message, expected.getWidth(), actual.getWidth());
+        assertEquals(message, expected.getHeight(), actual.getHeight());
+        assertArrayEquals(message,
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.zj.excel.to.image.cache;
+
+import com.zj.excel.graph.domain.JExtendedCell;
+import com.zj.excel.graph.domain.JTable;
+import com.zj.excel.graph.domain.JTableMergeConfig;
+import com.zj.excel.to.image.png.PngEncoder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 页面指纹和缓存
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PageRenderCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void fingerprintCoversContentStylesAndSettings() {
+        PngEncoder encoder = new PngEncoder();
+        String base = PageFingerprint.of(table(), rows(), encoder);
+        assertEquals(base, PageFingerprint.of(table(), rows(), new PngEncoder()));
+
+        List<List<JExtendedCell>> recolored = rows();
+        recolored.get(1).get(0).setBackgroundColor(Color.YELLOW);
+        assertNotEquals(base, PageFingerprint.of(table(), recolored, encoder));
+        List<List<JExtendedCell>> edited = rows();
+        edited.get(0).get(1).setContent("b2");
+        assertNotEquals(base, PageFingerprint.of(table(), edited, encoder));
+        // 内容拼接后相同也要区分
+        assertNotEquals(PageFingerprint.of(table(), Collections.singletonList(row("ab", "")), encoder),
+                PageFingerprint.of(table(), Collections.singletonList(row("a", "b")), encoder));
+
+        assertNotEquals(base, PageFingerprint.of(table().setImageDpi(144), rows(), encoder));
+        assertNotEquals(base, PageFingerprint.of(table().setRowHeight(40), rows(), encoder));
+        assertNotEquals(base, PageFingerprint.of(table().setCellFont(new Font("宋体", Font.PLAIN, 20)), rows(), encoder));
+        assertNotEquals(base, PageFingerprint.of(table().setMergeConfigs(new ArrayList<>(Collections.singletonList(
+                new JTableMergeConfig(1, 1, 1, 2, true)))), rows(), encoder));
+        assertNotEquals(base, PageFingerprint.of(table(), rows(), new PngEncoder().setCompressionLevel(1)));
+    }
+
+    @Test
+    public void memoryTierEvictsLeastRecentlyUsed() {
+        PageRenderCache cache = new PageRenderCache(25);
+        cache.put("a", new byte[10]);
+        cache.put("b", new byte[10]);
+        // 访问 a 之后 b 是最久没有使用的
+        cache.get("a");
+        cache.put("c", new byte[10]);
+        assertNull(cache.get("b"));
+        assertEquals(10, cache.get("a").length);
+        assertEquals(10, cache.get("c").length);
+        assertEquals(20, cache.getMemoryBytes());
+        // 超过上限的页面不放入内存
+        cache.put("d", new byte[30]);
+        assertNull(cache.get("d"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void diskTierSurvivesNewCacheInstance() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("cache");
+        byte[] png = {1, 2, 3};
+        new PageRenderCache(0, directory).put("page", png);
+        PageRenderCache reopened = new PageRenderCache(1024, directory);
+        assertArrayEquals(png, reopened.get("page"));
+        assertEquals(3, reopened.getMemoryBytes());
+        assertNull(reopened.get("missing"));
+    }
+
+    @Test
+    public void manifestRoundTrip() throws IOException {
+        PageManifest manifest = new PageManifest();
+        assertTrue(manifest.update("sheet 1", 0, "aa"));
+        assertTrue(manifest.update("sheet 1", 1, "bb"));
+        Path file = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+        manifest.save(file);
+
+        PageManifest loaded = PageManifest.load(file);
+        assertFalse(loaded.update("sheet 1", 0, "aa"));
+        assertTrue(loaded.update("sheet 1", 2, "cc"));
+        assertEquals(Collections.singletonList("sheet 1_2.png"), loaded.getChangedPages());
+        assertEquals(Collections.singletonList("sheet 1_1.png"), loaded.getRemovedPages());
+        assertTrue(PageManifest.load(file.resolveSibling("missing.txt")).update("sheet 1", 0, "aa"));
+    }
+
+    private static JTable table() {
+        return new JTable()
+                .setCellFont(new Font("宋体", Font.PLAIN, 24))
+                .setHeaderFont(new Font("宋体", Font.BOLD, 24))
+                .setRowHeight(50);
+    }
+
+    private static List<List<JExtendedCell>> rows() {
+        return new ArrayList<>(Arrays.asList(row("a", "b"), row("c", "d")));
+    }
+
+    private static List<JExtendedCell> row(String... contents) {
+        List<JExtendedCell> row = new ArrayList<>();
+        for (String content : contents) {
+            row.add(new JExtendedCell(content).setTextColor(Color.BLACK));
+        }
+        return row;
+    }
+}
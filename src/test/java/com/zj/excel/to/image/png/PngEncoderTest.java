@@ -0,0 +1,83 @@
+package com.zj.excel.to.image.png;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 编码结果用 ImageIO 读回来需要和原图一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PngEncoderTest {
+
+    @Test
+    public void everyFilterStrategyRoundTrips() throws IOException {
+        for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR}) {
+            BufferedImage image = image(type);
+            for (PngFilterStrategy strategy : PngFilterStrategy.values()) {
+                for (int level : new int[]{0, 1, 9}) {
+                    PngEncoder encoder = new PngEncoder().setFilterStrategy(strategy).setCompressionLevel(level);
+                    assertSamePixels(type + " " + strategy + " " + level, image, encoder.encode(image));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reportsEncodedBytes() throws IOException {
+        BufferedImage image = image(BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long bytes = new PngEncoder().encode(image, Channels.newChannel(outputStream));
+        assertEquals(outputStream.size(), bytes);
+        assertSamePixels("channel", image, outputStream.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCompressionLevel() {
+        new PngEncoder().setCompressionLevel(10);
+    }
+
+    /**
+     * 既有大块纯色也有随机噪点，足够大以产生多个 IDAT 块
+     */
+    private static BufferedImage image(int type) {
+        BufferedImage image = new BufferedImage(301, 257, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 301, 257);
+        g.setColor(new Color(20, 120, 200, 128));
+        g.fillRect(10, 10, 150, 80);
+        g.setColor(Color.BLACK);
+        g.drawString("表格 png", 30, 150);
+        g.dispose();
+        Random random = new Random(7);
+        for (int y = 160; y < 257; y++) {
+            for (int x = 0; x < 301; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(String message, BufferedImage expected, byte[] png) throws IOException {
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(message, expected.getWidth(), actual.getWidth());
+        assertEquals(message, expected.getHeight(), actual.getHeight());
+        assertArrayEquals(message,
+                expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+    }
+}
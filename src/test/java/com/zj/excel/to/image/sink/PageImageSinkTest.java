@@ -0,0 +1,76 @@
+package com.zj.excel.to.image.sink;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 内置 sink 的输出校验
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class PageImageSinkTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void directorySinkWritesPngFiles() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("images");
+        DirectoryPageImageSink sink = new DirectoryPageImageSink(directory);
+        sink.accept(0, "sheet1", 0, image(Color.RED));
+        sink.accept(0, "sheet1", 1, image(Color.BLUE));
+
+        assertTrue(Files.exists(directory.resolve("sheet1_0.png")));
+        BufferedImage read = ImageIO.read(directory.resolve("sheet1_1.png").toFile());
+        assertEquals(Color.BLUE.getRGB(), read.getRGB(1, 1));
+    }
+
+    @Test
+    public void zipSinkWritesEntriesInOrder() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipPageImageSink sink = new ZipPageImageSink(outputStream)) {
+            sink.accept(0, "a", 0, image(Color.RED));
+            sink.accept(1, "b", 0, image(Color.GREEN));
+        }
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                names.add(entry.getName());
+                BufferedImage read = ImageIO.read(zipInputStream);
+                assertEquals(4, read.getWidth());
+            }
+        }
+        assertEquals(Arrays.asList("a_0.png", "b_0.png"), names);
+    }
+
+    private static BufferedImage image(Color color) {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                image.setRGB(x, y, color.getRGB());
+            }
+        }
+        return image;
+    }
+}
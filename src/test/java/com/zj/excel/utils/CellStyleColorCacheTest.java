@@ -0,0 +1,97 @@
+package com.zj.excel.utils;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 样式颜色缓存的结果需要和 {@link ExcelColorUtils} 逐个单元格解析的结果一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class CellStyleColorCacheTest {
+
+    @Test
+    public void xlsMatchesDirectResolution() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            // 自定义调色板
+            wb.getCustomPalette().setColorAtIndex(IndexedColors.LIME.getIndex(), (byte) 0x12, (byte) 0x34, (byte) 0x56);
+            assertCacheMatches(fill(wb, IndexedColors.LIME.getIndex()));
+        }
+    }
+
+    @Test
+    public void xlsxMatchesDirectResolution() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            fill(wb, IndexedColors.LIME.getIndex());
+            XSSFCellStyle rgbStyle = wb.createCellStyle();
+            rgbStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 0xAB, 0x10, 0x20}, null));
+            rgbStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            wb.getSheetAt(0).createRow(20).createCell(0).setCellStyle(rgbStyle);
+            assertCacheMatches(wb);
+        }
+    }
+
+    @Test
+    public void unresolvedAndPaletteSwitch() {
+        CellStyleColorCache cache = new CellStyleColorCache();
+        assertNull(cache.getBackgroundColor(500));
+        assertEquals(Color.BLACK, cache.getTextColor(-1));
+        cache.usePalette("a");
+        cache.put(3, new Color(1, 2, 3), new Color(1, 2, 3));
+        assertTrue(cache.isResolved(3));
+        assertSame(cache.getBackgroundColor(3), cache.getTextColor(3));
+        cache.usePalette("a");
+        assertTrue(cache.isResolved(3));
+        cache.usePalette("b");
+        assertFalse(cache.isResolved(3));
+    }
+
+    private static Workbook fill(Workbook wb, short fillColor) {
+        Sheet sheet = wb.createSheet("colors");
+        CellStyle fillStyle = wb.createCellStyle();
+        fillStyle.setFillForegroundColor(fillColor);
+        fillStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        Font font = wb.createFont();
+        font.setColor(IndexedColors.RED.getIndex());
+        CellStyle fontStyle = wb.createCellStyle();
+        fontStyle.setFont(font);
+        for (int r = 0; r < 10; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r);
+            row.createCell(1).setCellStyle(fillStyle);
+            row.createCell(2).setCellStyle(fontStyle);
+        }
+        return wb;
+    }
+
+    private static void assertCacheMatches(Workbook wb) {
+        CellStyleColorCache cache = new CellStyleColorCache(wb);
+        for (Row row : wb.getSheetAt(0)) {
+            for (Cell cell : row) {
+                assertEquals(ExcelColorUtils.getCellBackgroundColor(cell), cache.getCellBackgroundColor(cell));
+                assertEquals(ExcelColorUtils.getCellTextColor(cell, wb), cache.getCellTextColor(cell));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.zj.excel.utils;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 取值上下文的格式化规则以及公式结果缓存
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class ExcelEvaluationContextTest {
+
+    @Test
+    public void formatsValuesAndMemoisesFormulas() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(2);
+            Cell formula = row.createCell(1);
+            formula.setCellFormula("A1*3");
+            Cell text = row.createCell(2);
+            text.setCellFormula("\"x\"&A1");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+            Cell date = row.createCell(3);
+            date.setCellValue(new Date(100000000000L));
+            date.setCellStyle(dateStyle);
+
+            ExcelEvaluationContext context = new ExcelEvaluationContext(wb);
+            assertEquals("", context.getCellText(null));
+            assertEquals(2.0, context.formatCellValue(row.getCell(0)));
+            assertEquals(6.0, context.formatCellValue(formula));
+            assertEquals("x2", context.formatCellValue(text));
+            assertEquals("1973-03-03", context.formatCellValue(date));
+
+            // 同一次转换内公式结果只计算一次
+            row.getCell(0).setCellValue(5);
+            assertEquals(6.0, context.formatCellValue(formula));
+            assertEquals(15.0, new ExcelEvaluationContext(wb).formatCellValue(formula));
+        }
+    }
+
+    @Test
+    public void cachedFormulaValueMode() throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("s");
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(2);
+            Cell formula = row.createCell(1);
+            formula.setCellFormula("A1*3");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+            Cell date = row.createCell(2);
+            date.setCellFormula("A1+1000");
+            date.setCellStyle(dateStyle);
+            Cell notEvaluated = row.createCell(3);
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            notEvaluated.setCellFormula("A1*4");
+            Object expectedDate = new ExcelEvaluationContext(wb).formatCellValue(date);
+            row.getCell(0).setCellValue(5);
+
+            ExcelEvaluationContext cached = new ExcelEvaluationContext(wb, true);
+            // 使用文件中缓存的结果，不会重新计算
+            assertEquals(6.0, cached.formatCellValue(formula));
+            assertEquals(expectedDate, cached.formatCellValue(date));
+            // 没有缓存结果时退回到计算公式
+            assertEquals(20.0, cached.formatCellValue(notEvaluated));
+            assertEquals(15.0, new ExcelEvaluationContext(wb).formatCellValue(formula));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.zj.excel.utils;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 合并区域索引的查找结果需要和线性扫描一致
+ *
+ * @author zhoujun134
+ * Created on 2025-10-12
+ */
+public class MergedRegionIndexTest {
+
+    @Test
+    public void lookupMatchesLinearScan() {
+        Random random = new Random(42);
+        List<CellRangeAddress> regions = new ArrayList<>();
+        boolean[][] used = new boolean[200][40];
+        for (int i = 0; i < 300; i++) {
+            int firstRow = random.nextInt(200);
+            int firstColumn = random.nextInt(40);
+            int lastRow = Math.min(199, firstRow + random.nextInt(12));
+            int lastColumn = Math.min(39, firstColumn + random.nextInt(5));
+            if (isUsed(used, firstRow, lastRow, firstColumn, lastColumn)) {
+                continue;
+            }
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstColumn; c <= lastColumn; c++) {
+                    used[r][c] = true;
+                }
+            }
+            regions.add(new CellRangeAddress(firstRow, lastRow, firstColumn, lastColumn));
+        }
+        Collections.shuffle(regions, random);
+        MergedRegionIndex index = new MergedRegionIndex(regions);
+        for (int r = 0; r < 205; r++) {
+            for (int c = 0; c < 45; c++) {
+                CellRangeAddress expected = null;
+                for (CellRangeAddress region : regions) {
+                    if (region.isInRange(r, c)) {
+                        expected = region;
+                        break;
+                    }
+                }
+                assertSame("cell(" + r + "," + c + ")", expected, index.getMergedRegion(r, c));
+            }
+        }
+        assertEquals(regions, index.getMergedRegions());
+    }
+
+    @Test
+    public void wholeColumnMerge() {
+        CellRangeAddress column = new CellRangeAddress(0, 1048575, 0, 0);
+        CellRangeAddress block = new CellRangeAddress(5, 6, 1, 3);
+        MergedRegionIndex index = new MergedRegionIndex(Arrays.asList(column, block));
+        assertSame(column, index.getMergedRegion(1048575, 0));
+        assertSame(column, index.getMergedRegion(500000, 0));
+        assertSame(block, index.getMergedRegion(6, 2));
+        assertNull(index.getMergedRegion(7, 2));
+        assertNull(new MergedRegionIndex(null).getMergedRegion(0, 0));
+    }
+
+    private static boolean isUsed(boolean[][] used, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                if (used[r][c]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}